@@ -0,0 +1,86 @@
+import { BASE_URL, refreshAccessToken } from './axiosConfig';
+
+const MAX_RETRY_DELAY = 30000;
+
+// Splits a Server-Sent Events stream into { id, name, data } events. Comment lines (heartbeats) are skipped.
+const readEvents = async (body, onEvent) => {
+  const reader = body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) return;
+
+    buffer += value;
+
+    let boundary;
+    while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+      const block = buffer.slice(0, boundary);
+      buffer = buffer.slice(boundary + 2);
+
+      const event = { id: null, name: 'message', data: '' };
+      const dataLines = [];
+
+      for (const line of block.split('\n')) {
+        if (line.startsWith(':')) continue;
+
+        const colon = line.indexOf(':');
+        const field = colon >= 0 ? line.slice(0, colon) : line;
+        let fieldValue = colon >= 0 ? line.slice(colon + 1) : '';
+        if (fieldValue.startsWith(' ')) fieldValue = fieldValue.slice(1);
+
+        if (field === 'id') event.id = fieldValue;
+        else if (field === 'event') event.name = fieldValue;
+        else if (field === 'data') dataLines.push(fieldValue);
+      }
+
+      if (dataLines.length) {
+        event.data = dataLines.join('\n');
+        onEvent(event);
+      }
+    }
+  }
+};
+
+// EventSource cannot send the Authorization header, so the stream is read with fetch.
+// Reconnects with backoff until the returned function is called.
+export const subscribeToEvents = (path, onEvent) => {
+  const controller = new AbortController();
+  let retryDelay = 1000;
+
+  const connect = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        const response = await fetch(`${BASE_URL}${path}`, {
+          headers: {
+            Authorization: `Bearer ${localStorage.getItem('token')}`,
+            Accept: 'text/event-stream',
+          },
+          signal: controller.signal,
+        });
+
+        if (response.status === 401 && localStorage.getItem('refreshToken')) {
+          await refreshAccessToken();
+          continue;
+        }
+
+        if (!response.ok) {
+          throw new Error(`Event stream failed with status ${response.status}`);
+        }
+
+        retryDelay = 1000;
+        await readEvents(response.body, onEvent);
+      } catch (error) {
+        if (controller.signal.aborted) return;
+        console.error(error);
+      }
+
+      await new Promise((resolve) => setTimeout(resolve, retryDelay));
+      retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+    }
+  };
+
+  connect();
+
+  return () => controller.abort();
+};
@@ -13,6 +13,8 @@ const CreateOrderPage = () => {
     const [address, setAddress] = useState('');
     const [loading, setLoading] = useState(false);
     const [message, setMessage] = useState({ type: '', text: '' });
+    // Retrying the same cart reuses the key, so the server answers a repeated submit with the first order
+    const [idempotencyKey, setIdempotencyKey] = useState(() => crypto.randomUUID());
 
     const { userId } = useSelector(state => state.auth);
 
@@ -29,6 +31,10 @@ const CreateOrderPage = () => {
         fetchProducts();
     }, []);
 
+    useEffect(() => {
+        setIdempotencyKey(crypto.randomUUID());
+    }, [cart, address]);
+
     const updateQuantity = (id, delta) => {
         setCart(prev => {
             const currentQty = prev[id] || 0;
@@ -64,7 +70,9 @@ const CreateOrderPage = () => {
         setLoading(true);
         try {
             const orderRequest = { address, items, userId };
-            await api.post('api/v1/orders', orderRequest);
+            await api.post('api/v1/orders', orderRequest, {
+                headers: { 'Idempotency-Key': idempotencyKey }
+            });
 
             setMessage({ type: 'success', text: 'Order placed successfully!' });
             setCart({});
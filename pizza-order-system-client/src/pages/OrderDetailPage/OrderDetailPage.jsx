@@ -7,6 +7,7 @@ import {
 } from '@mui/material';
 import { ArrowBack, ReceiptLong, LocalShipping, AccessTime } from '@mui/icons-material';
 import api from '../../axios/axiosConfig'; 
+import { subscribeToEvents } from '../../axios/eventStream';
 
 const OrderDetailPage = () => {
   const { orderId } = useParams();
@@ -31,6 +32,22 @@ const OrderDetailPage = () => {
     fetchOrder();
   }, [orderId]);
 
+  // Status changes are pushed by the server instead of polled
+  useEffect(() => {
+    const unsubscribe = subscribeToEvents(`/api/v1/orders/${orderId}/events`, (event) => {
+      if (event.name !== 'order-status') return;
+
+      const update = JSON.parse(event.data);
+      setOrder((current) => current && {
+        ...current,
+        status: update.status,
+        updatedAt: update.occurredAt ?? current.updatedAt,
+      });
+    });
+
+    return unsubscribe;
+  }, [orderId]);
+
   const formatDate = (dateString) => {
     return new Date(dateString).toLocaleString('en-US', {
       year: 'numeric', month: 'long', day: 'numeric', 
@@ -16,7 +16,6 @@ import {
 } from '@mui/material';
 import { useNavigate } from 'react-router-dom';
 import api from '../../axios/axiosConfig';
-import { useSelector } from 'react-redux';
 
 const getStatusChipColor = (status) => {
     switch (status) {
@@ -33,33 +32,38 @@ const getStatusChipColor = (status) => {
     }
 };
 
+const PAGE_SIZE = 20;
+
 const OrderHistoryPage = () => {
     const [orders, setOrders] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [error, setError] = useState(null);
     const navigate = useNavigate();
-    const { token, userId } = useSelector(state => state.auth)
 
-    console.log(token, userId)
-    useEffect(() => {
-        const fetchOrders = async (filters = {}) => {
-            console.log("API Call: Fetching all orders with token:", token);
-            const queryString = new URLSearchParams(filters).toString();
-            try {
-                const response = await api.get(`/api/v1/orders?${queryString}`);
+    // Pages come newest first; the cursor of a page points past its last order
+    const fetchPage = async (cursor) => {
+        const params = { pageSize: PAGE_SIZE };
 
-                return response.data;
-            } catch (error) {
-                console.error("An error occured: ", error)
-            }
-        };
+        if (cursor) {
+            params.beforeCreatedAt = cursor.beforeCreatedAt;
+            params.beforeId = cursor.beforeId;
+        }
+
+        const response = await api.get(`/api/v1/orders/history?${new URLSearchParams(params).toString()}`);
+        const page = response.data;
 
+        setOrders(previous => cursor ? [...previous, ...page.orders] : page.orders);
+        setNextCursor(page.nextBeforeId != null
+            ? { beforeCreatedAt: page.nextBeforeCreatedAt, beforeId: page.nextBeforeId }
+            : null);
+    };
+
+    useEffect(() => {
         const loadOrders = async () => {
             try {
-                const data = await fetchOrders({ userId: userId });
-
-                console.log(data);
-                setOrders(data);
+                await fetchPage(null);
             } catch (err) {
                 setError('Failed to fetch order history.');
             } finally {
@@ -70,6 +74,18 @@ const OrderHistoryPage = () => {
         loadOrders();
     }, []);
 
+    const handleLoadMore = async () => {
+        setLoadingMore(true);
+
+        try {
+            await fetchPage(nextCursor);
+        } catch (err) {
+            setError('Failed to fetch order history.');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleViewDetails = (orderId) => {
         navigate(`/orders/${orderId}`);
     };
@@ -104,10 +120,11 @@ const OrderHistoryPage = () => {
                                 <TableCell component="th" scope="row">
                                     #{index + 1}
                                 </TableCell>
-                                <TableCell>{order.orderDate}</TableCell>
+                                <TableCell>{new Date(order.createdAt).toLocaleString()}</TableCell>
                                 <TableCell>
                                     <Chip label={order.status} color={getStatusChipColor(order.status)} size="small" />
                                 </TableCell>
+                                <TableCell align="right">{Number(order.subtotal).toFixed(2)}</TableCell>
                                 <TableCell align="center">
                                     <Button variant="outlined" size="small" onClick={() => handleViewDetails(order.id)}>
                                         View Details
@@ -118,6 +135,13 @@ const OrderHistoryPage = () => {
                     </TableBody>
                 </Table>
             </TableContainer>
+            {nextCursor && (
+                <Container sx={{ display: 'flex', justifyContent: 'center', mt: 2 }}>
+                    <Button variant="contained" onClick={handleLoadMore} disabled={loadingMore}>
+                        {loadingMore ? <CircularProgress size={24} /> : 'Load more'}
+                    </Button>
+                </Container>
+            )}
         </Container>
     );
 
@@ -12,12 +12,13 @@ const authSlice = createSlice({
   initialState,
   reducers: {
     setCredentials: (state, action) => {
-      const { token, role, userId } = action.payload;
+      const { token, refreshToken, role, userId } = action.payload;
       state.token = token;
       state.role = role;
       state.isAuthenticated = true;
       state.userId = userId;
       localStorage.setItem('token', token);
+      localStorage.setItem('refreshToken', refreshToken);
       localStorage.setItem('role', role);
       localStorage.setItem('userId', userId)
     },
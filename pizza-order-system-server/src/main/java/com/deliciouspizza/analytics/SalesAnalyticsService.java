@@ -0,0 +1,254 @@
+package com.deliciouspizza.analytics;
+
+import com.deliciouspizza.analytics.columnar.ColumnarGroupBy;
+import com.deliciouspizza.analytics.columnar.ColumnarQuery;
+import com.deliciouspizza.analytics.columnar.GroupTotal;
+import com.deliciouspizza.analytics.columnar.OrderLineColumnStore;
+import com.deliciouspizza.analytics.columnar.OrderLineColumns;
+import com.deliciouspizza.config.ExecutorFactory;
+import com.deliciouspizza.dto.analytics.AdHocSalesQueryDto;
+import com.deliciouspizza.dto.analytics.AdHocSalesRowDto;
+import com.deliciouspizza.dto.analytics.SalesBucketDto;
+import com.deliciouspizza.dto.analytics.SalesGranularity;
+import com.deliciouspizza.dto.analytics.SalesQueryDto;
+import com.deliciouspizza.dto.analytics.SalesRebuildResultDto;
+import com.deliciouspizza.exception.InvalidAnalyticsRangeException;
+import com.deliciouspizza.model.product.ProductCategory;
+import com.deliciouspizza.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Answers sales range queries from the hourly and daily rollups, and rebuilds the rollups from the order
+ * lines in parallel day-aligned chunks, each in its own transaction. Ad-hoc queries the rollups cannot
+ * answer, such as filters by day of week, are scanned from {@link OrderLineColumnStore} instead.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final Logger logger = Logger.getLogger(SalesAnalyticsService.class.getName());
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorFactory executorFactory;
+    private final int rebuildParallelism;
+    private final int rebuildChunkDays;
+    private final Duration maxHourlyRange;
+    private final OrderLineColumnStore orderLineColumnStore;
+    private final int maxAdHocLimit;
+    private final boolean archiveEnabled;
+    private final long archiveOlderThanDays;
+    private final int partitionRetentionMonths;
+
+    public SalesAnalyticsService(
+            SalesRollupRepository salesRollupRepository,
+            OrderLineColumnStore orderLineColumnStore,
+            PlatformTransactionManager transactionManager,
+            ExecutorFactory executorFactory,
+            @Value("${analytics.rebuild.parallelism:4}") int rebuildParallelism,
+            @Value("${analytics.rebuild.chunk-days:7}") int rebuildChunkDays,
+            @Value("${analytics.max-hourly-range-days:92}") long maxHourlyRangeDays,
+            @Value("${analytics.columnar.max-limit:1000}") int maxAdHocLimit,
+            @Value("${orders.archive.enabled:false}") boolean archiveEnabled,
+            @Value("${orders.archive.older-than-days:365}") long archiveOlderThanDays,
+            @Value("${orders.partitions.retention-months:0}") int partitionRetentionMonths
+    ) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executorFactory = executorFactory;
+        this.rebuildParallelism = Math.max(1, rebuildParallelism);
+        this.rebuildChunkDays = Math.max(1, rebuildChunkDays);
+        this.maxHourlyRange = Duration.ofDays(maxHourlyRangeDays);
+        this.orderLineColumnStore = orderLineColumnStore;
+        this.maxAdHocLimit = maxAdHocLimit;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveOlderThanDays = archiveOlderThanDays;
+        this.partitionRetentionMonths = partitionRetentionMonths;
+    }
+
+    /**
+     * @param query The range, granularity and grouping; the range end is exclusive.
+     * @return One row per bucket and group, in bucket order.
+     * @throws InvalidAnalyticsRangeException If the range is missing or empty, or too long for hourly buckets.
+     */
+    public List<SalesBucketDto> findSales(SalesQueryDto query) {
+        if (query.getFrom() == null || query.getTo() == null || !query.getFrom().isBefore(query.getTo())) {
+            throw new InvalidAnalyticsRangeException("from and to are required and from must be before to");
+        }
+
+        if (query.getGranularity() == SalesGranularity.HOUR
+                && Duration.between(query.getFrom(), query.getTo()).compareTo(maxHourlyRange) > 0) {
+            throw new InvalidAnalyticsRangeException("Hourly sales can be requested for at most " + maxHourlyRange.toDays() + " days");
+        }
+
+        return salesRollupRepository.findSales(query.getGranularity(), query.getGroupBy(), query.getFrom(), query.getTo());
+    }
+
+    /**
+     * Answers a filter, group-by and top-N query from the in-memory columns of completed order lines,
+     * which are as fresh as their last reload.
+     *
+     * @param query The range, the days and categories to include, the grouping, the metric and the limit.
+     * @return At most {@code limit} groups, highest metric first.
+     * @throws InvalidAnalyticsRangeException If the range is missing or empty, or the limit is out of bounds.
+     */
+    public List<AdHocSalesRowDto> findAdHocSales(AdHocSalesQueryDto query) {
+        if (query.getFrom() == null || query.getTo() == null || !query.getFrom().isBefore(query.getTo())) {
+            throw new InvalidAnalyticsRangeException("from and to are required and from must be before to");
+        }
+
+        if (query.getLimit() < 1 || query.getLimit() > maxAdHocLimit) {
+            throw new InvalidAnalyticsRangeException("limit must be between 1 and " + maxAdHocLimit);
+        }
+
+        int dayOfWeekMask = query.getDays().isEmpty() ? ColumnarQuery.ALL_DAYS : 0;
+        for (DayOfWeek day : query.getDays()) {
+            dayOfWeekMask |= 1 << day.ordinal();
+        }
+
+        int categoryMask = query.getCategories().isEmpty() ? ColumnarQuery.ALL_CATEGORIES : 0;
+        for (ProductCategory category : query.getCategories()) {
+            categoryMask |= 1 << category.ordinal();
+        }
+
+        ColumnarQuery columnarQuery = new ColumnarQuery(
+                OrderLineColumns.toEpochMinute(query.getFrom()),
+                OrderLineColumns.toEpochMinute(query.getTo()),
+                dayOfWeekMask,
+                categoryMask,
+                query.getGroupBy(),
+                query.getMetric(),
+                query.getLimit()
+        );
+
+        OrderLineColumnStore.Snapshot snapshot = orderLineColumnStore.snapshot();
+
+        return snapshot.columns().aggregate(columnarQuery, true).stream()
+                .map(total -> toAdHocRow(query.getGroupBy(), total, snapshot.productNames()))
+                .toList();
+    }
+
+    private static AdHocSalesRowDto toAdHocRow(ColumnarGroupBy groupBy, GroupTotal total, Map<Integer, String> productNames) {
+        int group = total.group();
+
+        String key = switch (groupBy) {
+            case PRODUCT, HOUR_OF_DAY -> String.valueOf(group);
+            case CATEGORY -> ProductCategory.values()[group].name();
+            case DAY_OF_WEEK -> DayOfWeek.values()[group].name();
+        };
+
+        String label = switch (groupBy) {
+            case PRODUCT -> productNames.get(group);
+            case HOUR_OF_DAY -> String.format("%02d:00", group);
+            case CATEGORY, DAY_OF_WEEK -> key;
+        };
+
+        return new AdHocSalesRowDto(key, label, total.quantity(), BigDecimal.valueOf(total.revenueCents(), 2), total.lines());
+    }
+
+    /**
+     * Recomputes the rollups for the days in [from, to). Chunks are independent, so a failed rebuild can
+     * simply be repeated; chunks that already committed hold correct values.
+     * <p>
+     * The rebuild reads the order lines still in the database, so days whose orders may have been archived
+     * or detached are refused: recomputing them would replace their sales with whatever is left.
+     * </p>
+     *
+     * @throws InvalidAnalyticsRangeException If the range is missing or empty, or starts before the first
+     *                                        day whose orders are all still in the database.
+     */
+    public SalesRebuildResultDto rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new InvalidAnalyticsRangeException("from and to are required and from must be before to");
+        }
+
+        LocalDate earliest = earliestRebuildableDay();
+        if (earliest != null && from.isBefore(earliest)) {
+            throw new InvalidAnalyticsRangeException("Orders before " + earliest + " may be archived, so from must not be before it");
+        }
+
+        long start = System.nanoTime();
+
+        Queue<LocalDate> chunkStarts = new ConcurrentLinkedQueue<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(rebuildChunkDays)) {
+            chunkStarts.add(day);
+        }
+
+        int chunks = chunkStarts.size();
+        ExecutorService executor = executorFactory.newExecutor("sales-rebuild", rebuildParallelism);
+
+        try {
+            // A fixed number of workers pulling chunks bounds the connections used, with virtual threads as well
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(rebuildParallelism, chunks); i++) {
+                workers.add(executor.submit(() -> rebuildChunks(chunkStarts, to)));
+            }
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Sales rollup rebuild failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding sales rollups", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long durationMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        logger.info("Rebuilt sales rollups from " + from + " to " + to + " in " + chunks + " chunks, ms: " + durationMs);
+
+        return new SalesRebuildResultDto(from, to, chunks, durationMs);
+    }
+
+    /**
+     * @return The first day no order of which can have been archived or detached, or null if none ever is.
+     */
+    private LocalDate earliestRebuildableDay() {
+        LocalDate today = LocalDate.now();
+        LocalDate earliest = null;
+
+        // The archiver cuts at a time of day, so the day it cuts into is partly gone
+        if (archiveEnabled) {
+            earliest = today.minusDays(archiveOlderThanDays).plusDays(1);
+        }
+
+        if (partitionRetentionMonths > 0) {
+            LocalDate firstAttachedMonth = today.withDayOfMonth(1).minusMonths(partitionRetentionMonths);
+            earliest = earliest == null || firstAttachedMonth.isAfter(earliest) ? firstAttachedMonth : earliest;
+        }
+
+        return earliest;
+    }
+
+    private void rebuildChunks(Queue<LocalDate> chunkStarts, LocalDate to) {
+        LocalDate chunkStart;
+
+        while ((chunkStart = chunkStarts.poll()) != null) {
+            LocalDate chunkFrom = chunkStart;
+            LocalDate chunkTo = chunkStart.plusDays(rebuildChunkDays).isAfter(to) ? to : chunkStart.plusDays(rebuildChunkDays);
+
+            transactionTemplate.executeWithoutResult(status -> salesRollupRepository.rebuild(chunkFrom, chunkTo));
+        }
+    }
+}
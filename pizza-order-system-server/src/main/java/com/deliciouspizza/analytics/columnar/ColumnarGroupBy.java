@@ -0,0 +1,8 @@
+package com.deliciouspizza.analytics.columnar;
+
+public enum ColumnarGroupBy {
+    PRODUCT,
+    CATEGORY,
+    DAY_OF_WEEK,
+    HOUR_OF_DAY
+}
@@ -0,0 +1,7 @@
+package com.deliciouspizza.analytics.columnar;
+
+public enum ColumnarMetric {
+    REVENUE,
+    QUANTITY,
+    LINES
+}
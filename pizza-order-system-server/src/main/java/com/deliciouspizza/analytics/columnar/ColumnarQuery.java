@@ -0,0 +1,26 @@
+package com.deliciouspizza.analytics.columnar;
+
+/**
+ * A filter, group-by and top-N query over {@link OrderLineColumns}.
+ *
+ * @param fromMinute    Start of the range in epoch minutes, inclusive.
+ * @param toMinute      End of the range in epoch minutes, exclusive.
+ * @param dayOfWeekMask One bit per {@link java.time.DayOfWeek} ordinal; {@link #ALL_DAYS} for every day.
+ * @param categoryMask  One bit per {@link com.deliciouspizza.model.product.ProductCategory} ordinal.
+ * @param groupBy       What the totals are grouped by.
+ * @param metric        The total the groups are ranked by.
+ * @param limit         The number of groups returned, highest first.
+ */
+public record ColumnarQuery(
+        int fromMinute,
+        int toMinute,
+        int dayOfWeekMask,
+        int categoryMask,
+        ColumnarGroupBy groupBy,
+        ColumnarMetric metric,
+        int limit
+) {
+
+    public static final int ALL_DAYS = 0b111_1111;
+    public static final int ALL_CATEGORIES = -1;
+}
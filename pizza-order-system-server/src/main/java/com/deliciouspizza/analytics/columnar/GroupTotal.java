@@ -0,0 +1,7 @@
+package com.deliciouspizza.analytics.columnar;
+
+/**
+ * The totals of one group: a product id, a category or day-of-week ordinal, or an hour of the day.
+ */
+public record GroupTotal(int group, long quantity, long revenueCents, long lines) {
+}
@@ -0,0 +1,123 @@
+package com.deliciouspizza.analytics.columnar;
+
+import com.deliciouspizza.model.product.ProductCategory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Holds the lines of completed orders as {@link OrderLineColumns}, reloaded from Postgres on an interval.
+ * <p>
+ * A reload streams the lines with a fetch size, so the driver never holds the whole result, and then
+ * swaps the snapshot in one volatile write; queries keep using the snapshot they started with. The data is
+ * as old as the last reload, which is fine for ad-hoc analysis but not for anything that must be exact now.
+ * </p>
+ */
+@Component
+public class OrderLineColumnStore {
+
+    private static final Logger logger = Logger.getLogger(OrderLineColumnStore.class.getName());
+
+    private static final String COMPLETED_LINES = """
+            SELECT op.product_id, p.category, o.created_at, op.quantity, op.price_at_order_time
+            FROM orders o
+            JOIN orders_products op ON op.order_id = o.id AND op.order_created_at = o.created_at
+            JOIN products p ON p.id = op.product_id
+            WHERE o.status = 'COMPLETED'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot;
+
+    public OrderLineColumnStore(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${analytics.columnar.enabled:true}") boolean enabled,
+            @Value("${analytics.columnar.fetch-size:10000}") int fetchSize
+    ) {
+        // Its own template, so the fetch size does not apply to other queries
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Postgres only streams with a fetch size inside a transaction
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param columns      The order lines.
+     * @param productNames Product names by id, for labelling product groups.
+     * @param loadedAt     When the reload started; lines completed after it may be missing.
+     */
+    public record Snapshot(OrderLineColumns columns, Map<Integer, String> productNames, LocalDateTime loadedAt) {
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.columnar.refresh-interval-ms:300000}",
+            initialDelayString = "${analytics.columnar.refresh-interval-ms:300000}")
+    public void scheduledReload() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /**
+     * @return The current snapshot, loading the first one if no reload has run yet.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Reads all completed order lines into a new snapshot and makes it current. Concurrent calls are
+     * serialized, so at most one reload holds a connection.
+     */
+    public synchronized Snapshot reload() {
+        long start = System.nanoTime();
+        LocalDateTime loadedAt = LocalDateTime.now();
+        Snapshot previous = snapshot;
+
+        Snapshot loaded = transactionTemplate.execute(status -> {
+            OrderLineColumns.Builder builder = OrderLineColumns.builder(previous == null ? 0 : previous.columns().size());
+
+            jdbcTemplate.query(COMPLETED_LINES, resultSet -> {
+                Timestamp createdAt = resultSet.getTimestamp(3);
+                builder.add(
+                        resultSet.getInt(1),
+                        ProductCategory.valueOf(resultSet.getString(2)).ordinal(),
+                        OrderLineColumns.toEpochMinute(createdAt.toLocalDateTime()),
+                        resultSet.getInt(4),
+                        resultSet.getBigDecimal(5).movePointRight(2).longValueExact()
+                );
+            });
+
+            Map<Integer, String> productNames = new HashMap<>();
+            jdbcTemplate.query("SELECT id, name FROM products", resultSet -> {
+                productNames.put(resultSet.getInt(1), resultSet.getString(2));
+            });
+
+            return new Snapshot(builder.build(), Map.copyOf(productNames), loadedAt);
+        });
+
+        snapshot = loaded;
+
+        logger.info("Loaded order line columns, lines: " + loaded.columns().size()
+                + ", ms: " + Duration.ofNanos(System.nanoTime() - start).toMillis());
+
+        return loaded;
+    }
+}
@@ -0,0 +1,233 @@
+package com.deliciouspizza.analytics.columnar;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Order lines stored column by column in primitive arrays: one array per attribute, one index per line.
+ * <p>
+ * A query scans only the columns it needs, in chunks of {@link #CHUNK_SIZE} lines. Each chunk sums into
+ * its own accumulator arrays indexed by group, so chunks can run on parallel threads without sharing
+ * state; the accumulators are merged at the end. Prices are scaled longs (cents) and times are minutes
+ * since the epoch in UTC, which fit an int until the year 6053.
+ * </p>
+ * Instances are immutable once built.
+ */
+public final class OrderLineColumns {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int size;
+    private final int[] productIds;
+    private final byte[] categories;
+    private final int[] minutes;
+    private final int[] quantities;
+    private final long[] unitPriceCents;
+    private final int maxProductId;
+
+    private OrderLineColumns(int size, int[] productIds, byte[] categories, int[] minutes, int[] quantities,
+                             long[] unitPriceCents, int maxProductId) {
+        this.size = size;
+        this.productIds = productIds;
+        this.categories = categories;
+        this.minutes = minutes;
+        this.quantities = quantities;
+        this.unitPriceCents = unitPriceCents;
+        this.maxProductId = maxProductId;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public static int toEpochMinute(LocalDateTime time) {
+        return Math.toIntExact(Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    /**
+     * @return The {@link java.time.DayOfWeek} ordinal of the minute, Monday being 0. The epoch was a Thursday.
+     */
+    static int dayOfWeek(int epochMinute) {
+        return (int) Math.floorMod(Math.floorDiv(epochMinute, MINUTES_PER_DAY) + 3L, 7L);
+    }
+
+    static int hourOfDay(int epochMinute) {
+        return Math.floorMod(epochMinute, MINUTES_PER_DAY) / 60;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param parallel Whether the chunks are scanned on the common fork-join pool.
+     * @return At most {@code query.limit()} groups with at least one matching line, highest metric first.
+     */
+    public List<GroupTotal> aggregate(ColumnarQuery query, boolean parallel) {
+        int groups = switch (query.groupBy()) {
+            case PRODUCT -> maxProductId + 1;
+            case CATEGORY -> 31;
+            case DAY_OF_WEEK -> 7;
+            case HOUR_OF_DAY -> 24;
+        };
+
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunkIndexes = IntStream.range(0, chunks);
+        if (parallel) {
+            chunkIndexes = chunkIndexes.parallel();
+        }
+
+        Accumulator totals = chunkIndexes
+                .mapToObj(chunk -> scan(query, groups, chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)))
+                .reduce(Accumulator::merge)
+                .orElseGet(() -> new Accumulator(groups));
+
+        Comparator<Integer> byMetric = Comparator.comparingLong(group -> switch (query.metric()) {
+            case REVENUE -> totals.revenueCents[group];
+            case QUANTITY -> totals.quantity[group];
+            case LINES -> totals.lines[group];
+        });
+
+        return IntStream.range(0, groups)
+                .filter(group -> totals.lines[group] > 0)
+                .boxed()
+                .sorted(byMetric.reversed().thenComparing(Comparator.naturalOrder()))
+                .limit(query.limit())
+                .map(group -> new GroupTotal(group, totals.quantity[group], totals.revenueCents[group], totals.lines[group]))
+                .toList();
+    }
+
+    private Accumulator scan(ColumnarQuery query, int groups, int from, int to) {
+        Accumulator accumulator = new Accumulator(groups);
+
+        int fromMinute = query.fromMinute();
+        int toMinute = query.toMinute();
+        int categoryMask = query.categoryMask();
+        int dayOfWeekMask = query.dayOfWeekMask();
+        boolean anyDay = (dayOfWeekMask & ColumnarQuery.ALL_DAYS) == ColumnarQuery.ALL_DAYS;
+        ColumnarGroupBy groupBy = query.groupBy();
+
+        for (int i = from; i < to; i++) {
+            int minute = minutes[i];
+            if (minute < fromMinute || minute >= toMinute) {
+                continue;
+            }
+
+            int category = categories[i];
+            if ((categoryMask & (1 << category)) == 0) {
+                continue;
+            }
+
+            if (!anyDay && (dayOfWeekMask & (1 << dayOfWeek(minute))) == 0) {
+                continue;
+            }
+
+            int group = switch (groupBy) {
+                case PRODUCT -> productIds[i];
+                case CATEGORY -> category;
+                case DAY_OF_WEEK -> dayOfWeek(minute);
+                case HOUR_OF_DAY -> hourOfDay(minute);
+            };
+
+            int quantity = quantities[i];
+            accumulator.quantity[group] += quantity;
+            accumulator.revenueCents[group] += quantity * unitPriceCents[i];
+            accumulator.lines[group]++;
+        }
+
+        return accumulator;
+    }
+
+    private static final class Accumulator {
+
+        private final long[] quantity;
+        private final long[] revenueCents;
+        private final long[] lines;
+
+        private Accumulator(int groups) {
+            this.quantity = new long[groups];
+            this.revenueCents = new long[groups];
+            this.lines = new long[groups];
+        }
+
+        // Each chunk owns its accumulator, so merging into the left one is safe in a parallel reduce
+        private Accumulator merge(Accumulator other) {
+            for (int group = 0; group < lines.length; group++) {
+                quantity[group] += other.quantity[group];
+                revenueCents[group] += other.revenueCents[group];
+                lines[group] += other.lines[group];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Appends lines into growing column arrays; {@link #build()} trims them to the number of lines.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] productIds;
+        private byte[] categories;
+        private int[] minutes;
+        private int[] quantities;
+        private long[] unitPriceCents;
+        private int maxProductId;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            this.productIds = new int[capacity];
+            this.categories = new byte[capacity];
+            this.minutes = new int[capacity];
+            this.quantities = new int[capacity];
+            this.unitPriceCents = new long[capacity];
+        }
+
+        /**
+         * @param category The ordinal of the product category; at most 30, so it fits a query bit mask.
+         */
+        public Builder add(int productId, int category, int epochMinute, int quantity, long unitPriceCents) {
+            if (productId < 0 || category < 0 || category > 30) {
+                throw new IllegalArgumentException("Product id and category must be non-negative, category at most 30");
+            }
+
+            if (size == productIds.length) {
+                grow();
+            }
+
+            this.productIds[size] = productId;
+            this.categories[size] = (byte) category;
+            this.minutes[size] = epochMinute;
+            this.quantities[size] = quantity;
+            this.unitPriceCents[size] = unitPriceCents;
+            this.maxProductId = Math.max(maxProductId, productId);
+            size++;
+            return this;
+        }
+
+        public OrderLineColumns build() {
+            return new OrderLineColumns(size,
+                    Arrays.copyOf(productIds, size),
+                    Arrays.copyOf(categories, size),
+                    Arrays.copyOf(minutes, size),
+                    Arrays.copyOf(quantities, size),
+                    Arrays.copyOf(unitPriceCents, size),
+                    maxProductId);
+        }
+
+        private void grow() {
+            int capacity = size + (size >> 1);
+            productIds = Arrays.copyOf(productIds, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            minutes = Arrays.copyOf(minutes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            unitPriceCents = Arrays.copyOf(unitPriceCents, capacity);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.deliciouspizza.archive;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only cold storage for archived orders on local disk.
+ * <p>
+ * Each archival batch becomes one immutable segment: a gzip-compressed NDJSON file with one order and its
+ * items per line, and a small index file with the sorted ids it contains. The indexes of all segments are
+ * kept in memory, so a lookup decompresses only the segment that holds the order. A segment counts only
+ * once its index exists; the index is written last.
+ * </p>
+ */
+@Component
+public class OrderArchive {
+
+    private static final Logger logger = Logger.getLogger(OrderArchive.class.getName());
+
+    private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    public OrderArchive(
+            ObjectMapper objectMapper,
+            @Value("${orders.archive.directory:archive/orders}") String directory
+    ) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+    }
+
+    @PostConstruct
+    void loadIndexes() throws IOException {
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path index : files.filter(file -> file.getFileName().toString().endsWith(INDEX_SUFFIX)).toList()) {
+                segments.add(new Segment(segmentFor(index), readIndex(index)));
+            }
+        }
+
+        logger.info("Loaded order archive segments: " + segments.size());
+    }
+
+    /**
+     * Writes the orders as a new segment and syncs it to disk before returning, so the caller can delete them
+     * from the database afterwards.
+     *
+     * @param orders The orders to archive, with their items.
+     * @throws UncheckedIOException If the segment could not be written.
+     */
+    public void append(List<OrderResponseDto> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        long[] ids = orders.stream().mapToLong(OrderResponseDto::getId).sorted().toArray();
+        String name = "orders-" + System.currentTimeMillis() + "-" + ids[0];
+
+        Path data = directory.resolve(name + SEGMENT_SUFFIX);
+        Path index = directory.resolve(name + INDEX_SUFFIX);
+
+        try {
+            Path tmp = directory.resolve(name + SEGMENT_SUFFIX + ".tmp");
+
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+                for (OrderResponseDto order : orders) {
+                    writer.write(objectMapper.writeValueAsString(order));
+                    writer.newLine();
+                }
+            }
+
+            sync(tmp);
+            Files.move(tmp, data, StandardCopyOption.ATOMIC_MOVE);
+
+            Path indexTmp = directory.resolve(name + INDEX_SUFFIX + ".tmp");
+            Files.write(indexTmp, Arrays.stream(ids).mapToObj(Long::toString).toList(), StandardCharsets.UTF_8);
+            sync(indexTmp);
+            Files.move(indexTmp, index, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write order archive segment " + name, e);
+        }
+
+        segments.add(new Segment(data, ids));
+    }
+
+    /**
+     * @return The archived order with the given id, if any segment holds it.
+     */
+    public Optional<OrderResponseDto> find(long orderId) {
+        for (Segment segment : segments) {
+            if (segment.contains(orderId)) {
+                Optional<OrderResponseDto> order = read(segment.data(), orderId);
+
+                if (order.isPresent()) {
+                    return order;
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    private Optional<OrderResponseDto> read(Path data, long orderId) {
+        // Only lines mentioning the id are parsed; the parse decides, since "id":5 also matches "id":50
+        String idField = "\"id\":" + orderId;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(data)), StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(idField)) {
+                    OrderResponseDto order = objectMapper.readValue(line, OrderResponseDto.class);
+
+                    if (order.getId() == orderId) {
+                        return Optional.of(order);
+                    }
+                }
+            }
+
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read order archive segment " + data, e);
+        }
+    }
+
+    private static long[] readIndex(Path index) throws IOException {
+        return Files.readAllLines(index, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isBlank())
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .toArray();
+    }
+
+    private static Path segmentFor(Path index) {
+        String name = index.getFileName().toString();
+
+        return index.resolveSibling(name.substring(0, name.length() - INDEX_SUFFIX.length()) + SEGMENT_SUFFIX);
+    }
+
+    private static void sync(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private record Segment(Path data, long[] ids) {
+
+        boolean contains(long orderId) {
+            return ids.length > 0
+                    && orderId >= ids[0]
+                    && orderId <= ids[ids.length - 1]
+                    && Arrays.binarySearch(ids, orderId) >= 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.deliciouspizza.archive;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order_product.OrderProductResponseDto;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Moves finished orders older than {@code orders.archive.older-than-days} from Postgres to the
+ * {@link OrderArchive}, in batches.
+ * <p>
+ * Each batch is one transaction: the orders are locked, written to a synced segment and only then deleted.
+ * If the transaction fails after the segment was written, the orders stay in the database and are archived
+ * again by the next run; lookups go to the database first, so the extra copy is never visible.
+ * </p>
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger logger = Logger.getLogger(OrderArchiver.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final OrderArchive orderArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration olderThan;
+    private final int batchSize;
+
+    public OrderArchiver(
+            OrderRepository orderRepository,
+            OrderArchive orderArchive,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.archive.enabled:false}") boolean enabled,
+            @Value("${orders.archive.older-than-days:365}") long olderThanDays,
+            @Value("${orders.archive.batch-size:1000}") int batchSize
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.olderThan = Duration.ofDays(olderThanDays);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${orders.archive.interval-ms:3600000}",
+            initialDelayString = "${orders.archive.interval-ms:3600000}"
+    )
+    public void archiveDue() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime createdBefore = LocalDateTime.now().minus(olderThan);
+        int total = 0;
+
+        while (true) {
+            Integer archived = transactionTemplate.execute(status -> archiveBatch(createdBefore));
+
+            total += archived;
+
+            if (archived < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            logger.info("Archived orders created before " + createdBefore + ": " + total);
+        }
+    }
+
+    /**
+     * @return The number of orders archived in this batch.
+     */
+    int archiveBatch(LocalDateTime createdBefore) {
+        List<Long> ids = orderRepository.lockArchivableIds(createdBefore, batchSize);
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<OrderResponseDto> orders = orderRepository.findWithItemsByIdIn(ids).stream()
+                .map(OrderArchiver::toDto)
+                .toList();
+
+        orderArchive.append(orders);
+        orderRepository.deleteWithItemsByIdIn(ids);
+
+        return ids.size();
+    }
+
+    private static OrderResponseDto toDto(Order order) {
+        List<OrderProductResponseDto> items = order.getOrderProducts().stream()
+                .map(item -> new OrderProductResponseDto(
+                        order.getId(),
+                        item.getProduct().getId(),
+                        item.getProduct().getName(),
+                        item.getQuantity(),
+                        item.getPriceAtOrderTime()
+                ))
+                .sorted(Comparator.comparing(OrderProductResponseDto::getProductId))
+                .toList();
+
+        return new OrderResponseDto(
+                order.getId(),
+                order.getStatus().name(),
+                order.getUser().getId(),
+                order.getAddress(),
+                order.getCreatedAt(),
+                order.getUpdatedAt(),
+                items,
+                order.getSubtotal(),
+                order.getItemCount(),
+                order.getLineCount()
+        );
+    }
+}
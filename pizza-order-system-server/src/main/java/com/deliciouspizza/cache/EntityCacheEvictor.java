@@ -0,0 +1,43 @@
+package com.deliciouspizza.cache;
+
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import static com.deliciouspizza.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Evicts products and users from the second-level cache after they change.
+ * <p>
+ * Hibernate already updates the cache for changes made through it; evicting as well guarantees that the
+ * next read goes to the database, also when a row was changed another way. Eviction waits for the commit,
+ * otherwise a concurrent read could put the old row back before the change is visible.
+ * </p>
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private final Cache cache;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Evicts the product and the cached product queries.
+     */
+    public void evictProduct(long productId) {
+        afterCommit(() -> {
+            cache.evictEntityData(Product.class, productId);
+            cache.evictQueryRegion(ProductRepository.QUERY_CACHE_REGION);
+        });
+    }
+
+    public void evictUser(long userId) {
+        afterCommit(() -> cache.evictEntityData(User.class, userId));
+    }
+}
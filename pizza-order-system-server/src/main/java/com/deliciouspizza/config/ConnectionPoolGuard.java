@@ -0,0 +1,125 @@
+package com.deliciouspizza.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Checks the connection pool configuration against the database and the thread mode before the
+ * application accepts traffic.
+ * <p>
+ * With platform threads the Tomcat pool caps how many requests wait for a connection. With virtual threads
+ * nothing does: the connection pool becomes the only limit on concurrent database work, so it must fit into
+ * the server's {@code max_connections} for every instance, and waiting for a connection must time out quickly
+ * instead of piling up an unbounded number of parked requests.
+ * </p>
+ */
+@Component
+public class ConnectionPoolGuard {
+
+    private static final Logger logger = Logger.getLogger(ConnectionPoolGuard.class.getName());
+
+    private final DataSource dataSource;
+    private final boolean virtualThreads;
+    private final boolean openInView;
+    private final boolean failOnViolation;
+    private final int reservedConnections;
+    private final int instances;
+    private final long maxConnectionTimeoutMs;
+    private final int reactivePoolSize;
+
+    public ConnectionPoolGuard(
+            DataSource dataSource,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${spring.jpa.open-in-view:true}") boolean openInView,
+            @Value("${connection-pool.guard.fail-on-violation:true}") boolean failOnViolation,
+            @Value("${connection-pool.guard.reserved-connections:10}") int reservedConnections,
+            @Value("${connection-pool.guard.instances:1}") int instances,
+            @Value("${connection-pool.guard.max-connection-timeout-ms:10000}") long maxConnectionTimeoutMs,
+            @Value("${reactive.r2dbc.pool.max-size:0}") int reactivePoolSize
+    ) {
+        this.dataSource = dataSource;
+        this.virtualThreads = virtualThreads;
+        this.openInView = openInView;
+        this.failOnViolation = failOnViolation;
+        this.reservedConnections = reservedConnections;
+        this.instances = instances;
+        this.maxConnectionTimeoutMs = maxConnectionTimeoutMs;
+        this.reactivePoolSize = reactivePoolSize;
+    }
+
+    @PostConstruct
+    public void verify() {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+
+        int poolSize = hikari.getMaximumPoolSize();
+        List<String> violations = new ArrayList<>();
+
+        int maxConnections = queryMaxConnections();
+
+        // The R2DBC pool of the reactive read API connects to the same server
+        if (maxConnections > 0 && (long) (poolSize + reactivePoolSize) * instances > maxConnections - reservedConnections) {
+            violations.add(String.format(
+                    "maximum-pool-size %d + reactive pool %d x %d instances exceeds max_connections %d minus %d reserved",
+                    poolSize, reactivePoolSize, instances, maxConnections, reservedConnections));
+        }
+
+        if (virtualThreads && hikari.getConnectionTimeout() > maxConnectionTimeoutMs) {
+            violations.add(String.format(
+                    "connection-timeout %d ms exceeds %d ms; with virtual threads requests queue on the pool",
+                    hikari.getConnectionTimeout(), maxConnectionTimeoutMs));
+        }
+
+        // Guidance only: past roughly two connections per core Postgres spends the extra ones on contention
+        int recommended = Runtime.getRuntime().availableProcessors() * 2 + 1;
+
+        if (poolSize > recommended * 2) {
+            logger.warning(String.format(
+                    "maximum-pool-size %d is far above the ~%d connections this machine can keep busy",
+                    poolSize, recommended));
+        }
+
+        if (virtualThreads && openInView) {
+            logger.warning("spring.jpa.open-in-view holds a connection for the whole request; with virtual threads "
+                    + "requests that block on remote calls will exhaust the pool");
+        }
+
+        if (violations.isEmpty()) {
+            logger.info(String.format("Connection pool: %d connections, %s threads",
+                    poolSize, virtualThreads ? "virtual" : "platform"));
+            return;
+        }
+
+        String message = "Connection pool configuration is unsafe: " + String.join("; ", violations);
+
+        if (failOnViolation) {
+            throw new IllegalStateException(message);
+        }
+
+        logger.warning(message);
+    }
+
+    private int queryMaxConnections() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SHOW max_connections")) {
+
+            return resultSet.next() ? Integer.parseInt(resultSet.getString(1)) : -1;
+        } catch (SQLException | NumberFormatException e) {
+            logger.warning("Could not read max_connections, skipping the pool size check: " + e.getMessage());
+            return -1;
+        }
+    }
+}
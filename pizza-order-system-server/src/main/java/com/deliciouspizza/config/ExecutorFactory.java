@@ -0,0 +1,47 @@
+package com.deliciouspizza.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates executors for blocking work that follow the thread mode of the application.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} Spring Boot already runs requests, {@code @Async} and
+ * {@code @Scheduled} methods on virtual threads; executors created here do the same. Otherwise they use a
+ * fixed pool of named platform threads.
+ * </p>
+ */
+@Component
+public class ExecutorFactory {
+
+    private final boolean virtualThreads;
+
+    public ExecutorFactory(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @param name            The prefix of the thread names.
+     * @param platformThreads The pool size used when virtual threads are disabled. With virtual threads every
+     *                        task gets its own thread, so bound concurrency with the resource it uses instead,
+     *                        e.g. the connection pool.
+     * @return A new executor, to be shut down by the caller.
+     */
+    public ExecutorService newExecutor(String name, int platformThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+
+        ThreadFactory threadFactory = Thread.ofPlatform().name(name + "-", 0).daemon(true).factory();
+
+        return Executors.newFixedThreadPool(platformThreads, threadFactory);
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+}
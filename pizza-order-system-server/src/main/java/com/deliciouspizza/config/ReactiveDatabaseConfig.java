@@ -0,0 +1,53 @@
+package com.deliciouspizza.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the reactive read API, next to the JDBC DataSource used by JPA.
+ * <p>
+ * The pool is deliberately not exposed as a {@code ConnectionFactory} bean: Spring Boot skips the
+ * DataSource auto-configuration as soon as one exists. Only the DatabaseClient is a bean.
+ * </p>
+ */
+@Configuration
+public class ReactiveDatabaseConfig {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveDatabaseConfig(
+            @Value("${reactive.r2dbc.url:r2dbc:postgresql://localhost:5432/pizza}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${reactive.r2dbc.pool.initial-size:2}") int initialSize,
+            @Value("${reactive.r2dbc.pool.max-size:10}") int maxSize
+    ) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-read")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void closeConnectionPool() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,111 @@
+package com.deliciouspizza.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier, e.g. inside a {@code synchronized}
+ * block of a JDBC driver or connection pool. A pinned thread occupies a carrier for the whole wait, so a
+ * few hot pinning sites are enough to make virtual threads slower than the platform thread pool.
+ * <p>
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process. The first occurrence of every call
+ * site is logged as a warning with its stack, later ones only at FINE level and in {@link #pinnedCounts()}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = {"spring.threads.virtual.enabled", "virtual-threads.pinning-monitor.enabled"}, havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = Logger.getLogger(VirtualThreadPinningMonitor.class.getName());
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedCounts = new ConcurrentHashMap<>();
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinning-monitor.threshold-ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+
+        logger.info("Monitoring virtual thread pinning longer than " + threshold.toMillis() + " ms");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    /**
+     * @return The number of pinning events per call site since startup.
+     */
+    public Map<String, Long> pinnedCounts() {
+        return pinnedCounts.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String site = stackTrace == null ? "unknown" : firstApplicationFrame(stackTrace);
+
+        LongAdder count = pinnedCounts.computeIfAbsent(site, ignored -> new LongAdder());
+        boolean firstOccurrence = count.sum() == 0;
+        count.increment();
+
+        Level level = firstOccurrence ? Level.WARNING : Level.FINE;
+
+        if (logger.isLoggable(level)) {
+            logger.log(level, String.format("Virtual thread %s pinned for %d ms at %s%n%s",
+                    event.getThread("eventThread") == null ? "?" : event.getThread("eventThread").getJavaName(),
+                    event.getDuration().toMillis(),
+                    site,
+                    stackTrace == null ? "" : format(stackTrace)));
+        }
+    }
+
+    // The top frames are JDK parking internals; the first frame outside java.* is where the lock was held
+    private static String firstApplicationFrame(RecordedStackTrace stackTrace) {
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(VirtualThreadPinningMonitor::format)
+                .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+                .findFirst()
+                .orElse("unknown");
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + format(frame))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,56 @@
+package com.deliciouspizza.controller;
+
+import com.deliciouspizza.dto.kitchen.KitchenBoardDto;
+import com.deliciouspizza.kitchen.KitchenBoard;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/kitchen/board")
+@PreAuthorize("hasRole('EMPLOYEE')")
+public class KitchenBoardController {
+
+    private final KitchenBoard kitchenBoard;
+
+    public KitchenBoardController(KitchenBoard kitchenBoard) {
+        this.kitchenBoard = kitchenBoard;
+    }
+
+    /**
+     * Returns the open orders, oldest first, with counts per status. Served from memory.
+     * GET /api/v1/kitchen/board
+     * @return The current kitchen board.
+     */
+    @GetMapping
+    public ResponseEntity<KitchenBoardDto> getBoard() {
+        return ResponseEntity.ok(kitchenBoard.snapshot());
+    }
+
+    /**
+     * Returns the number of open orders per status, for dashboards that poll. Served from counters the board
+     * maintains on every order change, so it never queries the orders table.
+     * GET /api/v1/kitchen/board/counts
+     * @return The counts keyed by status, e.g. {"NEW": 3, "PROCESSING": 5}.
+     */
+    @GetMapping("/counts")
+    public ResponseEntity<Map<String, Long>> getCounts() {
+        return ResponseEntity.ok(kitchenBoard.countsByStatus());
+    }
+
+    /**
+     * Streams the board: a "board" event with the snapshot, then a "board-change" event per changed order.
+     * GET /api/v1/kitchen/board/events
+     * @return The event stream.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBoard() {
+        return kitchenBoard.subscribe();
+    }
+}
@@ -1,6 +1,7 @@
 package com.deliciouspizza.controller;
 
 import com.deliciouspizza.dto.order.OrderFilterDto;
+import com.deliciouspizza.dto.order.OrderHistoryPageDto;
 import com.deliciouspizza.dto.order.OrderRequestDto;
 import com.deliciouspizza.dto.order.OrderResponseDto;
 import com.deliciouspizza.dto.order.OrderUpdateDto;
@@ -8,7 +9,9 @@ import com.deliciouspizza.dto.order.ProcessOrderRequestDto;
 import com.deliciouspizza.dto.order.ProcessOrderResponseDto;
 import com.deliciouspizza.dto.order_product.OrderProductRequestDto;
 import com.deliciouspizza.dto.order_product.OrderProductResponseDto;
+import com.deliciouspizza.idempotency.IdempotencyService;
 import com.deliciouspizza.service.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -17,16 +20,24 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 public class OrderController {
 
+    private static final String CREATE_ORDER_SCOPE = "create-order";
+    private static final String ADD_PRODUCT_SCOPE = "add-product-to-order";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
@@ -40,6 +51,24 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Retrieves the order history of the logged-in user, newest first, one page at a time.
+     * GET /api/v1/orders/history?pageSize=20
+     * GET /api/v1/orders/history?beforeCreatedAt=2025-06-01T12:00:00&beforeId=42 (the next page)
+     * @param beforeCreatedAt The nextBeforeCreatedAt of the previous page.
+     * @param beforeId The nextBeforeId of the previous page.
+     * @return The orders with their items and the cursor of the next page.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<OrderHistoryPageDto> getOrderHistory(
+            Principal principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "20") int pageSize
+    ) {
+        return ResponseEntity.ok(orderService.findOrderHistory(principal.getName(), beforeCreatedAt, beforeId, pageSize));
+    }
+
     /**
      * Retrieves a single order by its ID.
      * GET /api/v1/orders/{id}
@@ -60,14 +89,21 @@ public class OrderController {
      * purposes and is NOT recommended for production applications where business
      * logic should reside in the service layer.
      *
+     * A repeated request with the same Idempotency-Key header gets the response of the first one
+     * instead of creating another order.
+     *
      * @param orderDto The Dto containing order details and initial products.
+     * @param idempotencyKey Optional key chosen by the client for this order attempt.
      * @return The created OrderResponseDto with a 201 status, or 400 if validation fails.
      */
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<OrderResponseDto> createNewOrder(@Validated @RequestBody OrderRequestDto orderDto) {
-
-        return new ResponseEntity<>(orderService.createNewOrder(orderDto), HttpStatus.CREATED);
+    public ResponseEntity<?> createNewOrder(
+            @Validated @RequestBody OrderRequestDto orderDto,
+            @RequestHeader(name = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotencyService.execute(CREATE_ORDER_SCOPE, idempotencyKey, orderDto,
+                () -> new ResponseEntity<>(orderService.createNewOrder(orderDto), HttpStatus.CREATED));
     }
 
     /**
@@ -120,19 +156,30 @@ public class OrderController {
      * Adds a product to an existing order.
      * POST /api/v1/orders/{id}/products
      * @param id The ID of the order to add product to.
+     * Adding increments the quantity, so a repeat with the same Idempotency-Key header is answered with the
+     * first response instead of being added again.
+     *
      * @param productDto The Dto containing product ID and quantity.
-     * @return The updated OrderResponseDto, or 404 if order/product not found, 400 if invalid input.
+     * @param idempotencyKey Optional key chosen by the client for this add.
+     * @return The updated OrderResponseDto, or 404 if order/product not found, 400 if invalid input,
+     * 409 if the order is completed or cancelled.
      */
     @PostMapping("/{id}/products")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<OrderResponseDto> addProductToOrder(@PathVariable long id, @Valid @RequestBody OrderProductRequestDto productDto) {
-        OrderResponseDto updatedOrder = orderService.addProductToOrder(id, productDto);
-
-        if (updatedOrder != null) {
-            return ResponseEntity.ok(updatedOrder);
-        }
-
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<?> addProductToOrder(
+            @PathVariable long id,
+            @Valid @RequestBody OrderProductRequestDto productDto,
+            @RequestHeader(name = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotencyService.execute(ADD_PRODUCT_SCOPE, idempotencyKey, Map.of("orderId", id, "item", productDto), () -> {
+            OrderResponseDto updatedOrder = orderService.addProductToOrder(id, productDto);
+
+            if (updatedOrder != null) {
+                return ResponseEntity.ok(updatedOrder);
+            }
+
+            return ResponseEntity.notFound().build();
+        });
     }
 
     /**
@@ -140,7 +187,8 @@ public class OrderController {
      * DELETE /api/v1/orders/{orderId}/products/{productId}
      * @param orderId The ID of the order.
      * @param productId The ID of the specific product (from orders_products table) to remove.
-     * @return 204 No Content on successful removal, or 404 if order/product not found.
+     * @return 204 No Content on successful removal, 404 if order/product not found, or 409 if the order is
+     * completed or cancelled.
      */
     @DeleteMapping("/{orderId}/products/{productId}")
     @PreAuthorize("hasRole('CUSTOMER')")
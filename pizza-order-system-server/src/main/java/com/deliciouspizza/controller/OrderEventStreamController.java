@@ -0,0 +1,73 @@
+package com.deliciouspizza.controller;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order.OrderStatusEventDto;
+import com.deliciouspizza.exception.OrderNotFoundException;
+import com.deliciouspizza.security.OrderAccess;
+import com.deliciouspizza.service.OrderService;
+import com.deliciouspizza.sse.OrderEventHub;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events streams of order status changes, replacing polling of GET /api/v1/orders/{id}.
+ * Every event is named "order-status" and carries an OrderStatusEventDto. Customers can only follow their
+ * own orders; employees can follow any.
+ */
+@RestController
+public class OrderEventStreamController {
+
+    private final OrderService orderService;
+    private final OrderEventHub orderEventHub;
+    private final OrderAccess orderAccess;
+
+    public OrderEventStreamController(OrderService orderService, OrderEventHub orderEventHub, OrderAccess orderAccess) {
+        this.orderService = orderService;
+        this.orderEventHub = orderEventHub;
+        this.orderAccess = orderAccess;
+    }
+
+    /**
+     * Streams status changes of one order, starting with its current status.
+     * GET /api/v1/orders/{orderId}/events
+     * @param orderId The ID of the order.
+     * @return The event stream, or 404 if the order does not exist or belongs to another customer.
+     */
+    @GetMapping(value = "/api/v1/orders/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(@PathVariable long orderId, Authentication authentication) {
+        OrderResponseDto order = orderService.findOrderById(orderId);
+
+        // Answered like a missing order, so ids of other customers' orders cannot be probed
+        if (!orderAccess.canReadOrdersOf(authentication, order.getUserId())) {
+            throw new OrderNotFoundException("Id: " + orderId);
+        }
+
+        OrderStatusEventDto current = new OrderStatusEventDto(
+                order.getId(),
+                order.getUserId(),
+                "CURRENT",
+                order.getStatus(),
+                null,
+                null
+        );
+
+        return orderEventHub.subscribeToOrder(orderId, current);
+    }
+
+    /**
+     * Streams status changes of all orders of a user, e.g. for the order history page.
+     * GET /api/v1/users/{userId}/order-events
+     * @param userId The ID of the user.
+     * @return The event stream, or 403 unless the caller is that user or an employee.
+     */
+    @GetMapping(value = "/api/v1/users/{userId}/order-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("@orderAccess.canReadOrdersOf(authentication, #userId)")
+    public SseEmitter streamUserOrderEvents(@PathVariable long userId) {
+        return orderEventHub.subscribeToUser(userId);
+    }
+}
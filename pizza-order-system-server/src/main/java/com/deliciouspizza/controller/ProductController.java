@@ -51,6 +51,59 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(filterDto));
     }
 
+    /**
+     * Searches products by name and description.
+     * <p>
+     * Every word of the query has to match a word of the product, exactly, as a prefix, or with a typo.
+     * Matches in the name rank above matches in the description. Served from an in-memory index.
+     * </p>
+     * <p>Example usage:
+     * <ul>
+     * <li>{@code GET /api/v1/products/search?q=margherita}</li>
+     * <li>{@code GET /api/v1/products/search?q=marg} (prefix)</li>
+     * <li>{@code GET /api/v1/products/search?q=pepperonni&limit=5} (typo)</li>
+     * </ul>
+     * </p>
+     *
+     * @param q     The words to search for.
+     * @param limit The maximum number of products returned.
+     * @return A {@code ResponseEntity} with the matching products, best match first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponseDto>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    /**
+     * Searches products by name and description in the database, with the filters of the product list.
+     * <p>
+     * Every word of the query has to match a word of the product or its start; products with a name
+     * similar to the query match as well. Matches in the name rank above matches in the description.
+     * </p>
+     * <p>Example usage:
+     * <ul>
+     * <li>{@code GET /api/v1/products/search/full-text?q=marg}</li>
+     * <li>{@code GET /api/v1/products/search/full-text?q=spicy&category=PIZZA&maxPrice=20.00}</li>
+     * </ul>
+     * </p>
+     *
+     * @param q         The words to search for.
+     * @param filterDto The same optional filters as {@link #getAllProducts(ProductFilterDto)}.
+     * @param limit     The maximum number of products returned.
+     * @return A {@code ResponseEntity} with the matching products, best match first.
+     */
+    @GetMapping("/search/full-text")
+    public ResponseEntity<List<ProductResponseDto>> searchProductsFullText(
+            @RequestParam String q,
+            @ModelAttribute ProductFilterDto filterDto,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(productService.searchProductsFullText(q, filterDto, limit));
+    }
+
     /**
      * Retrieves a single product by its unique ID.
      * <p>
@@ -0,0 +1,91 @@
+package com.deliciouspizza.controller;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.product.ProductFilterDto;
+import com.deliciouspizza.dto.product.ProductResponseDto;
+import com.deliciouspizza.exception.OrderNotFoundException;
+import com.deliciouspizza.security.OrderAccess;
+import com.deliciouspizza.service.ReactiveReadService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Reactive read API for customer traffic. Handlers return Mono/Flux and are served asynchronously, so the
+ * request thread is released as soon as the query is started.
+ * <p>
+ * Collections requested as {@code application/x-ndjson} are streamed one element at a time with backpressure
+ * down to the database cursor; as {@code application/json} they are collected into a single array.
+ * </p>
+ * <p>
+ * Customers can only read their own orders; employees can read any.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/v1/reactive")
+public class ReactiveReadController {
+
+    private final ReactiveReadService reactiveReadService;
+    private final OrderAccess orderAccess;
+
+    public ReactiveReadController(ReactiveReadService reactiveReadService, OrderAccess orderAccess) {
+        this.reactiveReadService = reactiveReadService;
+        this.orderAccess = orderAccess;
+    }
+
+    /**
+     * GET /api/v1/reactive/orders/{id}
+     * @param id The ID of the order.
+     * @return The order with its items, or 404 if not found or if it belongs to another customer.
+     */
+    @GetMapping("/orders/{id}")
+    public Mono<OrderResponseDto> getOrder(@PathVariable long id, Authentication authentication) {
+        // Resolved on the request thread, so the pipeline does not block on the user lookup
+        LongPredicate readable = orderAccess.readableCustomers(authentication);
+
+        return reactiveReadService.findOrderById(id)
+                .filter(order -> readable.test(order.getUserId()))
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException("Id: " + id)));
+    }
+
+    /**
+     * GET /api/v1/reactive/users/{userId}/orders
+     * @param userId The ID of the user.
+     * @return The orders of the user with their items, ordered by id, or 403 unless the caller is that user or
+     * an employee.
+     */
+    @GetMapping(value = "/users/{userId}/orders", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("@orderAccess.canReadOrdersOf(authentication, #userId)")
+    public Flux<OrderResponseDto> getOrdersByUser(@PathVariable long userId) {
+        return reactiveReadService.findOrdersByUserId(userId);
+    }
+
+    /**
+     * GET /api/v1/reactive/products
+     * @param filterDto The same filters as GET /api/v1/products.
+     * @return The matching products, ordered by id.
+     */
+    @GetMapping(value = "/products", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<ProductResponseDto> getProducts(@ModelAttribute ProductFilterDto filterDto) {
+        return reactiveReadService.findProducts(filterDto);
+    }
+
+    /**
+     * GET /api/v1/reactive/products/{id}
+     * @param id The ID of the product.
+     * @return The product, or 404 if not found.
+     */
+    @GetMapping("/products/{id}")
+    public Mono<ProductResponseDto> getProduct(@PathVariable long id) {
+        return reactiveReadService.findProductById(id);
+    }
+}
@@ -0,0 +1,82 @@
+package com.deliciouspizza.controller;
+
+import com.deliciouspizza.analytics.SalesAnalyticsService;
+import com.deliciouspizza.dto.analytics.AdHocSalesQueryDto;
+import com.deliciouspizza.dto.analytics.AdHocSalesRowDto;
+import com.deliciouspizza.dto.analytics.SalesBucketDto;
+import com.deliciouspizza.dto.analytics.SalesQueryDto;
+import com.deliciouspizza.dto.analytics.SalesRebuildResultDto;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics/sales")
+@PreAuthorize("hasRole('EMPLOYEE')")
+public class SalesAnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    public SalesAnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    /**
+     * Returns quantity and revenue of completed orders per bucket, read from the rollup tables.
+     * <p>Example usage:
+     * <ul>
+     * <li>{@code GET /api/v1/analytics/sales?from=2025-01-01T00:00:00&to=2025-02-01T00:00:00} (per product and day)</li>
+     * <li>{@code GET /api/v1/analytics/sales?from=...&to=...&granularity=HOUR&groupBy=CATEGORY} (per category and hour)</li>
+     * <li>{@code GET /api/v1/analytics/sales?from=...&to=...&groupBy=TOTAL} (all products per day)</li>
+     * </ul>
+     * </p>
+     * @param query The range, the granularity (HOUR or DAY) and the grouping (PRODUCT, CATEGORY or TOTAL).
+     * @return The buckets in time order.
+     */
+    @GetMapping
+    public ResponseEntity<List<SalesBucketDto>> getSales(@ModelAttribute SalesQueryDto query) {
+        return ResponseEntity.ok(salesAnalyticsService.findSales(query));
+    }
+
+    /**
+     * Returns the top groups of completed order lines for filters the rollups cannot answer, scanned from
+     * in-memory columns that are reloaded every few minutes.
+     * <p>Example usage:
+     * <ul>
+     * <li>{@code GET /api/v1/analytics/sales/ad-hoc?from=2025-07-01T00:00:00&to=2025-10-01T00:00:00&days=FRIDAY}
+     * (top 10 products by revenue on Fridays in Q3)</li>
+     * <li>{@code GET /api/v1/analytics/sales/ad-hoc?from=...&to=...&categories=DRINK&groupBy=HOUR_OF_DAY&metric=QUANTITY&limit=24}
+     * (drinks sold per hour of the day)</li>
+     * </ul>
+     * </p>
+     * @param query The range, days, categories, grouping (PRODUCT, CATEGORY, DAY_OF_WEEK or HOUR_OF_DAY),
+     *              metric (REVENUE, QUANTITY or LINES) and limit.
+     * @return At most {@code limit} groups, highest metric first.
+     */
+    @GetMapping("/ad-hoc")
+    public ResponseEntity<List<AdHocSalesRowDto>> getAdHocSales(@ModelAttribute AdHocSalesQueryDto query) {
+        return ResponseEntity.ok(salesAnalyticsService.findAdHocSales(query));
+    }
+
+    /**
+     * Recomputes the rollups for the days in [from, to) from the order lines.
+     * POST /api/v1/analytics/sales/rebuild?from=2025-01-01&to=2025-02-01
+     * @return The rebuilt range, the number of chunks and how long it took.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<SalesRebuildResultDto> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(salesAnalyticsService.rebuild(from, to));
+    }
+}
@@ -4,6 +4,7 @@ import com.deliciouspizza.dto.user.UserInputDto;
 import com.deliciouspizza.dto.user.UserUpdateDto;
 import com.deliciouspizza.dto.user.login.LoginInputDto;
 import com.deliciouspizza.dto.user.login.LoginOutputDto;
+import com.deliciouspizza.dto.user.login.RefreshTokenRequestDto;
 import com.deliciouspizza.model.user.User;
 import com.deliciouspizza.service.UserService;
 import org.apache.coyote.Response;
@@ -56,6 +57,24 @@ public class UserController {
         return ResponseEntity.ok(userService.login(request));
     }
 
+    /**
+     * Exchanges a refresh token for a new access token. The presented refresh token is consumed
+     * and a new one is returned; presenting a consumed token again revokes the whole session.
+     *
+     * @param request The Dto holding the refresh token.
+     * @return The new access and refresh tokens, or 401 if the refresh token is not valid.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginOutputDto> refresh(@RequestBody @Validated RefreshTokenRequestDto request) {
+        return ResponseEntity.ok(userService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody @Validated RefreshTokenRequestDto request) {
+        userService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Endpoint to upload or update a user's profile photo.
      *
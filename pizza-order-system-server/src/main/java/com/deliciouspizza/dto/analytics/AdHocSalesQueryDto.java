@@ -0,0 +1,33 @@
+package com.deliciouspizza.dto.analytics;
+
+import com.deliciouspizza.analytics.columnar.ColumnarGroupBy;
+import com.deliciouspizza.analytics.columnar.ColumnarMetric;
+import com.deliciouspizza.model.product.ProductCategory;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Getter
+@Setter
+public class AdHocSalesQueryDto {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    // Exclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    // Empty means every day and every category
+    private Set<DayOfWeek> days = Set.of();
+    private Set<ProductCategory> categories = Set.of();
+
+    private ColumnarGroupBy groupBy = ColumnarGroupBy.PRODUCT;
+    private ColumnarMetric metric = ColumnarMetric.REVENUE;
+    private int limit = 10;
+
+}
@@ -0,0 +1,22 @@
+package com.deliciouspizza.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdHocSalesRowDto {
+
+    // Product id, category, day of week or hour of day, depending on the grouping
+    private String key;
+    private String label;
+
+    private long quantity;
+    private BigDecimal revenue;
+    private long lines;
+
+}
@@ -0,0 +1,27 @@
+package com.deliciouspizza.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesBucketDto {
+
+    private LocalDateTime bucketStart;
+
+    // Null unless grouped by product
+    private Long productId;
+    private String productName;
+
+    // Null when grouped by nothing
+    private String category;
+
+    private long quantity;
+    private BigDecimal revenue;
+
+}
@@ -0,0 +1,6 @@
+package com.deliciouspizza.dto.analytics;
+
+public enum SalesGranularity {
+    HOUR,
+    DAY
+}
@@ -0,0 +1,7 @@
+package com.deliciouspizza.dto.analytics;
+
+public enum SalesGrouping {
+    PRODUCT,
+    CATEGORY,
+    TOTAL
+}
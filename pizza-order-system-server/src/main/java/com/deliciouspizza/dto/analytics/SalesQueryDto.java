@@ -0,0 +1,23 @@
+package com.deliciouspizza.dto.analytics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class SalesQueryDto {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    // Exclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private SalesGranularity granularity = SalesGranularity.DAY;
+    private SalesGrouping groupBy = SalesGrouping.PRODUCT;
+
+}
@@ -0,0 +1,19 @@
+package com.deliciouspizza.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesRebuildResultDto {
+
+    private LocalDate from;
+    private LocalDate to;
+    private int chunks;
+    private long durationMs;
+
+}
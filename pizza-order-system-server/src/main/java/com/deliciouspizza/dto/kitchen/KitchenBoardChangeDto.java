@@ -0,0 +1,20 @@
+package com.deliciouspizza.dto.kitchen;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change of one order on the kitchen board. The order is null when it left the board.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KitchenBoardChangeDto {
+
+    private long version;
+    private long orderId;
+    private OrderResponseDto order;
+
+}
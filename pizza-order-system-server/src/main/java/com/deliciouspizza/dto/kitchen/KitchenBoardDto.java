@@ -0,0 +1,20 @@
+package com.deliciouspizza.dto.kitchen;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KitchenBoardDto {
+
+    private long version;
+    private Map<String, Long> counts;
+    private List<OrderResponseDto> orders;
+
+}
@@ -12,7 +12,8 @@ import java.util.Set;
 @Setter
 public class OrderFilterDto {
 
-    private OrderStatus status;
+    // Any of these: ?status=NEW&status=PROCESSING or ?status=NEW,PROCESSING
+    private Set<OrderStatus> status;
     private Long userId;
     private String username;
 
@@ -0,0 +1,21 @@
+package com.deliciouspizza.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderHistoryPageDto {
+
+    private List<OrderResponseDto> orders;
+
+    // The cursor of the next page, both null on the last page
+    private LocalDateTime nextBeforeCreatedAt;
+    private Long nextBeforeId;
+
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -22,4 +23,9 @@ public class OrderResponseDto {
     private LocalDateTime updatedAt;
     private List<OrderProductResponseDto> items;
 
+    // Stored on the order and kept current on every line change, see OrderTotals
+    private BigDecimal subtotal;
+    private int itemCount;
+    private int lineCount;
+
 }
@@ -0,0 +1,21 @@
+package com.deliciouspizza.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusEventDto {
+
+    private Long orderId;
+    private Long userId;
+    private String type;
+    private String status;
+    private String previousStatus;
+    private Instant occurredAt;
+
+}
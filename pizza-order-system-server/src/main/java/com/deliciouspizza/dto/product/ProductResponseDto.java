@@ -29,4 +29,6 @@ public class ProductResponseDto {
     private Boolean hasImage;
 
     private String description;
+
+    private Long version;
 }
\ No newline at end of file
@@ -29,4 +29,7 @@ public class ProductUpdateDto {
     private String name;
     private String description;
 
+    // Version the client last read; when set, the update is rejected if the product changed since
+    private Long version;
+
 }
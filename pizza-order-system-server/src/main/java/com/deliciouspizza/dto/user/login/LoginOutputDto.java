@@ -5,11 +5,13 @@ import lombok.Data;
 @Data
 public class LoginOutputDto {
     private String token;
+    private String refreshToken;
     private String role;
     private Long userId;
 
-    public LoginOutputDto(String token, String role, Long userId) {
+    public LoginOutputDto(String token, String refreshToken, String role, Long userId) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.role = role;
         this.userId = userId;
     }
@@ -0,0 +1,12 @@
+package com.deliciouspizza.dto.user.login;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequestDto {
+
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+
+}
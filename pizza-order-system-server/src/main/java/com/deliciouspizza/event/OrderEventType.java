@@ -0,0 +1,7 @@
+package com.deliciouspizza.event;
+
+public enum OrderEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
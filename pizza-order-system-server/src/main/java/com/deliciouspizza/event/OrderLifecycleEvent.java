@@ -0,0 +1,36 @@
+package com.deliciouspizza.event;
+
+import com.deliciouspizza.model.order.OrderStatus;
+
+import java.time.Instant;
+
+/**
+ * A change of an order as published by the outbox relay. Delivery is at least once, so consumers that must
+ * not apply an event twice should remember the last event id per order: ids grow per order.
+ *
+ * @param eventId        The id of the outbox row, null until the event is stored.
+ * @param orderId        The id of the order.
+ * @param userId         The id of the customer who placed the order.
+ * @param type           What happened to the order.
+ * @param status         The status after the change.
+ * @param previousStatus The status before the change, null for created orders.
+ * @param occurredAt     When the change was made.
+ */
+public record OrderLifecycleEvent(
+        Long eventId,
+        long orderId,
+        long userId,
+        OrderEventType type,
+        OrderStatus status,
+        OrderStatus previousStatus,
+        Instant occurredAt
+) {
+
+    public boolean isStatusChange() {
+        return status != previousStatus;
+    }
+
+    public OrderLifecycleEvent withEventId(long id) {
+        return new OrderLifecycleEvent(id, orderId, userId, type, status, previousStatus, occurredAt);
+    }
+}
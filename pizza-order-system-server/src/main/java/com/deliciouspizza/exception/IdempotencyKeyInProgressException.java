@@ -0,0 +1,13 @@
+package com.deliciouspizza.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+
+    public IdempotencyKeyInProgressException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
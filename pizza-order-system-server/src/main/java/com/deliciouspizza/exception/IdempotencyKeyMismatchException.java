@@ -0,0 +1,13 @@
+package com.deliciouspizza.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+
+    public IdempotencyKeyMismatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
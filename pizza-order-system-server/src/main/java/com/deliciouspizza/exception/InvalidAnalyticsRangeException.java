@@ -0,0 +1,13 @@
+package com.deliciouspizza.exception;
+
+public class InvalidAnalyticsRangeException extends RuntimeException {
+
+    public InvalidAnalyticsRangeException(String message) {
+        super(message);
+    }
+
+    public InvalidAnalyticsRangeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.deliciouspizza.exception;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+
+    public InvalidIdempotencyKeyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.deliciouspizza.exception;
+
+public class InvalidPageCursorException extends RuntimeException {
+
+    public InvalidPageCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidPageCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
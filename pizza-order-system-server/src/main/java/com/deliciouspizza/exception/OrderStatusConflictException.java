@@ -0,0 +1,16 @@
+package com.deliciouspizza.exception;
+
+/**
+ * Thrown when a status transition lost the race: the order left the expected status before the update ran.
+ */
+public class OrderStatusConflictException extends RuntimeException {
+
+    public OrderStatusConflictException(String message) {
+        super(message);
+    }
+
+    public OrderStatusConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -1,16 +1,24 @@
 package com.deliciouspizza.exception.handler;
 
+import com.deliciouspizza.exception.IdempotencyKeyInProgressException;
+import com.deliciouspizza.exception.IdempotencyKeyMismatchException;
+import com.deliciouspizza.exception.InvalidAnalyticsRangeException;
 import com.deliciouspizza.exception.InvalidCountException;
+import com.deliciouspizza.exception.InvalidIdempotencyKeyException;
+import com.deliciouspizza.exception.InvalidPageCursorException;
+import com.deliciouspizza.exception.InvalidRefreshTokenException;
 import com.deliciouspizza.exception.OrderNotFoundException;
 import com.deliciouspizza.exception.OrderNotProcessedException;
 import com.deliciouspizza.exception.OrderProductAlreadyExistsException;
 import com.deliciouspizza.exception.OrderProductNotFoundException;
+import com.deliciouspizza.exception.OrderStatusConflictException;
 import com.deliciouspizza.exception.ProductNotFoundException;
 import com.deliciouspizza.exception.UserAlreadyExistsException;
 import com.deliciouspizza.exception.UserNotFoundException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -268,6 +276,116 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles OrderStatusConflictException and returns a 409 Conflict status.
+     * The order changed status concurrently; the client should reload it before retrying.
+     *
+     * @param ex      The OrderStatusConflictException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 409 status and a custom error body.
+     */
+    @ExceptionHandler(OrderStatusConflictException.class)
+    public ResponseEntity<Object> handleOrderStatusConflictException(
+            OrderStatusConflictException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles OptimisticLockingFailureException and returns a 409 Conflict status.
+     * The entity was changed by someone else since it was read; the client should reload it and try again.
+     *
+     * @param ex      The OptimisticLockingFailureException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 409 status and a custom error body.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", "The resource was modified concurrently. Reload it and try again.");
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles InvalidIdempotencyKeyException and returns a 400 Bad Request status.
+     * The Idempotency-Key header was blank or too long.
+     *
+     * @param ex      The InvalidIdempotencyKeyException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 400 status and a custom error body.
+     */
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<Object> handleInvalidIdempotencyKeyException(
+            InvalidIdempotencyKeyException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles IdempotencyKeyMismatchException and returns a 422 Unprocessable Entity status.
+     * The Idempotency-Key was already used for a request with a different body.
+     *
+     * @param ex      The IdempotencyKeyMismatchException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 422 status and a custom error body.
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyMismatchException(
+            IdempotencyKeyMismatchException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        body.put("error", "Unprocessable Entity");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Handles IdempotencyKeyInProgressException and returns a 409 Conflict status.
+     * The first request with the same Idempotency-Key has not finished yet; the client may retry later.
+     *
+     * @param ex      The IdempotencyKeyInProgressException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 409 status and a custom error body.
+     */
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Object> handleIdempotencyKeyInProgressException(
+            IdempotencyKeyInProgressException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Conflict");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles InvalidCountException and returns a 400 Bad Request status.
      * This is typically thrown when a provided count or quantity is not valid
@@ -291,4 +409,70 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles InvalidRefreshTokenException and returns a 401 Unauthorized status.
+     * The client has to log in again to obtain a new token pair.
+     *
+     * @param ex      The InvalidRefreshTokenException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 401 status and a custom error body.
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Object> handleInvalidRefreshTokenException(
+            InvalidRefreshTokenException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.UNAUTHORIZED.value());
+        body.put("error", "Unauthorized");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Handles InvalidAnalyticsRangeException and returns a 400 Bad Request status.
+     * The requested analytics range was missing, empty or too long.
+     *
+     * @param ex      The InvalidAnalyticsRangeException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 400 status and a custom error body.
+     */
+    @ExceptionHandler(InvalidAnalyticsRangeException.class)
+    public ResponseEntity<Object> handleInvalidAnalyticsRangeException(
+            InvalidAnalyticsRangeException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidPageCursorException and returns a 400 Bad Request status.
+     * Only one of the two parts of a keyset cursor was given.
+     *
+     * @param ex      The InvalidPageCursorException that was thrown.
+     * @param request The current web request.
+     * @return A ResponseEntity with a 400 status and a custom error body.
+     */
+    @ExceptionHandler(InvalidPageCursorException.class)
+    public ResponseEntity<Object> handleInvalidPageCursorException(
+            InvalidPageCursorException ex, WebRequest request) {
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).substring(4));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
 }
@@ -0,0 +1,270 @@
+package com.deliciouspizza.idempotency;
+
+import com.deliciouspizza.exception.IdempotencyKeyInProgressException;
+import com.deliciouspizza.exception.IdempotencyKeyMismatchException;
+import com.deliciouspizza.exception.InvalidIdempotencyKeyException;
+import com.deliciouspizza.model.idempotency.IdempotencyRecord;
+import com.deliciouspizza.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Executes a request at most once per Idempotency-Key and replays the stored response for repeats.
+ * <p>
+ * A key is claimed by inserting its row in the same transaction as the work, so the response is stored
+ * exactly when the work commits, and a failed request can be retried with the same key. Repeats arriving
+ * while the first request still runs on this instance wait for its result instead of blocking a connection
+ * on the row; repeats on other instances wait on the row itself. Recent responses are kept in a bounded
+ * in-memory cache in front of the table.
+ * </p>
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = Logger.getLogger(IdempotencyService.class.getName());
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String ANONYMOUS = "anonymous";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long inFlightWaitMillis;
+
+    // Access-ordered, so the least recently replayed response is evicted first; guarded by itself
+    private final Map<Key, StoredResponse> recentResponses;
+    private final Map<Key, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(
+            IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.cache.max-entries:10000}") int maxCachedResponses,
+            @Value("${idempotency.in-flight-wait-ms:30000}") long inFlightWaitMillis
+    ) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inFlightWaitMillis = inFlightWaitMillis;
+        this.recentResponses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, StoredResponse> eldest) {
+                return size() > maxCachedResponses;
+            }
+        };
+    }
+
+    /**
+     * Runs the action once for the given key, or replays the response of the run that already happened.
+     *
+     * @param scope          The endpoint the key belongs to; the same key may be used on different endpoints.
+     * @param idempotencyKey The value of the Idempotency-Key header; without one the action simply runs.
+     * @param request        Everything that identifies the request, compared with the first use of the key.
+     * @param action         The transactional work producing the response.
+     * @return The response of the action, or the stored response with the Idempotent-Replayed header.
+     * @throws InvalidIdempotencyKeyException     If the key is blank or too long.
+     * @throws IdempotencyKeyMismatchException    If the key was used before for a different request.
+     * @throws IdempotencyKeyInProgressException  If the first request with the key is still running.
+     */
+    public ResponseEntity<?> execute(String scope, String idempotencyKey, Object request, Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key key = new Key(scope, currentPrincipal(), idempotencyKey);
+        String requestHash = hash(request);
+
+        StoredResponse recent = recentResponse(key);
+
+        if (recent != null) {
+            return replay(recent, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, execution);
+
+        if (running != null) {
+            return replay(await(running), requestHash);
+        }
+
+        try {
+            Outcome outcome = transactionTemplate.execute(status -> executeOnce(key, requestHash, action));
+
+            remember(key, outcome.stored());
+            execution.complete(outcome.stored());
+
+            return outcome.response() != null ? outcome.response() : replay(outcome.stored(), requestHash);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}",
+            initialDelayString = "${idempotency.cleanup-interval-ms:3600000}"
+    )
+    public void deleteExpired() {
+        Instant now = Instant.now();
+
+        Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(now));
+
+        synchronized (recentResponses) {
+            recentResponses.values().removeIf(response -> response.isExpired(now));
+        }
+
+        logger.info("Deleted expired idempotency keys: " + deleted);
+    }
+
+    private Outcome executeOnce(Key key, String requestHash, Supplier<ResponseEntity<?>> action) {
+        Instant expiresAt = Instant.now().plus(ttl);
+
+        int claimed = idempotencyRecordRepository.claim(key.scope(), key.principal(), key.value(), requestHash, expiresAt);
+
+        if (claimed == 0) {
+            IdempotencyRecord existing = idempotencyRecordRepository
+                    .findByScopeAndPrincipalAndIdempotencyKey(key.scope(), key.principal(), key.value())
+                    .filter(record -> record.getResponseStatus() != null)
+                    .orElseThrow(() -> new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still in progress"));
+
+            return new Outcome(null, new StoredResponse(
+                    existing.getRequestHash(),
+                    existing.getResponseStatus(),
+                    existing.getResponseBody(),
+                    existing.getExpiresAt()
+            ));
+        }
+
+        ResponseEntity<?> response = action.get();
+        String body = toJson(response.getBody());
+
+        idempotencyRecordRepository.storeResponse(key.scope(), key.principal(), key.value(), response.getStatusCode().value(), body);
+
+        return new Outcome(response, new StoredResponse(requestHash, response.getStatusCode().value(), body, expiresAt));
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(inFlightWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            // The first request failed and stored nothing; its repeats fail the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for the request with this Idempotency-Key");
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request");
+        }
+
+        return ResponseEntity.status(stored.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body());
+    }
+
+    private StoredResponse recentResponse(Key key) {
+        synchronized (recentResponses) {
+            StoredResponse response = recentResponses.get(key);
+
+            if (response != null && response.isExpired(Instant.now())) {
+                recentResponses.remove(key);
+                return null;
+            }
+
+            return response;
+        }
+    }
+
+    private void remember(Key key, StoredResponse response) {
+        synchronized (recentResponses) {
+            recentResponses.put(key, response);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the request for its idempotency hash", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response for idempotent replay", e);
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return authentication == null ? ANONYMOUS : authentication.getName();
+    }
+
+    private record Key(String scope, String principal, String value) {
+    }
+
+    private record StoredResponse(String requestHash, int status, String body, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+
+    /**
+     * @param response The response of the action, or null if the stored response has to be replayed.
+     */
+    private record Outcome(ResponseEntity<?> response, StoredResponse stored) {
+    }
+}
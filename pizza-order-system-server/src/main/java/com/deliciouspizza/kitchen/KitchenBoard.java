@@ -0,0 +1,322 @@
+package com.deliciouspizza.kitchen;
+
+import com.deliciouspizza.dto.kitchen.KitchenBoardChangeDto;
+import com.deliciouspizza.dto.kitchen.KitchenBoardDto;
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order_product.OrderProductResponseDto;
+import com.deliciouspizza.event.OrderEventType;
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.sse.OrderEventHub;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * In-memory board of the orders the kitchen still has to work on, oldest first.
+ * <p>
+ * Loaded once from the database when the application is ready and then kept current from the order
+ * lifecycle events. Reading the board never touches the database: the snapshot is rebuilt at most once
+ * per change and shared by all readers. Changes are pushed to SSE subscribers of the board.
+ * </p>
+ * <p>
+ * The events come from the outbox relay of this instance only, so the board assumes the application runs as
+ * a single instance; with several, each board would miss the changes relayed by the others.
+ * </p>
+ */
+@Component
+public class KitchenBoard {
+
+    private static final Logger logger = Logger.getLogger(KitchenBoard.class.getName());
+
+    public static final Set<OrderStatus> OPEN_STATUSES = Collections.unmodifiableSet(
+            EnumSet.of(OrderStatus.NEW, OrderStatus.PROCESSING));
+
+    static final String SNAPSHOT_EVENT = "board";
+    static final String CHANGE_EVENT = "board-change";
+
+    private final OrderRepository orderRepository;
+    private final OrderEventHub orderEventHub;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Guarded by this; order ids grow with creation time, so id order is queue order
+    private final NavigableMap<Long, Entry> openOrders = new TreeMap<>();
+    private final Map<OrderStatus, Long> openCounts = new EnumMap<>(OrderStatus.class);
+    private long version;
+
+    // Guarded by this; the event ids of orders removed while an order was loaded outside the lock, so a load
+    // that read the row before the removal cannot bring the order back. Cleared once no load is in flight.
+    private final Map<Long, Long> removedEventIds = new HashMap<>();
+    private int loadsInFlight;
+
+    private volatile KitchenBoardDto snapshot;
+
+    // Republished on every change, so reading the counts needs neither the lock nor a snapshot rebuild
+    private volatile Map<String, Long> counts;
+
+    public KitchenBoard(
+            OrderRepository orderRepository,
+            OrderEventHub orderEventHub,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderEventHub = orderEventHub;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.counts = publishedCounts();
+    }
+
+    /**
+     * Loads all open orders. Events that arrive meanwhile wait for the lock and are applied afterwards.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        List<OrderResponseDto> orders = readOnlyTransaction.execute(status ->
+                orderRepository.findWithItemsByStatusIn(OPEN_STATUSES).stream()
+                        .map(KitchenBoard::toDto)
+                        .toList());
+
+        openOrders.clear();
+        openCounts.clear();
+
+        for (OrderResponseDto order : orders) {
+            put(order.getId(), new Entry(0, order));
+        }
+
+        version++;
+        snapshot = null;
+        counts = publishedCounts();
+
+        logger.info("Kitchen board loaded with open orders: " + openOrders.size());
+    }
+
+    public KitchenBoardDto snapshot() {
+        KitchenBoardDto current = snapshot;
+
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (snapshot == null) {
+                List<OrderResponseDto> orders = openOrders.values().stream().map(Entry::order).toList();
+                snapshot = new KitchenBoardDto(version, counts, orders);
+            }
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * @return The number of open orders per status, maintained on every change; never queries the database.
+     */
+    public Map<String, Long> countsByStatus() {
+        return counts;
+    }
+
+    /**
+     * Subscribes to the board: the first event is the snapshot, followed by one change event per order change.
+     */
+    public synchronized SseEmitter subscribe() {
+        return orderEventHub.subscribeToKitchen(SNAPSHOT_EVENT, snapshot());
+    }
+
+    /**
+     * Applies an order change. Orders that have to be read from the database are loaded without holding the
+     * lock, so readers and other events never wait for the query. The loaded order is only applied if no
+     * newer event of the order was applied in the meantime.
+     */
+    @EventListener
+    public void onOrderEvent(OrderLifecycleEvent event) {
+        if (!applyWithoutLoading(event)) {
+            return;
+        }
+
+        try {
+            applyLoaded(event, loadOrder(event.orderId()));
+        } finally {
+            finishLoad();
+        }
+    }
+
+    /**
+     * @return Whether the order has to be loaded; the caller must then call {@link #finishLoad()} afterwards.
+     */
+    private synchronized boolean applyWithoutLoading(OrderLifecycleEvent event) {
+        Entry current = openOrders.get(event.orderId());
+
+        // Delivery is at least once; skip events this entry already reflects
+        if (current != null && event.eventId() != null && event.eventId() <= current.lastEventId()) {
+            return false;
+        }
+
+        if (event.type() == OrderEventType.DELETED || !OPEN_STATUSES.contains(event.status())) {
+            removeAndPublish(event);
+            return false;
+        }
+
+        if (current != null && event.type() == OrderEventType.UPDATED && event.isStatusChange()) {
+            putAndPublish(event, withStatus(current.order(), event));
+            return false;
+        }
+
+        loadsInFlight++;
+        return true;
+    }
+
+    private synchronized void applyLoaded(OrderLifecycleEvent event, OrderResponseDto order) {
+        Entry current = openOrders.get(event.orderId());
+        long lastEventId = current != null
+                ? current.lastEventId()
+                : removedEventIds.getOrDefault(event.orderId(), 0L);
+
+        if (event.eventId() != null && event.eventId() <= lastEventId) {
+            return;
+        }
+
+        if (order == null || !OPEN_STATUSES.contains(OrderStatus.valueOf(order.getStatus()))) {
+            removeAndPublish(event);
+            return;
+        }
+
+        putAndPublish(event, order);
+    }
+
+    private synchronized void finishLoad() {
+        if (--loadsInFlight == 0) {
+            removedEventIds.clear();
+        }
+    }
+
+    private void putAndPublish(OrderLifecycleEvent event, OrderResponseDto order) {
+        put(event.orderId(), new Entry(eventIdOf(event), order));
+        changed(event.orderId(), order);
+    }
+
+    private void removeAndPublish(OrderLifecycleEvent event) {
+        if (loadsInFlight > 0) {
+            removedEventIds.merge(event.orderId(), eventIdOf(event), Math::max);
+        }
+
+        if (remove(event.orderId()) != null) {
+            changed(event.orderId(), null);
+        }
+    }
+
+    private void put(long orderId, Entry entry) {
+        Entry previous = openOrders.put(orderId, entry);
+
+        if (previous != null) {
+            openCounts.merge(previous.status(), -1L, Long::sum);
+        }
+
+        openCounts.merge(entry.status(), 1L, Long::sum);
+    }
+
+    private Entry remove(long orderId) {
+        Entry removed = openOrders.remove(orderId);
+
+        if (removed != null) {
+            openCounts.merge(removed.status(), -1L, Long::sum);
+        }
+
+        return removed;
+    }
+
+    private void changed(long orderId, OrderResponseDto order) {
+        version++;
+        snapshot = null;
+        counts = publishedCounts();
+
+        orderEventHub.publishKitchenChange(orderId, CHANGE_EVENT, new KitchenBoardChangeDto(version, orderId, order));
+    }
+
+    private static long eventIdOf(OrderLifecycleEvent event) {
+        return event.eventId() == null ? 0 : event.eventId();
+    }
+
+    private OrderResponseDto loadOrder(long orderId) {
+        return readOnlyTransaction.execute(status ->
+                orderRepository.findWithItemsById(orderId).map(KitchenBoard::toDto).orElse(null));
+    }
+
+    private static OrderResponseDto withStatus(OrderResponseDto order, OrderLifecycleEvent event) {
+        return new OrderResponseDto(
+                order.getId(),
+                event.status().name(),
+                order.getUserId(),
+                order.getAddress(),
+                order.getCreatedAt(),
+                LocalDateTime.ofInstant(event.occurredAt(), ZoneId.systemDefault()),
+                order.getItems(),
+                order.getSubtotal(),
+                order.getItemCount(),
+                order.getLineCount()
+        );
+    }
+
+    private static OrderResponseDto toDto(Order order) {
+        List<OrderProductResponseDto> items = new ArrayList<>(order.getOrderProducts().stream()
+                .map(item -> new OrderProductResponseDto(
+                        order.getId(),
+                        item.getProduct().getId(),
+                        item.getProduct().getName(),
+                        item.getQuantity(),
+                        item.getPriceAtOrderTime()
+                ))
+                .toList());
+
+        items.sort(Comparator.comparing(OrderProductResponseDto::getProductId));
+
+        return new OrderResponseDto(
+                order.getId(),
+                order.getStatus().name(),
+                order.getUser().getId(),
+                order.getAddress(),
+                order.getCreatedAt(),
+                order.getUpdatedAt(),
+                List.copyOf(items),
+                order.getSubtotal(),
+                order.getItemCount(),
+                order.getLineCount()
+        );
+    }
+
+    private Map<String, Long> publishedCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+
+        for (OrderStatus status : OPEN_STATUSES) {
+            result.put(status.name(), openCounts.getOrDefault(status, 0L));
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    private record Entry(long lastEventId, OrderResponseDto order) {
+
+        OrderStatus status() {
+            return OrderStatus.valueOf(order.getStatus());
+        }
+    }
+}
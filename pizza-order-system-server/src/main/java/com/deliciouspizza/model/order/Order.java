@@ -9,6 +9,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -41,6 +42,20 @@ public class Order {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Written only by the atomic delta updates in OrderRepository, never by flushing the entity
+    @Column(name = "subtotal", nullable = false, precision = 12, scale = 2, insertable = false, updatable = false)
+    private BigDecimal subtotal = BigDecimal.ZERO;
+
+    @Column(name = "item_count", nullable = false, insertable = false, updatable = false)
+    private int itemCount;
+
+    @Column(name = "line_count", nullable = false, insertable = false, updatable = false)
+    private int lineCount;
+
     @OneToMany(
             mappedBy = "order",
             cascade = CascadeType.ALL,
@@ -49,4 +64,17 @@ public class Order {
     )
     private Set<OrderProduct> orderProducts = new HashSet<>();
 
+    public OrderTotals getTotals() {
+        return new OrderTotals(subtotal, itemCount, lineCount);
+    }
+
+    /**
+     * Mirrors totals just written to the database, so the entity can be returned without reloading it.
+     */
+    public void setTotals(OrderTotals totals) {
+        this.subtotal = totals.subtotal();
+        this.itemCount = totals.itemCount();
+        this.lineCount = totals.lineCount();
+    }
+
 }
@@ -1,8 +1,24 @@
 package com.deliciouspizza.model.order;
 
+/**
+ * Lifecycle of an order. The allowed transitions are
+ * NEW -> PROCESSING | CANCELLED and PROCESSING -> COMPLETED | CANCELLED; COMPLETED and CANCELLED are terminal.
+ */
 public enum OrderStatus {
     NEW,
     PROCESSING,
     COMPLETED,
-    CANCELLED
+    CANCELLED;
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return switch (this) {
+            case NEW -> target == PROCESSING || target == CANCELLED;
+            case PROCESSING -> target == COMPLETED || target == CANCELLED;
+            case COMPLETED, CANCELLED -> false;
+        };
+    }
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == CANCELLED;
+    }
 }
@@ -0,0 +1,10 @@
+package com.deliciouspizza.model.order;
+
+import java.math.BigDecimal;
+
+/**
+ * The stored totals of an order: the sum of quantity * price over its lines, the sum of quantities
+ * and the number of lines.
+ */
+public record OrderTotals(BigDecimal subtotal, int itemCount, int lineCount) {
+}
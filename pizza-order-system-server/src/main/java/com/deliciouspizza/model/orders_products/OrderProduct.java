@@ -10,8 +10,11 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -19,14 +22,20 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "orders_products")
+@Table(
+        name = "orders_products",
+        uniqueConstraints = @UniqueConstraint(name = OrderProduct.ORDER_PRODUCT_UNIQUE_CONSTRAINT, columnNames = {"order_id", "product_id", "order_created_at"})
+)
 @Data
 @NoArgsConstructor
 public class OrderProduct {
 
+    public static final String ORDER_PRODUCT_UNIQUE_CONSTRAINT = "uk_orders_products_order_product";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_products_id_seq_generator")
     @SequenceGenerator(name = "orders_products_id_seq_generator", sequenceName = "orders_products_id_seq", allocationSize = 1)
@@ -45,12 +54,25 @@ public class OrderProduct {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    // Partition key of orders_products, always the creation time of the order
+    @Column(name = "order_created_at", nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
     @Column(name = "price_at_order_time", nullable = false, precision = 10, scale = 2)
     private BigDecimal priceAtOrderTime;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @PrePersist
+    void copyOrderCreatedAt() {
+        orderCreatedAt = order.getCreatedAt();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
@@ -0,0 +1,81 @@
+package com.deliciouspizza.model.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * An event written in the same transaction as the state change it describes and published later by the relay.
+ * The aggregate id is the order id; events of one aggregate are published in id order.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class OutboxEvent {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private long aggregateId;
+
+    @Column(name = "event_type", nullable = false, updatable = false, length = 30)
+    private String eventType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, updatable = false, columnDefinition = "jsonb")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt = createdAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    public OutboxEvent(long aggregateId, String eventType, String payload) {
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    public void markPublished(Instant now) {
+        this.publishedAt = now;
+        this.attempts++;
+        this.lastError = null;
+    }
+
+    public void markFailed(Exception error, Instant retryAt) {
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+
+        this.attempts++;
+        this.availableAt = retryAt;
+        this.lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
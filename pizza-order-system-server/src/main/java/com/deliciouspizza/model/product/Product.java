@@ -1,6 +1,8 @@
 package com.deliciouspizza.model.product;
 
 import com.deliciouspizza.model.orders_products.OrderProduct;
+import jakarta.persistence.Basic;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorColumn;
@@ -17,11 +19,16 @@ import jakarta.persistence.InheritanceType;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyGroup;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -29,6 +36,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products", includeLazy = false)
 @Table(name = "products")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "category", discriminatorType = DiscriminatorType.STRING)
@@ -78,11 +87,26 @@ public abstract class Product {
     @Column(name = "updated_at")
     private Instant updatedAt = Instant.now();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "product", fetch = FetchType.LAZY)
     private Set<OrderProduct> orderProductsInOrders = new HashSet<>();
 
+    /**
+     * Loaded on first access and never cached, so reading or caching a product does not copy its image.
+     */
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("image")
+    @Column(name = "image_data")
     private byte[] imageData;
 
+    // Generated by the database from image_data and kept in step by setImageData
+    @Column(name = "has_image", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private boolean imagePresent;
+
     public Product(
             ProductCategory category,
             String name,
@@ -105,5 +129,9 @@ public abstract class Product {
         this.updatedAt = Instant.now();
     }
 
+    public void setImageData(byte[] imageData) {
+        this.imageData = imageData;
+        this.imagePresent = imageData != null && imageData.length > 0;
+    }
 }
 
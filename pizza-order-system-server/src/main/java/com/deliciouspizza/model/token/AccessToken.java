@@ -0,0 +1,41 @@
+package com.deliciouspizza.model.token;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "access_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class AccessToken {
+
+    @Id
+    @Column(name = "jti", length = 36)
+    @EqualsAndHashCode.Include
+    private String jti;
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    public AccessToken(String jti, long userId, Instant expiresAt) {
+        this.jti = jti;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,16 +1,20 @@
 package com.deliciouspizza.model.user;
 
 import com.deliciouspizza.model.order.Order;
+import jakarta.persistence.Basic;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -18,17 +22,28 @@ import jakarta.validation.constraints.Size;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyGroup;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "USERS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users", includeLazy = false)
+@Table(name = "USERS", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_UNIQUE_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email")
+})
 @Getter
 @Setter
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class User {
 
+    public static final String USERNAME_UNIQUE_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq_generator")
     @SequenceGenerator(name = "users_id_seq_generator", sequenceName = "users_id_seq", allocationSize = 1)
@@ -38,7 +53,7 @@ public class User {
 
     @NotBlank
     @Size(min = 3, max = 100)
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
 
     @NotBlank
@@ -64,6 +79,9 @@ public class User {
     @OneToMany(mappedBy = "user")
     private Set<Order> orders;
 
+    // Loaded on first access and never cached, like the image of a product
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("image")
     @Column(name = "image_data", columnDefinition = "BYTEA")
     private byte[] imageData;
 
@@ -0,0 +1,35 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes events as Spring application events, for {@code @EventListener} methods in this application.
+ * Listeners run synchronously on the relay thread, so a failing listener makes the event retry.
+ * <p>
+ * The kitchen board and the SSE streams depend on these events, so the relay always publishes to this sink,
+ * whether or not {@code outbox.sinks} lists it.
+ * </p>
+ */
+@Component
+public class InProcessOutboxSink implements OutboxSink {
+
+    public static final String NAME = "in-process";
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public InProcessOutboxSink(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void publish(OrderLifecycleEvent event) {
+        applicationEventPublisher.publishEvent(event);
+    }
+}
@@ -0,0 +1,32 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Sends events to the local broker stand-in keyed by order id, like a Kafka producer would.
+ */
+@Component
+public class LocalBrokerOutboxSink implements OutboxSink {
+
+    private final LocalMessageBroker localMessageBroker;
+    private final ObjectMapper objectMapper;
+
+    public LocalBrokerOutboxSink(LocalMessageBroker localMessageBroker, ObjectMapper objectMapper) {
+        this.localMessageBroker = localMessageBroker;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "local-broker";
+    }
+
+    @Override
+    public void publish(OrderLifecycleEvent event) throws IOException {
+        localMessageBroker.send(event.orderId(), objectMapper.writeValueAsString(event));
+    }
+}
@@ -0,0 +1,98 @@
+package com.deliciouspizza.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory stand-in for a partitioned message broker such as Kafka, for local runs and tests.
+ * <p>
+ * Messages are appended to a partition chosen by key, so messages with the same key keep their order.
+ * Consumers poll by offset. Each partition keeps only the most recent messages.
+ * </p>
+ */
+@Component
+public class LocalMessageBroker {
+
+    private final Partition[] partitions;
+    private final int retention;
+
+    public LocalMessageBroker(
+            @Value("${outbox.sinks.local-broker.partitions:8}") int partitionCount,
+            @Value("${outbox.sinks.local-broker.retention:10000}") int retention
+    ) {
+        this.partitions = new Partition[partitionCount];
+        this.retention = retention;
+
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition();
+        }
+    }
+
+    /**
+     * @return The offset of the message in its partition.
+     */
+    public long send(long key, String payload) {
+        int partition = partitionOf(key);
+
+        return partitions[partition].append(partition, key, payload, retention);
+    }
+
+    /**
+     * @param partition  The partition to read.
+     * @param fromOffset The first offset to return. Offsets that fell out of retention are skipped.
+     * @param max        The maximum number of messages.
+     * @return The messages in offset order.
+     */
+    public List<Message> poll(int partition, long fromOffset, int max) {
+        return partitions[partition].read(fromOffset, max);
+    }
+
+    public int partitionOf(long key) {
+        return Math.floorMod(Long.hashCode(key), partitions.length);
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    public record Message(int partition, long offset, long key, String payload) {
+    }
+
+    private static final class Partition {
+
+        private final ArrayDeque<Message> messages = new ArrayDeque<>();
+        private long nextOffset;
+
+        synchronized long append(int partition, long key, String payload, int retention) {
+            long offset = nextOffset++;
+
+            messages.addLast(new Message(partition, offset, key, payload));
+
+            if (messages.size() > retention) {
+                messages.removeFirst();
+            }
+
+            return offset;
+        }
+
+        synchronized List<Message> read(long fromOffset, int max) {
+            List<Message> result = new ArrayList<>(Math.min(max, messages.size()));
+
+            for (Message message : messages) {
+                if (result.size() == max) {
+                    break;
+                }
+
+                if (message.offset() >= fromOffset) {
+                    result.add(message);
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends events to a newline-delimited JSON file, one event per line. Each line is flushed before the
+ * event is marked as published.
+ */
+@Component
+public class LogFileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private BufferedWriter writer;
+
+    public LogFileOutboxSink(
+            ObjectMapper objectMapper,
+            @Value("${outbox.sinks.log-file.path:logs/order-events.ndjson}") String path
+    ) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public String name() {
+        return "log-file";
+    }
+
+    @Override
+    public synchronized void publish(OrderLifecycleEvent event) throws IOException {
+        if (writer == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        writer.write(objectMapper.writeValueAsString(event));
+        writer.newLine();
+        writer.flush();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.event.OrderEventType;
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.outbox.OutboxEvent;
+import com.deliciouspizza.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+import static com.deliciouspizza.config.TransactionCallbacks.afterCommit;
+
+/**
+ * Records order lifecycle events in the outbox. Must be called inside the transaction that changes the order,
+ * so the event is stored if and only if the change commits.
+ */
+@Component
+public class OrderEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
+    private final ObjectMapper objectMapper;
+
+    public OrderEventPublisher(
+            OutboxEventRepository outboxEventRepository,
+            OutboxRelay outboxRelay,
+            ObjectMapper objectMapper
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxRelay = outboxRelay;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param order          The order after the change; it must already have an id.
+     * @param type           What happened to the order.
+     * @param previousStatus The status before the change, null for new orders.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Order order, OrderEventType type, OrderStatus previousStatus) {
+        OrderLifecycleEvent event = new OrderLifecycleEvent(
+                null,
+                order.getId(),
+                order.getUser().getId(),
+                type,
+                order.getStatus(),
+                previousStatus,
+                Instant.now()
+        );
+
+        try {
+            outboxEventRepository.save(new OutboxEvent(order.getId(), type.name(), objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order event for order with id: " + order.getId(), e);
+        }
+
+        // Start relaying right after the commit instead of waiting for the next poll
+        afterCommit(outboxRelay::wakeUp);
+    }
+}
@@ -0,0 +1,190 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.config.ExecutorFactory;
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.deliciouspizza.model.outbox.OutboxEvent;
+import com.deliciouspizza.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes outbox events to the enabled sinks, at least once and in order per order id.
+ * <p>
+ * A single background thread locks a batch of due events with {@code FOR UPDATE SKIP LOCKED}, hands each to
+ * every sink and marks it published in the same transaction, so several instances can relay side by side.
+ * Each event is relayed by one instance only, though, so the in-process listeners of the other instances,
+ * the kitchen board and the SSE streams, never see it: those assume a single instance. The relay polls every
+ * {@code outbox.relay.poll-interval-ms} and is woken up right after a transaction that wrote events commits.
+ * Failed events are retried with exponential backoff.
+ * </p>
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = Logger.getLogger(OutboxRelay.class.getName());
+
+    private static final long BASE_BACKOFF_MS = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorFactory executorFactory;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long maxBackoffMs;
+    private final Duration retention;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            List<OutboxSink> availableSinks,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            ExecutorFactory executorFactory,
+            @Value("${outbox.sinks:in-process}") Set<String> enabledSinks,
+            @Value("${outbox.relay.enabled:true}") boolean enabled,
+            @Value("${outbox.relay.batch-size:100}") int batchSize,
+            @Value("${outbox.relay.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${outbox.relay.max-backoff-ms:60000}") long maxBackoffMs,
+            @Value("${outbox.retention-hours:24}") long retentionHours
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = availableSinks.stream()
+                .filter(sink -> sink.name().equals(InProcessOutboxSink.NAME) || enabledSinks.contains(sink.name()))
+                .toList();
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executorFactory = executorFactory;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retention = Duration.ofHours(retentionHours);
+
+        if (!availableSinks.stream().map(OutboxSink::name).toList().containsAll(enabledSinks)) {
+            logger.warning("Unknown outbox sinks in " + enabledSinks + ", available: "
+                    + availableSinks.stream().map(OutboxSink::name).toList());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Outbox relay is disabled");
+            return;
+        }
+
+        running = true;
+        executor = executorFactory.newExecutor("outbox-relay", 1);
+        executor.execute(this::run);
+
+        logger.info("Outbox relay publishing to " + sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+
+        if (executor != null) {
+            wakeUp();
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    /**
+     * Publishes one batch of due events.
+     *
+     * @return The number of events handled, published or failed.
+     */
+    public int relayBatch() {
+        Integer handled = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+
+            for (OutboxEvent outboxEvent : batch) {
+                relay(outboxEvent);
+            }
+
+            return batch.size();
+        });
+
+        return handled == null ? 0 : handled;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void deletePublished() {
+        int deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+
+        if (deleted > 0) {
+            logger.info("Deleted published outbox events: " + deleted);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            int handled = 0;
+
+            try {
+                handled = relayBatch();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Outbox relay batch failed", e);
+            }
+
+            // A full batch means there is probably more to do right away
+            if (handled < batchSize) {
+                try {
+                    wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void relay(OutboxEvent outboxEvent) {
+        try {
+            OrderLifecycleEvent event = objectMapper.readValue(outboxEvent.getPayload(), OrderLifecycleEvent.class)
+                    .withEventId(outboxEvent.getId());
+
+            for (OutboxSink sink : sinks) {
+                sink.publish(event);
+            }
+
+            outboxEvent.markPublished(Instant.now());
+        } catch (Exception e) {
+            long backoffMs = Math.min(maxBackoffMs, BASE_BACKOFF_MS << Math.min(outboxEvent.getAttempts(), 20));
+            outboxEvent.markFailed(e, Instant.now().plusMillis(backoffMs));
+
+            logger.warning(String.format("Publishing outbox event %d for order %d failed (attempt %d), retrying in %d ms: %s",
+                    outboxEvent.getId(), outboxEvent.getAggregateId(), outboxEvent.getAttempts(), backoffMs, e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.event.OrderLifecycleEvent;
+
+/**
+ * A destination the outbox relay publishes to. Sinks are enabled by name with {@code outbox.sinks}; the
+ * {@link InProcessOutboxSink} is always enabled.
+ * <p>
+ * An event counts as published only when every enabled sink accepted it. If one sink fails, the event is
+ * retried on all of them, so sinks see duplicates and must tolerate them.
+ * </p>
+ */
+public interface OutboxSink {
+
+    String name();
+
+    /**
+     * Publishes a single event. Must not return before the event is durable in the sink's own terms.
+     *
+     * @param event The event, with its outbox id.
+     * @throws Exception If the event could not be published; it will be retried later.
+     */
+    void publish(OrderLifecycleEvent event) throws Exception;
+}
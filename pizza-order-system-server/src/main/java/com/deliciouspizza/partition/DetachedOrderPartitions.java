@@ -0,0 +1,104 @@
+package com.deliciouspizza.partition;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order_product.OrderProductResponseDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up orders in the monthly partitions that {@link OrderPartitionMaintenance} detached into the archive
+ * schema, so they stay readable by id after they left the partitioned tables.
+ * <p>
+ * The month of an order is not known from its id, so every archived orders table is searched in one
+ * UNION ALL query, newest month first. A detached table keeps the primary key index of its partition, which
+ * makes that one index lookup per archived month; the lines are then read from the same month only.
+ * </p>
+ */
+@Component
+public class DetachedOrderPartitions {
+
+    // The suffix is checked by the pattern, so it is safe to put into the queries below
+    private static final String ARCHIVED_MONTHS = """
+            SELECT substr(c.relname, length('orders_') + 1)
+            FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = 'archive'
+              AND c.relkind = 'r'
+              AND c.relname ~ '^orders_y[0-9]{4}m[0-9]{2}$'
+            ORDER BY 1 DESC
+            """;
+
+    private static final String ORDER_IN_MONTH = """
+            SELECT '%1$s' AS month, id, status, user_id, address, created_at, updated_at, subtotal, item_count, line_count
+            FROM archive.orders_%1$s
+            WHERE id = ?""";
+
+    private static final String LINES_IN_MONTH = """
+            SELECT op.id, op.product_id, p.name, op.quantity, op.price_at_order_time
+            FROM archive.orders_products_%s op
+            JOIN products p ON p.id = op.product_id
+            WHERE op.order_id = ?
+            ORDER BY op.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DetachedOrderPartitions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return The order with the given id and its items, if a detached month holds it.
+     */
+    public Optional<OrderResponseDto> find(long orderId) {
+        List<String> months = jdbcTemplate.queryForList(ARCHIVED_MONTHS, String.class);
+
+        if (months.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String sql = months.stream()
+                .map(ORDER_IN_MONTH::formatted)
+                .collect(Collectors.joining("\nUNION ALL\n", "", "\nLIMIT 1"));
+
+        Object[] ids = months.stream().map(month -> orderId).toArray();
+
+        List<MonthOrder> orders = jdbcTemplate.query(sql, (rs, rowNum) -> new MonthOrder(
+                rs.getString("month"),
+                new OrderResponseDto(
+                        rs.getLong("id"),
+                        rs.getString("status"),
+                        rs.getLong("user_id"),
+                        rs.getString("address"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getTimestamp("updated_at") == null ? null : rs.getTimestamp("updated_at").toLocalDateTime(),
+                        null,
+                        rs.getBigDecimal("subtotal"),
+                        rs.getInt("item_count"),
+                        rs.getInt("line_count")
+                )), ids);
+
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+
+        MonthOrder found = orders.getFirst();
+        found.order().setItems(jdbcTemplate.query(LINES_IN_MONTH.formatted(found.month()), (rs, rowNum) ->
+                new OrderProductResponseDto(
+                        rs.getLong("id"),
+                        rs.getLong("product_id"),
+                        rs.getString("name"),
+                        rs.getInt("quantity"),
+                        rs.getBigDecimal("price_at_order_time")
+                ), orderId));
+
+        return Optional.of(found.order());
+    }
+
+    private record MonthOrder(String month, OrderResponseDto order) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.deliciouspizza.partition;
+
+import com.deliciouspizza.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the monthly partitions of orders and orders_products ahead of time and archives old months.
+ * <p>
+ * Partitions for the current month and the next {@code orders.partitions.months-ahead} months are created
+ * on startup and then once per interval, so inserts never fall into the default partition. With a
+ * retention configured, months that ended before it are detached and moved to the archive schema, which
+ * removes them from every query at the cost of a catalog change instead of a large DELETE. Lookups by id
+ * still find their orders through {@link DetachedOrderPartitions}.
+ * </p>
+ */
+@Component
+public class OrderPartitionMaintenance {
+
+    private static final Logger logger = Logger.getLogger(OrderPartitionMaintenance.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public OrderPartitionMaintenance(
+            OrderRepository orderRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${orders.partitions.retention-months:0}") int retentionMonths
+    ) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.partitions.maintenance-interval-ms:86400000}")
+    public void maintain() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+
+        createAhead(currentMonth);
+
+        // 0 keeps every month attached
+        if (retentionMonths > 0) {
+            archiveBefore(currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    private void createAhead(LocalDate currentMonth) {
+        Integer created = transactionTemplate.execute(status ->
+                orderRepository.createPartitions(currentMonth, currentMonth.plusMonths(monthsAhead + 1)));
+
+        if (created != null && created > 0) {
+            logger.info("Created monthly order partitions: " + created);
+        }
+    }
+
+    private void archiveBefore(LocalDate month) {
+        List<String> detached = transactionTemplate.execute(status -> orderRepository.detachPartitionsBefore(month));
+
+        if (detached != null && !detached.isEmpty()) {
+            logger.info("Detached and archived order partitions: " + detached);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.model.token.AccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AccessTokenRepository extends JpaRepository<AccessToken, String> {
+
+    List<AccessToken> findByUserIdAndRevokedAtIsNullAndExpiresAtAfter(long userId, Instant now);
+
+    List<AccessToken> findByRevokedAtIsNotNullAndExpiresAtAfter(Instant now);
+
+    /**
+     * Removes tokens that can no longer be used, revoked or not, so the revocation list only holds live entries.
+     *
+     * @param now The current time.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query("DELETE FROM AccessToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,148 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order_product.OrderProductResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maintains and reads customer_order_summaries, the denormalized order history of each customer.
+ * <p>
+ * A refresh rewrites the row of an order from orders and orders_products with one upsert, so it needs no
+ * knowledge of what changed and repeating it is harmless. It must run in the transaction that changes
+ * the order; the row is then exactly as current as the order itself.
+ * </p>
+ */
+@Repository
+public class CustomerOrderSummaryRepository {
+
+    private static final TypeReference<List<OrderProductResponseDto>> ITEMS = new TypeReference<>() {
+    };
+
+    private static final String REFRESH = """
+            INSERT INTO customer_order_summaries (order_id, user_id, status, address, created_at, updated_at,
+                                                  subtotal, item_count, line_count, items)
+            SELECT o.id, o.user_id, o.status, o.address, o.created_at, o.updated_at, o.subtotal, o.item_count, o.line_count,
+                   COALESCE((
+                       SELECT jsonb_agg(jsonb_build_object(
+                                  'orderId', op.order_id,
+                                  'productId', op.product_id,
+                                  'productName', p.name,
+                                  'quantity', op.quantity,
+                                  'priceAtOrderTime', op.price_at_order_time
+                              ) ORDER BY op.id)
+                       FROM orders_products op
+                       JOIN products p ON p.id = op.product_id
+                       WHERE op.order_id = o.id AND op.order_created_at = o.created_at
+                   ), '[]'::JSONB)
+            FROM orders o
+            WHERE o.id = :orderId
+            ON CONFLICT ON CONSTRAINT pk_customer_order_summaries
+            DO UPDATE SET status = EXCLUDED.status,
+                          address = EXCLUDED.address,
+                          updated_at = EXCLUDED.updated_at,
+                          subtotal = EXCLUDED.subtotal,
+                          item_count = EXCLUDED.item_count,
+                          line_count = EXCLUDED.line_count,
+                          items = EXCLUDED.items
+            """;
+
+    private static final String PAGE = """
+            SELECT order_id, status, user_id, address, created_at, updated_at, subtotal, item_count, line_count, items::TEXT
+            FROM customer_order_summaries
+            WHERE user_id = :userId
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public CustomerOrderSummaryRepository(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Rewrites the summary of an order from its current state. Pending entity changes are flushed first,
+     * so the summary includes them.
+     */
+    public void refresh(long orderId) {
+        entityManager.flush();
+        // Naming the table keeps Hibernate from treating the statement as a change to every cached entity
+        entityManager.createNativeQuery(REFRESH)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "customer_order_summaries")
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+    }
+
+    public void delete(long orderId) {
+        entityManager.createNativeQuery("DELETE FROM customer_order_summaries WHERE order_id = :orderId")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "customer_order_summaries")
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+    }
+
+    /**
+     * Returns the orders of a user newest first, starting after a keyset cursor. Each page is one range
+     * scan of the (user_id, created_at, order_id) index however deep it is, unlike an offset.
+     *
+     * @param beforeCreatedAt The creation time of the last order of the previous page, null for the first page.
+     * @param beforeId        The id of the last order of the previous page; required with beforeCreatedAt.
+     */
+    @SuppressWarnings("unchecked")
+    public List<OrderResponseDto> findPage(long userId, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        String sql = PAGE
+                + (beforeCreatedAt != null ? "AND (created_at, order_id) < (:beforeCreatedAt, :beforeId) " : "")
+                + "ORDER BY created_at DESC, order_id DESC LIMIT :limit";
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("userId", userId)
+                .setParameter("limit", limit);
+
+        if (beforeCreatedAt != null) {
+            query.setParameter("beforeCreatedAt", beforeCreatedAt).setParameter("beforeId", beforeId);
+        }
+
+        List<Object[]> rows = query.getResultList();
+
+        return rows.stream()
+                .map(row -> new OrderResponseDto(
+                        ((Number) row[0]).longValue(),
+                        (String) row[1],
+                        ((Number) row[2]).longValue(),
+                        (String) row[3],
+                        toLocalDateTime(row[4]),
+                        toLocalDateTime(row[5]),
+                        readItems((String) row[9]),
+                        (BigDecimal) row[6],
+                        ((Number) row[7]).intValue(),
+                        ((Number) row[8]).intValue()
+                ))
+                .toList();
+    }
+
+    private List<OrderProductResponseDto> readItems(String json) {
+        try {
+            return objectMapper.readValue(json, ITEMS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the items of an order summary", e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value == null || value instanceof LocalDateTime
+                ? (LocalDateTime) value
+                : ((Timestamp) value).toLocalDateTime();
+    }
+}
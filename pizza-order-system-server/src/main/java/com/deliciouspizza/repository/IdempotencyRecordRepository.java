@@ -0,0 +1,63 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.model.idempotency.IdempotencyRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Claims a key for the current transaction. A concurrent claim of the same key blocks until this
+     * transaction ends; if it commits, the other claim matches nothing and can read the stored response.
+     * An expired row is taken over as if it did not exist.
+     *
+     * @return 1 if the key was claimed, 0 if it is already taken.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "idempotency_keys"))
+    @Query(value = """
+            INSERT INTO idempotency_keys (scope, principal, idempotency_key, request_hash, expires_at)
+            VALUES (:scope, :principal, :key, :requestHash, :expiresAt)
+            ON CONFLICT ON CONSTRAINT uk_idempotency_keys_scope_principal_key
+            DO UPDATE SET request_hash = EXCLUDED.request_hash,
+                          response_status = NULL,
+                          response_body = NULL,
+                          created_at = now(),
+                          expires_at = EXCLUDED.expires_at
+            WHERE idempotency_keys.expires_at <= now()
+            """, nativeQuery = true)
+    int claim(
+            @Param("scope") String scope,
+            @Param("principal") String principal,
+            @Param("key") String key,
+            @Param("requestHash") String requestHash,
+            @Param("expiresAt") Instant expiresAt
+    );
+
+    Optional<IdempotencyRecord> findByScopeAndPrincipalAndIdempotencyKey(String scope, String principal, String idempotencyKey);
+
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.responseBody = :body
+            WHERE r.scope = :scope AND r.principal = :principal AND r.idempotencyKey = :key
+            """)
+    int storeResponse(
+            @Param("scope") String scope,
+            @Param("principal") String principal,
+            @Param("key") String key,
+            @Param("status") int status,
+            @Param("body") String body
+    );
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
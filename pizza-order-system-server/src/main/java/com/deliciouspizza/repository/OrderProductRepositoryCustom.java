@@ -0,0 +1,17 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.model.orders_products.OrderProduct;
+
+import java.util.Optional;
+
+public interface OrderProductRepositoryCustom {
+
+    /**
+     * Adds a product to an order in a single statement: inserts the line at the current product price, or
+     * increments the quantity of the existing line. Concurrent calls for the same line never lose an increment.
+     * Flushes and clears the persistence context first, so the returned line is the state in the database.
+     *
+     * @return The inserted or updated line, or empty if the order or the product does not exist.
+     */
+    Optional<OrderProduct> upsertQuantity(long orderId, long productId, int quantity);
+}
@@ -0,0 +1,42 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.model.orders_products.OrderProduct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+import java.util.Optional;
+
+class OrderProductRepositoryCustomImpl implements OrderProductRepositoryCustom {
+
+    // Selecting from orders and products makes a missing order or product insert nothing instead of failing
+    private static final String UPSERT_QUANTITY = """
+            INSERT INTO orders_products (order_id, order_created_at, product_id, quantity, price_at_order_time, version)
+            SELECT o.id, o.created_at, p.id, :quantity, p.price, 0
+            FROM orders o, products p
+            WHERE o.id = :orderId AND p.id = :productId
+            ON CONFLICT ON CONSTRAINT uk_orders_products_order_product
+            DO UPDATE SET quantity = orders_products.quantity + EXCLUDED.quantity,
+                          version = orders_products.version + 1
+            RETURNING *
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<OrderProduct> upsertQuantity(long orderId, long productId, int quantity) {
+        // A line already loaded here would be returned with its old quantity instead of the row from RETURNING
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OrderProduct> lines = entityManager.createNativeQuery(UPSERT_QUANTITY, OrderProduct.class)
+                .setParameter("orderId", orderId)
+                .setParameter("productId", productId)
+                .setParameter("quantity", quantity)
+                .getResultList();
+
+        return lines.stream().findFirst();
+    }
+}
@@ -1,14 +1,152 @@
 package com.deliciouspizza.repository;
 
 import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
 import com.deliciouspizza.model.product.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
 
     List<Order> findByUser_Username(String username);
 
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderProducts op LEFT JOIN FETCH op.product WHERE o.status IN :statuses")
+    List<Order> findWithItemsByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderProducts op LEFT JOIN FETCH op.product WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") long id);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderProducts op LEFT JOIN FETCH op.product WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") long id);
+
+    /**
+     * Moves the order from one status to another in a single statement. Concurrent transitions from the
+     * same status are serialized by the row lock of the update, so exactly one of them matches.
+     *
+     * @return 1 if the order was in the expected status and was updated, 0 otherwise.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :updatedAt, o.version = o.version + 1 WHERE o.id = :id AND o.status = :from")
+    int transitionStatus(
+            @Param("id") long id,
+            @Param("from") OrderStatus from,
+            @Param("to") OrderStatus to,
+            @Param("updatedAt") LocalDateTime updatedAt
+    );
+
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    long findMaxId();
+
+    /**
+     * Compares the stored totals of the orders with ids in (afterId, upToId] with the totals computed from
+     * their lines, in one aggregate query per range.
+     *
+     * @return The orders whose stored totals differ.
+     */
+    @Query(value = """
+            SELECT o.id AS orderId,
+                   o.subtotal AS storedSubtotal, o.item_count AS storedItemCount, o.line_count AS storedLineCount,
+                   COALESCE(SUM(op.quantity * op.price_at_order_time), 0) AS actualSubtotal,
+                   COALESCE(SUM(op.quantity), 0) AS actualItemCount,
+                   COUNT(op.id) AS actualLineCount
+            FROM orders o
+            LEFT JOIN orders_products op ON op.order_id = o.id
+            WHERE o.id > :afterId AND o.id <= :upToId
+            GROUP BY o.id
+            HAVING o.subtotal <> COALESCE(SUM(op.quantity * op.price_at_order_time), 0)
+                OR o.item_count <> COALESCE(SUM(op.quantity), 0)
+                OR o.line_count <> COUNT(op.id)
+            """, nativeQuery = true)
+    List<OrderTotalsMismatch> findTotalsMismatches(@Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    /**
+     * Locks the order row until the end of the transaction, the same lock every totals delta takes.
+     */
+    @Query(value = "SELECT id FROM orders WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") long id);
+
+    /**
+     * Takes the same lock as {@link #lockById(long)} and returns the status in the same round trip. A locked
+     * row is read as its last holder committed it, so the status cannot be older than the lock.
+     *
+     * @return The name of the status.
+     */
+    @Query(value = "SELECT status FROM orders WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<String> lockStatusById(@Param("id") long id);
+
+    /**
+     * Recomputes the stored totals of one order from its lines. Call with the order locked by
+     * {@link #lockById(long)} in an earlier statement, so the lines read here include every committed change.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders"))
+    @Query(value = """
+            UPDATE orders o
+            SET subtotal = COALESCE((SELECT SUM(op.quantity * op.price_at_order_time) FROM orders_products op WHERE op.order_id = o.id), 0),
+                item_count = COALESCE((SELECT SUM(op.quantity) FROM orders_products op WHERE op.order_id = o.id), 0),
+                line_count = (SELECT COUNT(*) FROM orders_products op WHERE op.order_id = o.id)
+            WHERE o.id = :id
+            """, nativeQuery = true)
+    int recomputeTotals(@Param("id") long id);
+
+    /**
+     * Locks the next batch of finished orders created before the given time, skipping rows other archivers
+     * already hold.
+     */
+    @Query(value = """
+            SELECT id FROM orders
+            WHERE status IN ('COMPLETED', 'CANCELLED') AND created_at < :createdBefore
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("createdBefore") LocalDateTime createdBefore, @Param("limit") int limit);
+
+    /**
+     * Deletes the orders together with their lines in one statement.
+     */
+    @Modifying(clearAutomatically = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders_products")
+    })
+    @Query(value = """
+            WITH deleted_lines AS (
+                DELETE FROM orders_products WHERE order_id IN (:ids)
+            )
+            DELETE FROM orders WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int deleteWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Creates the missing monthly partitions of orders and orders_products for the months in [fromMonth, toMonth).
+     *
+     * @return The number of months created.
+     */
+    @Query(value = "SELECT create_order_partitions(:fromMonth, :toMonth)", nativeQuery = true)
+    int createPartitions(@Param("fromMonth") LocalDate fromMonth, @Param("toMonth") LocalDate toMonth);
+
+    /**
+     * Detaches the monthly partitions ending on or before the given month and moves them to the archive schema.
+     *
+     * @return The names of the detached orders partitions.
+     */
+    @Query(value = "SELECT detach_order_partitions(:beforeMonth)", nativeQuery = true)
+    List<String> detachPartitionsBefore(@Param("beforeMonth") LocalDate beforeMonth);
+
 }
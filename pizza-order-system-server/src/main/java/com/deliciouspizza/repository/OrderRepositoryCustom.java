@@ -0,0 +1,16 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.model.order.OrderTotals;
+
+import java.math.BigDecimal;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Adds the deltas to the stored totals of an order in a single statement. Concurrent line changes of
+     * the same order are serialized by the row lock of the update, so no delta is lost.
+     *
+     * @return The totals after the update.
+     */
+    OrderTotals applyTotalsDelta(long orderId, BigDecimal subtotalDelta, int itemCountDelta, int lineCountDelta);
+}
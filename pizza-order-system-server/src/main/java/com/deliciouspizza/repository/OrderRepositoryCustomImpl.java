@@ -0,0 +1,46 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.exception.OrderNotFoundException;
+import com.deliciouspizza.model.order.OrderTotals;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final String APPLY_TOTALS_DELTA = """
+            UPDATE orders
+            SET subtotal = subtotal + :subtotalDelta,
+                item_count = item_count + :itemCountDelta,
+                line_count = line_count + :lineCountDelta
+            WHERE id = :orderId
+            RETURNING subtotal, item_count, line_count
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public OrderTotals applyTotalsDelta(long orderId, BigDecimal subtotalDelta, int itemCountDelta, int lineCountDelta) {
+        List<?> rows = entityManager.createNativeQuery(APPLY_TOTALS_DELTA)
+                .setParameter("orderId", orderId)
+                .setParameter("subtotalDelta", subtotalDelta)
+                .setParameter("itemCountDelta", itemCountDelta)
+                .setParameter("lineCountDelta", lineCountDelta)
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            throw new OrderNotFoundException("Id: " + orderId);
+        }
+
+        Object[] row = (Object[]) rows.getFirst();
+
+        return new OrderTotals(
+                (BigDecimal) row[0],
+                ((Number) row[1]).intValue(),
+                ((Number) row[2]).intValue()
+        );
+    }
+}
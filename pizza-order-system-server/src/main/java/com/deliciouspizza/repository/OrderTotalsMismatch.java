@@ -0,0 +1,23 @@
+package com.deliciouspizza.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of an order whose stored totals differ from the totals of its lines.
+ */
+public interface OrderTotalsMismatch {
+
+    long getOrderId();
+
+    BigDecimal getStoredSubtotal();
+
+    int getStoredItemCount();
+
+    int getStoredLineCount();
+
+    BigDecimal getActualSubtotal();
+
+    long getActualItemCount();
+
+    long getActualLineCount();
+}
@@ -0,0 +1,47 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.model.outbox.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the next batch of due events, skipping rows locked by other relay instances.
+     * <p>
+     * Only the oldest unpublished event of each order is eligible: a later event waits until every earlier
+     * one is published, even if an earlier one is locked by another instance or waiting for a retry.
+     * That keeps delivery ordered per order id across instances.
+     * </p>
+     *
+     * @param limit The maximum number of events to lock.
+     * @return The locked events, oldest first.
+     */
+    @Query(value = """
+            SELECT e.* FROM outbox_events e
+            WHERE e.published_at IS NULL
+              AND e.available_at <= now()
+              AND NOT EXISTS (
+                  SELECT 1 FROM outbox_events earlier
+                  WHERE earlier.aggregate_id = e.aggregate_id
+                    AND earlier.published_at IS NULL
+                    AND earlier.id < e.id
+              )
+            ORDER BY e.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.publishedAt IS NULL")
+    long countUnpublished();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,123 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.dto.product.ProductFilterDto;
+import com.deliciouspizza.model.product.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Searches products in Postgres through the search_vector column and its GIN index, and the trigram index
+ * on name for misspelled words, combined with the predicates of {@link ProductFilterDto}.
+ * <p>
+ * Every word of the query has to match a name or description word or its start. A product whose name is
+ * similar enough to the query matches as well, which is what catches typos. Name matches rank first.
+ * </p>
+ */
+@Repository
+public class ProductFullTextSearchRepository {
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // The trigram operator <% compares the query with the most similar part of the name
+    private static final String SEARCH = """
+            SELECT p.* FROM products p
+            WHERE (p.search_vector @@ to_tsquery('simple', :tsQuery) OR :text <% p.name)
+            """;
+
+    private static final String ORDER = """
+            ORDER BY ts_rank(p.search_vector, to_tsquery('simple', :tsQuery)) + word_similarity(:text, p.name) DESC, p.id
+            LIMIT :limit
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param filter Optional; the same predicates as the product list.
+     * @return At most {@code limit} products, best match first; none if the text has no words.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Product> search(String text, ProductFilterDto filter, int limit) {
+        String tsQuery = toPrefixQuery(text);
+
+        if (tsQuery.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder(SEARCH);
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (filter != null) {
+            if (filter.getCategory() != null) {
+                sql.append("AND p.category = :category ");
+                parameters.put("category", filter.getCategory().name());
+            }
+
+            if (filter.getStatus() != null) {
+                sql.append("AND p.status = :status ");
+                parameters.put("status", filter.getStatus().name());
+            }
+
+            if (filter.getSize() != null) {
+                sql.append("AND p.capacity = :size ");
+                parameters.put("size", filter.getSize().name());
+            }
+
+            if (filter.getActive() != null) {
+                sql.append("AND p.is_active = :active ");
+                parameters.put("active", filter.getActive());
+            }
+
+            if (filter.getMinPrice() != null) {
+                sql.append("AND p.price >= :minPrice ");
+                parameters.put("minPrice", filter.getMinPrice());
+            }
+
+            if (filter.getMaxPrice() != null) {
+                sql.append("AND p.price <= :maxPrice ");
+                parameters.put("maxPrice", filter.getMaxPrice());
+            }
+        }
+
+        sql.append(ORDER);
+
+        // With the entity as result class, pending product changes are flushed before the query
+        Query query = entityManager.createNativeQuery(sql.toString(), Product.class)
+                .setParameter("tsQuery", tsQuery)
+                .setParameter("text", text)
+                .setParameter("limit", limit);
+
+        parameters.forEach(query::setParameter);
+
+        return query.getResultList();
+    }
+
+    /**
+     * Turns text into a tsquery matching every word as a prefix, for example "marg pep" into
+     * "marg:* &amp; pep:*". Only letters and digits are kept, so the result is always valid tsquery syntax.
+     */
+    static String toPrefixQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        List<String> terms = new ArrayList<>();
+
+        for (String word : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                terms.add(word + ":*");
+            }
+        }
+
+        return String.join(" & ", terms);
+    }
+}
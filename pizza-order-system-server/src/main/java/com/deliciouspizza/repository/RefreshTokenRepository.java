@@ -0,0 +1,40 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.model.token.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks a token as used only if nobody has used or revoked it yet.
+     * Two concurrent refreshes with the same token cannot both succeed.
+     *
+     * @param id  The id of the refresh token.
+     * @param now The current time.
+     * @return 1 if this call consumed the token, 0 if it was already used or revoked.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL AND t.revokedAt IS NULL")
+    int markUsed(@Param("id") long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") UUID familyId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.userId = :userId AND t.revokedAt IS NULL")
+    int revokeAllByUserId(@Param("userId") long userId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
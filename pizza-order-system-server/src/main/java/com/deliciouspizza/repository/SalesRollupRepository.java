@@ -0,0 +1,207 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.dto.analytics.SalesBucketDto;
+import com.deliciouspizza.dto.analytics.SalesGranularity;
+import com.deliciouspizza.dto.analytics.SalesGrouping;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Reads and maintains the sales_hourly and sales_daily rollups.
+ * <p>
+ * Completing an order adds its lines to both rollups in the completing transaction. A rebuild overwrites
+ * a day-aligned range from the lines. Both hold a transaction-scoped advisory lock per day they write: a
+ * rebuild waits for completions of its days that are still open and then reads them, and a completion that
+ * starts during a rebuild waits for it and adds its lines on top. Without the lock, a rebuild that read the
+ * lines before a completion committed would overwrite the completion's addition with the older sums.
+ * </p>
+ */
+@Repository
+public class SalesRollupRepository {
+
+    /**
+     * The first key of the day locks, which keeps them apart from other advisory locks; the second key is
+     * the day, counted from 2000-01-01.
+     */
+    private static final int DAY_LOCK_NAMESPACE = 4401;
+
+    private static final LocalDate LOCK_EPOCH = LocalDate.of(2000, 1, 1);
+
+    // Functions in FROM run once per row of the items before them, so this locks the day of the order only
+    private static final String LOCK_DAY_OF_ORDER = """
+            SELECT COUNT(*)
+            FROM orders o, pg_advisory_xact_lock(:namespace, o.created_at::DATE - DATE '2000-01-01')
+            WHERE o.id = :orderId
+            """;
+
+    // In ascending order, so two rebuilds of overlapping ranges cannot deadlock
+    private static final String LOCK_DAYS = """
+            SELECT COUNT(*)
+            FROM generate_series(:fromDay, :toDay - 1) AS days(day_number), pg_advisory_xact_lock(:namespace, day_number)
+            """;
+
+    private static final String LINES_OF_ORDER = """
+            FROM orders o
+            JOIN orders_products op ON op.order_id = o.id AND op.order_created_at = o.created_at
+            JOIN products p ON p.id = op.product_id
+            """;
+
+    private static final String ADD_ORDER_HOURLY = """
+            INSERT INTO sales_hourly (bucket_start, product_id, category, quantity, revenue)
+            SELECT date_trunc('hour', o.created_at), p.id, p.category, op.quantity, op.quantity * op.price_at_order_time
+            """ + LINES_OF_ORDER + """
+            WHERE o.id = :orderId
+            ON CONFLICT ON CONSTRAINT pk_sales_hourly
+            DO UPDATE SET quantity = sales_hourly.quantity + EXCLUDED.quantity,
+                          revenue = sales_hourly.revenue + EXCLUDED.revenue
+            """;
+
+    private static final String ADD_ORDER_DAILY = """
+            INSERT INTO sales_daily (bucket_date, product_id, category, quantity, revenue)
+            SELECT o.created_at::DATE, p.id, p.category, op.quantity, op.quantity * op.price_at_order_time
+            """ + LINES_OF_ORDER + """
+            WHERE o.id = :orderId
+            ON CONFLICT ON CONSTRAINT pk_sales_daily
+            DO UPDATE SET quantity = sales_daily.quantity + EXCLUDED.quantity,
+                          revenue = sales_daily.revenue + EXCLUDED.revenue
+            """;
+
+    private static final String REBUILD_HOURLY = """
+            INSERT INTO sales_hourly (bucket_start, product_id, category, quantity, revenue)
+            SELECT date_trunc('hour', o.created_at), p.id, p.category, SUM(op.quantity), SUM(op.quantity * op.price_at_order_time)
+            """ + LINES_OF_ORDER + """
+            WHERE o.status = 'COMPLETED' AND o.created_at >= :from AND o.created_at < :to
+            GROUP BY 1, 2, 3
+            ON CONFLICT ON CONSTRAINT pk_sales_hourly
+            DO UPDATE SET category = EXCLUDED.category, quantity = EXCLUDED.quantity, revenue = EXCLUDED.revenue
+            """;
+
+    private static final String REBUILD_DAILY = """
+            INSERT INTO sales_daily (bucket_date, product_id, category, quantity, revenue)
+            SELECT o.created_at::DATE, p.id, p.category, SUM(op.quantity), SUM(op.quantity * op.price_at_order_time)
+            """ + LINES_OF_ORDER + """
+            WHERE o.status = 'COMPLETED' AND o.created_at >= :from AND o.created_at < :to
+            GROUP BY 1, 2, 3
+            ON CONFLICT ON CONSTRAINT pk_sales_daily
+            DO UPDATE SET category = EXCLUDED.category, quantity = EXCLUDED.quantity, revenue = EXCLUDED.revenue
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Adds the lines of a just completed order to both rollups. Must run in the transaction that completes it.
+     */
+    public void addOrder(long orderId) {
+        entityManager.createNativeQuery(LOCK_DAY_OF_ORDER)
+                .setParameter("namespace", DAY_LOCK_NAMESPACE)
+                .setParameter("orderId", orderId)
+                .getSingleResult();
+
+        // Naming the tables keeps Hibernate from treating the statements as a change to every cached entity
+        entityManager.createNativeQuery(ADD_ORDER_HOURLY)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "sales_hourly")
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+        entityManager.createNativeQuery(ADD_ORDER_DAILY)
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "sales_daily")
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+    }
+
+    /**
+     * Recomputes both rollups for the days in [from, to) from the lines of the completed orders. Must run
+     * in a read committed transaction, so the statements after the day locks see what their holders committed.
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        LocalDateTime fromTime = from.atStartOfDay();
+        LocalDateTime toTime = to.atStartOfDay();
+
+        entityManager.createNativeQuery(LOCK_DAYS)
+                .setParameter("namespace", DAY_LOCK_NAMESPACE)
+                .setParameter("fromDay", (int) ChronoUnit.DAYS.between(LOCK_EPOCH, from))
+                .setParameter("toDay", (int) ChronoUnit.DAYS.between(LOCK_EPOCH, to))
+                .getSingleResult();
+
+        entityManager.createNativeQuery("DELETE FROM sales_hourly WHERE bucket_start >= :from AND bucket_start < :to")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "sales_hourly")
+                .setParameter("from", fromTime)
+                .setParameter("to", toTime)
+                .executeUpdate();
+
+        entityManager.createNativeQuery("DELETE FROM sales_daily WHERE bucket_date >= :from AND bucket_date < :to")
+                .setHint(HibernateHints.HINT_NATIVE_SPACES, "sales_daily")
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .executeUpdate();
+
+        for (String rebuild : List.of(REBUILD_HOURLY, REBUILD_DAILY)) {
+            entityManager.createNativeQuery(rebuild)
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, List.of("sales_hourly", "sales_daily"))
+                    .setParameter("from", fromTime)
+                    .setParameter("to", toTime)
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * @param from The start of the range, inclusive.
+     * @param to   The end of the range, exclusive.
+     * @return One row per bucket and group, in bucket order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<SalesBucketDto> findSales(SalesGranularity granularity, SalesGrouping grouping, LocalDateTime from, LocalDateTime to) {
+        String bucket = granularity == SalesGranularity.HOUR ? "r.bucket_start" : "r.bucket_date::TIMESTAMP";
+        String table = granularity == SalesGranularity.HOUR ? "sales_hourly" : "sales_daily";
+        String rangeColumn = granularity == SalesGranularity.HOUR ? "r.bucket_start" : "r.bucket_date";
+
+        String columns = switch (grouping) {
+            case PRODUCT -> "r.product_id, p.name, r.category";
+            case CATEGORY -> "NULL, NULL, r.category";
+            case TOTAL -> "NULL, NULL, NULL";
+        };
+
+        String groupBy = switch (grouping) {
+            case PRODUCT -> ", r.product_id, p.name, r.category";
+            case CATEGORY -> ", r.category";
+            case TOTAL -> "";
+        };
+
+        String join = grouping == SalesGrouping.PRODUCT ? "JOIN products p ON p.id = r.product_id " : "";
+
+        String sql = "SELECT " + bucket + ", " + columns + ", SUM(r.quantity), SUM(r.revenue) "
+                + "FROM " + table + " r " + join
+                + "WHERE " + rangeColumn + " >= :from AND " + rangeColumn + " < :to "
+                + "GROUP BY " + bucket + groupBy + " "
+                + "ORDER BY 1, 4, 2";
+
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+                .setParameter("from", granularity == SalesGranularity.HOUR ? from : from.toLocalDate())
+                .setParameter("to", granularity == SalesGranularity.HOUR ? to : to.toLocalDate())
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> new SalesBucketDto(
+                        toLocalDateTime(row[0]),
+                        row[1] == null ? null : ((Number) row[1]).longValue(),
+                        (String) row[2],
+                        (String) row[3],
+                        ((Number) row[4]).longValue(),
+                        (BigDecimal) row[5]
+                ))
+                .toList();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
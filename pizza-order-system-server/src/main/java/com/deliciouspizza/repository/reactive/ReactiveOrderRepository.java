@@ -0,0 +1,135 @@
+package com.deliciouspizza.repository.reactive;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order_product.OrderProductResponseDto;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads orders with their items over R2DBC.
+ * <p>
+ * Orders and items come from one join ordered by order id, so the rows of an order are adjacent and can be
+ * grouped while streaming. Rows are fetched from a cursor in batches of {@code reactive.r2dbc.fetch-size},
+ * so a slow client slows down the query instead of buffering the whole result.
+ * </p>
+ */
+@Repository
+public class ReactiveOrderRepository {
+
+    private static final String SELECT_ORDERS_WITH_ITEMS = """
+            SELECT o.id, o.status, o.user_id, o.address, o.created_at, o.updated_at,
+                   o.subtotal, o.item_count, o.line_count,
+                   op.product_id, p.name AS product_name, op.quantity, op.price_at_order_time
+            FROM orders o
+            LEFT JOIN orders_products op ON op.order_id = o.id
+            LEFT JOIN products p ON p.id = op.product_id
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveOrderRepository(
+            DatabaseClient databaseClient,
+            @Value("${reactive.r2dbc.fetch-size:64}") int fetchSize
+    ) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<OrderResponseDto> findById(long id) {
+        return databaseClient.sql(SELECT_ORDERS_WITH_ITEMS + "WHERE o.id = :id ORDER BY op.id")
+                .bind("id", id)
+                .map(ReactiveOrderRepository::mapRow)
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(ReactiveOrderRepository::toOrder);
+    }
+
+    public Flux<OrderResponseDto> findByUserId(long userId) {
+        return databaseClient.sql(SELECT_ORDERS_WITH_ITEMS + "WHERE o.user_id = :userId ORDER BY o.id, op.id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("userId", userId)
+                .map(ReactiveOrderRepository::mapRow)
+                .all()
+                .bufferUntilChanged(OrderItemRow::orderId)
+                .map(ReactiveOrderRepository::toOrder);
+    }
+
+    private static OrderItemRow mapRow(Readable row) {
+        Number productId = row.get("product_id", Number.class);
+
+        return new OrderItemRow(
+                row.get("id", Number.class).longValue(),
+                row.get("status", String.class),
+                row.get("user_id", Number.class).longValue(),
+                row.get("address", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("subtotal", BigDecimal.class),
+                row.get("item_count", Integer.class),
+                row.get("line_count", Integer.class),
+                productId == null ? null : productId.longValue(),
+                row.get("product_name", String.class),
+                row.get("quantity", Integer.class),
+                row.get("price_at_order_time", BigDecimal.class)
+        );
+    }
+
+    private static OrderResponseDto toOrder(List<OrderItemRow> rows) {
+        OrderItemRow first = rows.getFirst();
+        List<OrderProductResponseDto> items = new ArrayList<>(rows.size());
+
+        for (OrderItemRow row : rows) {
+            // Orders without items produce a single row with null item columns
+            if (row.productId() != null) {
+                items.add(new OrderProductResponseDto(
+                        row.orderId(),
+                        row.productId(),
+                        row.productName(),
+                        row.quantity(),
+                        row.priceAtOrderTime()
+                ));
+            }
+        }
+
+        return new OrderResponseDto(
+                first.orderId(),
+                first.status(),
+                first.userId(),
+                first.address(),
+                first.createdAt(),
+                first.updatedAt(),
+                items,
+                first.subtotal(),
+                first.itemCount(),
+                first.lineCount()
+        );
+    }
+
+    private record OrderItemRow(
+            long orderId,
+            String status,
+            long userId,
+            String address,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            BigDecimal subtotal,
+            int itemCount,
+            int lineCount,
+            Long productId,
+            String productName,
+            Integer quantity,
+            BigDecimal priceAtOrderTime
+    ) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.deliciouspizza.repository.reactive;
+
+import com.deliciouspizza.dto.product.ProductFilterDto;
+import com.deliciouspizza.dto.product.ProductResponseDto;
+import com.deliciouspizza.model.product.ProductCategory;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the product catalog over R2DBC with the same filters as ProductService. The image itself is never
+ * fetched, only whether there is one.
+ */
+@Repository
+public class ReactiveProductRepository {
+
+    private static final String SELECT_PRODUCTS = """
+            SELECT id, name, description, status, category, capacity, alcoholic, price, is_active, total_amount,
+                   created_at, updated_at, has_image
+            FROM products
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveProductRepository(
+            DatabaseClient databaseClient,
+            @Value("${reactive.r2dbc.fetch-size:64}") int fetchSize
+    ) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<ProductResponseDto> findById(long id) {
+        return databaseClient.sql(SELECT_PRODUCTS + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::mapRow)
+                .one();
+    }
+
+    public Flux<ProductResponseDto> findAll(ProductFilterDto filterDto) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        if (filterDto != null) {
+            addCondition(conditions, parameters, "category = :category", "category", filterDto.getCategory());
+            addCondition(conditions, parameters, "status = :status", "status", filterDto.getStatus());
+            addCondition(conditions, parameters, "capacity = :size", "size", filterDto.getSize());
+            addCondition(conditions, parameters, "is_active = :active", "active", filterDto.getActive());
+            addCondition(conditions, parameters, "price >= :minPrice", "minPrice", filterDto.getMinPrice());
+            addCondition(conditions, parameters, "price <= :maxPrice", "maxPrice", filterDto.getMaxPrice());
+        }
+
+        String sql = SELECT_PRODUCTS
+                + (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ")
+                + "ORDER BY id";
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(fetchSize));
+
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+
+        return spec.map(ReactiveProductRepository::mapRow).all();
+    }
+
+    private static void addCondition(List<String> conditions, Map<String, Object> parameters,
+                                     String condition, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+
+        conditions.add(condition);
+        // Enums are stored by name, as with @Enumerated(EnumType.STRING)
+        parameters.put(name, value instanceof Enum<?> constant ? constant.name() : value);
+    }
+
+    private static ProductResponseDto mapRow(Readable row) {
+        ProductResponseDto dto = new ProductResponseDto();
+        String capacity = row.get("capacity", String.class);
+
+        dto.setId(row.get("id", Number.class).longValue());
+        dto.setCategory(ProductCategory.valueOf(row.get("category", String.class)));
+        dto.setStatus(ProductStatus.valueOf(row.get("status", String.class)));
+        dto.setSize(capacity == null ? null : ProductSize.valueOf(capacity));
+        dto.setPrice(row.get("price", BigDecimal.class));
+        dto.setActive(row.get("is_active", Boolean.class));
+        dto.setTotalAmount(row.get("total_amount", BigDecimal.class));
+        // The columns are TIMESTAMP; Hibernate writes the Instant fields in the JVM time zone
+        dto.setCreatedAt(toInstant(row.get("created_at", LocalDateTime.class)));
+        dto.setUpdatedAt(toInstant(row.get("updated_at", LocalDateTime.class)));
+        dto.setName(row.get("name", String.class));
+        dto.setDescription(row.get("description", String.class));
+        dto.setIsAlcoholic(row.get("alcoholic", Boolean.class));
+        dto.setHasImage(row.get("has_image", Boolean.class));
+
+        return dto;
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
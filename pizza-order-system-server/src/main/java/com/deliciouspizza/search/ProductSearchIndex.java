@@ -0,0 +1,530 @@
+package com.deliciouspizza.search;
+
+import com.deliciouspizza.dto.product.ProductResponseDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the names and descriptions of the products.
+ * <p>
+ * Text is split into lowercase terms and every term maps to the products containing it, with a bit per
+ * field it occurs in. A query term matches index terms exactly and by prefix; if it matches neither, it
+ * matches by trigram similarity, which tolerates typos. The vocabulary itself is indexed by trigrams, so
+ * similar terms are found without comparing the query against every term. A product must match every
+ * query term and is ranked by how closely and in which field each one matched.
+ * </p>
+ * <p>
+ * Products are numbered with dense slots and postings are primitive arrays of slots, so a search scans
+ * arrays and scores into per-thread scratch arrays instead of allocating a map entry per candidate.
+ * Searches share a read lock; a change replaces the postings of one product under the write lock.
+ * </p>
+ */
+@Component
+public class ProductSearchIndex {
+
+    static final int NAME = 1;
+    static final int DESCRIPTION = 2;
+
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private static final double EXACT_SCORE = 1.0;
+    private static final double PREFIX_SCORE = 0.75;
+    private static final double FUZZY_SCORE = 0.5;
+
+    // Same default threshold as pg_trgm's similarity operator
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    // Bounds the work of short prefixes and vague typos
+    private static final int MAX_EXPANSIONS = 64;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All guarded by lock
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final List<Integer> freeSlots = new ArrayList<>();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * @param score Higher is better; only comparable between hits of the same query.
+     */
+    public record Hit(ProductResponseDto product, double score) {
+    }
+
+    private record Document(ProductResponseDto product, Set<String> terms) {
+    }
+
+    private record TermMatch(Postings postings, double score) {
+    }
+
+    /**
+     * Replaces the whole index with the given products.
+     */
+    public void replaceAll(Collection<ProductResponseDto> products) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            slotsById.clear();
+            freeSlots.clear();
+            postings.clear();
+            termsByTrigram.clear();
+
+            for (ProductResponseDto product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a product, or replaces the indexed version of it.
+     */
+    public void put(ProductResponseDto product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return At most {@code limit} products matching every term of the query, best first.
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> queryTerms = tokenize(query);
+
+        if (queryTerms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<TermMatch>> matchesPerTerm = new ArrayList<>();
+
+            for (String queryTerm : queryTerms) {
+                List<TermMatch> matches = expand(queryTerm);
+
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+
+                matchesPerTerm.add(matches);
+            }
+
+            // Starting from the rarest query term keeps the candidate set as small as it gets
+            matchesPerTerm.sort(Comparator.comparingInt(ProductSearchIndex::postingCount));
+
+            Scratch buffers = scratch.get();
+            buffers.ensureCapacity(documents.size());
+
+            int candidates = collectCandidates(matchesPerTerm.getFirst(), buffers);
+
+            for (List<TermMatch> matches : matchesPerTerm.subList(1, matchesPerTerm.size())) {
+                candidates = narrowCandidates(matches, buffers, candidates);
+            }
+
+            return top(buffers, candidates, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int collectCandidates(List<TermMatch> matches, Scratch buffers) {
+        int generation = buffers.nextGeneration();
+        int candidates = 0;
+
+        for (TermMatch match : matches) {
+            Postings termPostings = match.postings();
+
+            for (int i = 0; i < termPostings.size; i++) {
+                int slot = termPostings.slots[i];
+                double score = match.score() * weight(termPostings.fields[i]);
+
+                if (buffers.stamps[slot] != generation) {
+                    buffers.stamps[slot] = generation;
+                    buffers.scores[slot] = score;
+                    buffers.candidates[candidates++] = slot;
+                } else if (score > buffers.scores[slot]) {
+                    buffers.scores[slot] = score;
+                }
+            }
+        }
+
+        buffers.candidateGeneration = generation;
+
+        return candidates;
+    }
+
+    /**
+     * Adds the best score of the next query term to each candidate and drops candidates it does not match.
+     */
+    private int narrowCandidates(List<TermMatch> matches, Scratch buffers, int candidates) {
+        int candidateGeneration = buffers.candidateGeneration;
+        int generation = buffers.nextGeneration();
+
+        for (TermMatch match : matches) {
+            Postings termPostings = match.postings();
+
+            for (int i = 0; i < termPostings.size; i++) {
+                int slot = termPostings.slots[i];
+
+                if (buffers.stamps[slot] != candidateGeneration && buffers.stamps[slot] != generation) {
+                    continue;
+                }
+
+                double score = match.score() * weight(termPostings.fields[i]);
+
+                if (buffers.stamps[slot] == candidateGeneration) {
+                    buffers.stamps[slot] = generation;
+                    buffers.termScores[slot] = score;
+                } else if (score > buffers.termScores[slot]) {
+                    buffers.termScores[slot] = score;
+                }
+            }
+        }
+
+        int kept = 0;
+
+        for (int i = 0; i < candidates; i++) {
+            int slot = buffers.candidates[i];
+
+            if (buffers.stamps[slot] == generation) {
+                buffers.scores[slot] += buffers.termScores[slot];
+                buffers.candidates[kept++] = slot;
+            }
+        }
+
+        buffers.candidateGeneration = generation;
+
+        return kept;
+    }
+
+    private List<Hit> top(Scratch buffers, int candidates, int limit) {
+        double[] scores = buffers.scores;
+
+        // Worst on top: lower score, then the later slot
+        Comparator<Integer> worstFirst = (a, b) -> scores[a] != scores[b]
+                ? Double.compare(scores[a], scores[b])
+                : Integer.compare(b, a);
+
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, candidates) + 1, worstFirst);
+
+        for (int i = 0; i < candidates; i++) {
+            int slot = buffers.candidates[i];
+
+            if (best.size() < limit) {
+                best.add(slot);
+            } else if (worstFirst.compare(slot, best.peek()) > 0) {
+                best.poll();
+                best.add(slot);
+            }
+        }
+
+        Hit[] hits = new Hit[best.size()];
+
+        for (int i = hits.length - 1; i >= 0; i--) {
+            int slot = best.poll();
+            hits[i] = new Hit(documents.get(slot).product(), scores[slot]);
+        }
+
+        return List.of(hits);
+    }
+
+    private List<TermMatch> expand(String queryTerm) {
+        List<TermMatch> matches = new ArrayList<>();
+
+        Postings exact = postings.get(queryTerm);
+        if (exact != null) {
+            matches.add(new TermMatch(exact, EXACT_SCORE));
+        }
+
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            for (Postings prefixed : mostFrequentWithPrefix(queryTerm, MAX_EXPANSIONS - matches.size())) {
+                matches.add(new TermMatch(prefixed, PREFIX_SCORE));
+            }
+        }
+
+        if (matches.isEmpty() && queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            matches.addAll(similarTerms(queryTerm));
+        }
+
+        return matches;
+    }
+
+    /**
+     * The postings of the {@code limit} longer terms starting with the prefix that occur in the most
+     * products, so a short prefix completes to the common words rather than to the alphabetically first
+     * ones. Ties go to the alphabetically first term.
+     */
+    private List<Postings> mostFrequentWithPrefix(String prefix, int limit) {
+        NavigableMap<String, Postings> prefixed = postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false);
+
+        if (prefixed.size() <= limit) {
+            return List.copyOf(prefixed.values());
+        }
+
+        // Worst on top: fewer products, then the later term
+        Comparator<Map.Entry<String, Postings>> worstFirst = Comparator
+                .comparingInt((Map.Entry<String, Postings> entry) -> entry.getValue().size)
+                .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+
+        PriorityQueue<Map.Entry<String, Postings>> best = new PriorityQueue<>(limit + 1, worstFirst);
+
+        for (Map.Entry<String, Postings> entry : prefixed.entrySet()) {
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (worstFirst.compare(entry, best.peek()) > 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+
+        return best.stream().map(Map.Entry::getValue).toList();
+    }
+
+    private List<TermMatch> similarTerms(String queryTerm) {
+        Set<String> queryTrigrams = trigrams(queryTerm);
+        Map<String, Integer> shared = new HashMap<>();
+
+        for (String trigram : queryTrigrams) {
+            for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        List<TermMatch> matches = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            int common = candidate.getValue();
+            double similarity = (double) common / (queryTrigrams.size() + trigrams(candidate.getKey()).size() - common);
+
+            if (similarity >= MIN_SIMILARITY) {
+                matches.add(new TermMatch(postings.get(candidate.getKey()), FUZZY_SCORE * similarity));
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble(TermMatch::score).reversed());
+
+        return matches.size() > MAX_EXPANSIONS ? matches.subList(0, MAX_EXPANSIONS) : matches;
+    }
+
+    private static int postingCount(List<TermMatch> matches) {
+        int count = 0;
+
+        for (TermMatch match : matches) {
+            count += match.postings().size;
+        }
+
+        return count;
+    }
+
+    private static double weight(int fields) {
+        return (fields & NAME) != 0 ? NAME_WEIGHT : DESCRIPTION_WEIGHT;
+    }
+
+    private void add(ProductResponseDto product) {
+        Map<String, Integer> fieldsByTerm = new HashMap<>();
+
+        for (String term : tokenize(product.getName())) {
+            fieldsByTerm.merge(term, NAME, (a, b) -> a | b);
+        }
+
+        for (String term : tokenize(product.getDescription())) {
+            fieldsByTerm.merge(term, DESCRIPTION, (a, b) -> a | b);
+        }
+
+        Document document = new Document(product, Set.copyOf(fieldsByTerm.keySet()));
+        int slot;
+
+        if (freeSlots.isEmpty()) {
+            slot = documents.size();
+            documents.add(document);
+        } else {
+            slot = freeSlots.removeLast();
+            documents.set(slot, document);
+        }
+
+        slotsById.put(product.getId(), slot);
+
+        for (Map.Entry<String, Integer> entry : fieldsByTerm.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> {
+                for (String trigram : trigrams(term)) {
+                    termsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(term);
+                }
+                return new Postings();
+            }).add(slot, entry.getValue());
+        }
+    }
+
+    private void removeDocument(long productId) {
+        Integer slot = slotsById.remove(productId);
+
+        if (slot == null) {
+            return;
+        }
+
+        Document document = documents.set(slot, null);
+        freeSlots.add(slot);
+
+        for (String term : document.terms()) {
+            Postings termPostings = postings.get(term);
+            termPostings.remove(slot);
+
+            if (termPostings.size == 0) {
+                postings.remove(term);
+
+                for (String trigram : trigrams(term)) {
+                    Set<String> terms = termsByTrigram.get(trigram);
+                    terms.remove(term);
+
+                    if (terms.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+
+        Set<String> terms = new LinkedHashSet<>();
+
+        for (String term : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+
+        return terms;
+    }
+
+    /**
+     * The trigrams of a term padded like pg_trgm does, two spaces in front and one behind, so short terms
+     * and word starts get trigrams of their own.
+     */
+    static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> trigrams = new HashSet<>();
+
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+
+        return trigrams;
+    }
+
+    /**
+     * The slots of the products containing a term, unordered, with the fields it occurs in.
+     */
+    private static final class Postings {
+
+        private int[] slots = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        private void add(int slot, int fieldBits) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+
+            slots[size] = slot;
+            fields[size] = (byte) fieldBits;
+            size++;
+        }
+
+        private void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    fields[i] = fields[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-thread score arrays indexed by slot. Entries are valid only where their stamp equals the current
+     * generation, so the arrays never need clearing between searches.
+     */
+    private static final class Scratch {
+
+        private int[] stamps = new int[0];
+        private double[] scores = new double[0];
+        private double[] termScores = new double[0];
+        private int[] candidates = new int[0];
+        private int generation;
+        private int candidateGeneration;
+
+        private void ensureCapacity(int slots) {
+            if (stamps.length < slots) {
+                int capacity = Math.max(slots, stamps.length + (stamps.length >> 1));
+                stamps = new int[capacity];
+                scores = new double[capacity];
+                termScores = new double[capacity];
+                candidates = new int[capacity];
+                generation = 0;
+            }
+        }
+
+        private int nextGeneration() {
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+            return generation;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.deliciouspizza.security;
+
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Decides whose orders a caller may read: customers their own, employees everyone's. Used in
+ * {@code @PreAuthorize} expressions as {@code @orderAccess} for endpoints that take a user id in the path,
+ * and directly by endpoints that have to load an order to know its customer.
+ */
+@Component
+public class OrderAccess {
+
+    private static final String EMPLOYEE_AUTHORITY = "ROLE_" + UserRole.EMPLOYEE.name();
+
+    private final UserRepository userRepository;
+
+    public OrderAccess(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @param authentication The caller; its name is the username.
+     * @param userId         The customer whose orders are requested.
+     */
+    public boolean canReadOrdersOf(Authentication authentication, long userId) {
+        return readableCustomers(authentication).test(userId);
+    }
+
+    /**
+     * Resolves the caller once, so the returned check can run inside a reactive pipeline without touching the
+     * database.
+     *
+     * @param authentication The caller; its name is the username.
+     * @return Tests whether the caller may read the orders of a customer, by user id.
+     */
+    public LongPredicate readableCustomers(Authentication authentication) {
+        if (authentication == null) {
+            return userId -> false;
+        }
+
+        // Employees are recognized from the token alone
+        if (authentication.getAuthorities().stream().anyMatch(authority -> EMPLOYEE_AUTHORITY.equals(authority.getAuthority()))) {
+            return userId -> true;
+        }
+
+        Long callerId = userRepository.findByUsername(authentication.getName()).map(User::getId).orElse(null);
+
+        return userId -> callerId != null && callerId == userId;
+    }
+}
@@ -1,11 +1,19 @@
 package com.deliciouspizza.security;
 
+import com.deliciouspizza.idempotency.IdempotencyService;
 import com.deliciouspizza.security.jwt.CustomUserDetailsService;
 import com.deliciouspizza.security.jwt.JwtAuthenticationFilter;
+import com.deliciouspizza.security.password.AdaptiveBCryptPasswordEncoder;
+import com.deliciouspizza.security.password.BCryptStrengthCalibrator;
+import com.deliciouspizza.security.ratelimit.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -15,14 +23,15 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -37,6 +46,21 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Value("${security.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${security.bcrypt.target-verification-ms:250}")
+    private long bcryptTargetVerificationMs;
+
+    @Value("${security.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+
+    @Value("${security.bcrypt.max-strength:16}")
+    private int bcryptMaxStrength;
+
     /**
      * Configures the SecurityFilterChain to permit all incoming HTTP requests.
      *
@@ -51,22 +75,67 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth ->
                         auth
-                                .requestMatchers(HttpMethod.POST, "/api/v1/users/login", "/api/v1/users/sign-up").permitAll()
+                                // Async dispatches of Mono/Flux results were authorized on the original request
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                .requestMatchers(HttpMethod.POST,
+                                        "/api/v1/users/login",
+                                        "/api/v1/users/sign-up",
+                                        "/api/v1/users/refresh",
+                                        "/api/v1/users/logout"
+                                ).permitAll()
+                                // Load balancer and orchestrator probes carry no token; details stay hidden
+                                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                                // Metrics such as cache hit rates are for staff
+                                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("EMPLOYEE")
                                 .anyRequest().authenticated()
 //                                .anyRequest().permitAll()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                // Missing or expired access tokens get 401 so clients know to refresh
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // After authentication so the limit can be keyed by user instead of address
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * The rate limit filter is a bean only to get its configuration injected; it must run inside the
+     * security chain, not a second time as a plain servlet filter.
+     *
+     * @param filter The rate limit filter.
+     * @return A disabled registration for the filter.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Creates the BCrypt encoder. Unless a fixed strength is configured, the cost is calibrated at startup
+     * so that a single verification takes roughly the configured target time on this hardware.
+     *
+     * @return A PasswordEncoder that flags hashes with a different cost for upgrade.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : BCryptStrengthCalibrator.calibrate(
+                        Duration.ofMillis(bcryptTargetVerificationMs),
+                        bcryptMinStrength,
+                        bcryptMaxStrength
+                );
+
+        return new AdaptiveBCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -94,7 +163,8 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
 
         // ALLOW AUTH HEADERS
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", IdempotencyService.IDEMPOTENCY_KEY_HEADER));
+        configuration.setExposedHeaders(List.of(IdempotencyService.REPLAYED_HEADER));
 
         // ALLOW CREDENTIALS (if needed, though mainly for cookies)
         configuration.setAllowCredentials(true);
@@ -0,0 +1,13 @@
+package com.deliciouspizza.security.jwt;
+
+import java.time.Instant;
+
+/**
+ * A freshly signed access token together with the claims the caller needs to track it.
+ *
+ * @param token     The compact JWT.
+ * @param tokenId   The jti claim.
+ * @param expiresAt The exp claim.
+ */
+public record IssuedAccessToken(String token, String tokenId, Instant expiresAt) {
+}
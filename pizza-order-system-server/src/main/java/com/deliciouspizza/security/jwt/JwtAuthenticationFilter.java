@@ -1,5 +1,9 @@
 package com.deliciouspizza.security.jwt;
 
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.security.jwt.revocation.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,21 +11,37 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+/**
+ * Authenticates requests from the access token alone: the signature, expiration and the in-memory
+ * revocation list are checked, but the user is never loaded from the database.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Authorities are immutable and shared, so authenticating a request does not allocate them
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES_BY_ROLE = Arrays.stream(UserRole.values())
+            .collect(Collectors.toUnmodifiableMap(
+                    Enum::name,
+                    role -> List.of(new SimpleGrantedAuthority("ROLE_" + role.name()))
+            ));
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(
@@ -31,31 +51,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        final Claims claims;
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        try {
+            claims = jwtService.parseAccessToken(authHeader.substring(BEARER_PREFIX.length()));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid or expired token: continue unauthenticated and let the entry point answer 401
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        if (claims.getSubject() != null && !tokenRevocationService.isRevoked(claims.getId())) {
+            String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+            List<GrantedAuthority> authorities = role == null ? List.of() : AUTHORITIES_BY_ROLE.getOrDefault(role, List.of());
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(claims.getSubject(), null, authorities)
+            );
         }
+
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
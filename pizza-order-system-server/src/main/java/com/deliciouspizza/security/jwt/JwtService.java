@@ -1,77 +1,75 @@
 package com.deliciouspizza.security.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
-    // Ideally, store this in application.properties: jwt.secret=...
-    // Must be 256-bit (32 chars) minimum for HS256
-    @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
-    private String SECRET_KEY;
+    public static final String ROLE_CLAIM = "role";
 
-    public String generateToken(UserDetails userDetails, String role) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", role);
-        return createToken(claims, userDetails.getUsername());
-    }
-
-    private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(10, TimeUnit.HOURS)))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final Duration accessTokenTtl;
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    public JwtService(
+            // Ideally, store this in application.properties: jwt.secret=...
+            // Must be 256-bit (32 chars) minimum for HS256
+            @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}") String secretKey,
+            @Value("${security.jwt.access-token-ttl-minutes:15}") long accessTokenTtlMinutes
+    ) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.accessTokenTtl = Duration.ofMinutes(accessTokenTtlMinutes);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+    /**
+     * Issues a short-lived access token carrying only what the request path needs to authorize a call:
+     * subject, role, token id and lifetime. Verifying it requires no database access.
+     *
+     * @param username The subject of the token.
+     * @param role     The role of the user, without the ROLE_ prefix.
+     * @return The signed token with its id and expiration time.
+     */
+    public IssuedAccessToken generateAccessToken(String username, String role) {
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(accessTokenTtl);
+        String tokenId = UUID.randomUUID().toString();
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+        String token = Jwts.builder()
+                .setId(tokenId)
+                .setSubject(username)
+                .claim(ROLE_CLAIM, role)
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return new IssuedAccessToken(token, tokenId, expiresAt);
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Verifies the signature and expiration of an access token and returns its claims.
+     *
+     * @param token The compact JWT.
+     * @return The claims of the token.
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, tampered with or expired.
+     */
+    public Claims parseAccessToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
-}
\ No newline at end of file
+}
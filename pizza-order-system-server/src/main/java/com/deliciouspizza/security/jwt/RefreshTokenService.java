@@ -0,0 +1,149 @@
+package com.deliciouspizza.security.jwt;
+
+import com.deliciouspizza.exception.InvalidRefreshTokenException;
+import com.deliciouspizza.model.token.RefreshToken;
+import com.deliciouspizza.repository.RefreshTokenRepository;
+import com.deliciouspizza.security.jwt.revocation.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ * <p>
+ * Each refresh consumes the presented token and returns a new one from the same family. Presenting a token
+ * that was already consumed means it was copied, so the whole family and the user's live access tokens are
+ * revoked. This is the only place where revocation state is read from the database.
+ * </p>
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = Logger.getLogger(RefreshTokenService.class.getName());
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            TokenRevocationService tokenRevocationService,
+            @Value("${security.jwt.refresh-token-ttl-days:14}") long refreshTokenTtlDays
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenTtl = Duration.ofDays(refreshTokenTtlDays);
+    }
+
+    /**
+     * Starts a new token family, e.g. on login.
+     *
+     * @param userId The id of the user.
+     * @return The raw refresh token to hand to the client.
+     */
+    @Transactional
+    public String issue(long userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Consumes a refresh token and issues its successor.
+     *
+     * @param rawToken The refresh token presented by the client.
+     * @return The user id the token belongs to and the new raw refresh token.
+     * @throws InvalidRefreshTokenException If the token is unknown, expired, revoked or was already used.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        Instant now = Instant.now();
+
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is not valid"));
+
+        if (token.getRevokedAt() != null || !token.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired or was revoked");
+        }
+
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            tokenRevocationService.revokeAllForUser(token.getUserId());
+
+            logger.warning("Refresh token reuse detected, revoked token family for user with id: " + token.getUserId());
+
+            throw new InvalidRefreshTokenException("Refresh token was already used");
+        }
+
+        return new Rotation(token.getUserId(), issue(token.getUserId(), token.getFamilyId()));
+    }
+
+    /**
+     * Revokes the family of the given token, e.g. on logout. Unknown tokens are ignored.
+     *
+     * @param rawToken The refresh token presented by the client.
+     */
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now()));
+    }
+
+    @Transactional
+    public void revokeAllForUser(long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, Instant.now());
+    }
+
+    @Scheduled(
+            fixedDelayString = "${security.jwt.revocation.compaction-interval-ms:300000}",
+            initialDelayString = "${security.jwt.revocation.compaction-interval-ms:300000}"
+    )
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+
+        logger.info("Deleted expired refresh tokens: " + deleted);
+    }
+
+    private String issue(long userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, userId, Instant.now().plus(refreshTokenTtl)));
+
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Result of a successful rotation.
+     *
+     * @param userId          The id of the user the token belongs to.
+     * @param newRefreshToken The raw successor token.
+     */
+    public record Rotation(long userId, String newRefreshToken) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.deliciouspizza.security.jwt.revocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over strings.
+ * <p>
+ * Lookups are lock-free and allocation-free: a value is hashed once into two 64-bit hashes and
+ * the remaining probe positions are derived by double hashing. Inserts set bits with CAS, so
+ * concurrent readers never block. Elements cannot be removed; callers rebuild a new filter instead.
+ * </p>
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * Creates a filter sized for the expected number of insertions at the requested false positive rate.
+     *
+     * @param expectedInsertions The number of elements the filter is sized for.
+     * @param falsePositiveRate  The acceptable probability of {@link #mightContain} returning a false positive.
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (optimalBits + 63) >>> 6);
+
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long h1 = fmix64(fnv1a64(value));
+        long h2 = fmix64(h1 ^ GOLDEN_RATIO) | 1;
+
+        for (int i = 0; i < hashFunctions; i++) {
+            setBit(Math.floorMod(h1 + i * h2, bitCount));
+        }
+    }
+
+    /**
+     * Checks whether the value may have been added.
+     *
+     * @param value The value to look up.
+     * @return {@code false} if the value was definitely never added, {@code true} if it probably was.
+     */
+    public boolean mightContain(String value) {
+        long h1 = fmix64(fnv1a64(value));
+        long h2 = fmix64(h1 ^ GOLDEN_RATIO) | 1;
+
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    // MurmurHash3 finalizer, spreads the FNV output over all 64 bits
+    private static long fmix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53e5a37L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,166 @@
+package com.deliciouspizza.security.jwt.revocation;
+
+import com.deliciouspizza.model.token.AccessToken;
+import com.deliciouspizza.repository.AccessTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Keeps track of revoked JWT ids.
+ * <p>
+ * Revocations are persisted in the {@code access_tokens} table and mirrored in memory as a Bloom filter
+ * backed by an exact set. The request path only calls {@link #isRevoked(String)}, which for the common
+ * "not revoked" case costs a few hash probes and never touches the database. Expired entries are purged
+ * periodically and the in-memory structures are rebuilt from the table, which also picks up revocations
+ * made by other instances.
+ * </p>
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = Logger.getLogger(TokenRevocationService.class.getName());
+
+    private final AccessTokenRepository accessTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final Object writeLock = new Object();
+    private volatile RevocationSet revoked;
+
+    public TokenRevocationService(
+            AccessTokenRepository accessTokenRepository,
+            @Value("${security.jwt.revocation.expected-revocations:100000}") int expectedRevocations,
+            @Value("${security.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.accessTokenRepository = accessTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.revoked = new RevocationSet(expectedRevocations, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void loadRevokedTokens() {
+        reload(Instant.now());
+    }
+
+    /**
+     * Checks whether a token id has been revoked. Lock-free and does not query the database.
+     *
+     * @param jti The token id from the JWT, may be null for tokens issued without one.
+     * @return true if the token was revoked and has not expired yet.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+
+        RevocationSet current = revoked;
+
+        return current.bloomFilter.mightContain(jti) && current.exact.containsKey(jti);
+    }
+
+    /**
+     * Records a newly issued token so it can later be revoked by user.
+     *
+     * @param jti       The token id.
+     * @param userId    The id of the user the token was issued to.
+     * @param expiresAt The expiration time of the token.
+     */
+    @Transactional
+    public void recordIssued(String jti, long userId, Instant expiresAt) {
+        accessTokenRepository.save(new AccessToken(jti, userId, expiresAt));
+    }
+
+    /**
+     * Revokes every live token issued to the user, e.g. when the user is deactivated.
+     * The in-memory set is updated immediately, so if the transaction rolls back the tokens stay revoked on
+     * this instance until they expire: a failure can only reject a token, never let a revoked one through.
+     *
+     * @param userId The id of the user.
+     * @return The number of revoked tokens.
+     */
+    @Transactional
+    public int revokeAllForUser(long userId) {
+        Instant now = Instant.now();
+        List<AccessToken> activeTokens = accessTokenRepository.findByUserIdAndRevokedAtIsNullAndExpiresAtAfter(userId, now);
+
+        for (AccessToken token : activeTokens) {
+            token.setRevokedAt(now);
+        }
+        accessTokenRepository.saveAll(activeTokens);
+
+        synchronized (writeLock) {
+            for (AccessToken token : activeTokens) {
+                revoked.add(token.getJti(), token.getExpiresAt());
+            }
+        }
+
+        logger.info(String.format("Revoked %d tokens for user with id: %d", activeTokens.size(), userId));
+
+        return activeTokens.size();
+    }
+
+    /**
+     * Deletes expired tokens and rebuilds the in-memory revocation set from the database.
+     * A fresh Bloom filter is needed because elements cannot be removed from an existing one.
+     */
+    @Scheduled(
+            fixedDelayString = "${security.jwt.revocation.compaction-interval-ms:300000}",
+            initialDelayString = "${security.jwt.revocation.compaction-interval-ms:300000}"
+    )
+    @Transactional
+    public void compact() {
+        Instant now = Instant.now();
+
+        int deleted = accessTokenRepository.deleteExpired(now);
+        int tracked = reload(now);
+
+        logger.info(String.format("Token revocation list compacted: %d expired tokens deleted, %d revoked tokens tracked",
+                deleted, tracked));
+    }
+
+    private int reload(Instant now) {
+        List<AccessToken> stillRevoked = accessTokenRepository.findByRevokedAtIsNotNullAndExpiresAtAfter(now);
+
+        RevocationSet rebuilt = new RevocationSet(Math.max(expectedRevocations, stillRevoked.size() * 2), falsePositiveRate);
+        for (AccessToken token : stillRevoked) {
+            rebuilt.add(token.getJti(), token.getExpiresAt());
+        }
+
+        synchronized (writeLock) {
+            // Keep revocations recorded in memory while the table was being read
+            revoked.exact.forEach((jti, expiresAt) -> {
+                if (expiresAt.isAfter(now)) {
+                    rebuilt.add(jti, expiresAt);
+                }
+            });
+            revoked = rebuilt;
+        }
+
+        return rebuilt.exact.size();
+    }
+
+    private static final class RevocationSet {
+
+        private final BloomFilter bloomFilter;
+        private final Map<String, Instant> exact = new ConcurrentHashMap<>();
+
+        private RevocationSet(int expectedInsertions, double falsePositiveRate) {
+            this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        }
+
+        private void add(String jti, Instant expiresAt) {
+            exact.put(jti, expiresAt);
+            bloomFilter.put(jti);
+        }
+    }
+}
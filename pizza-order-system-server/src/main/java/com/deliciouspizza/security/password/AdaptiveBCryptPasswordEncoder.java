@@ -0,0 +1,49 @@
+package com.deliciouspizza.security.password;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that reports any stored hash whose cost differs from the configured strength
+ * as needing an upgrade, so hashes follow the calibrated cost in both directions.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Returns the cost factor encoded in a BCrypt hash.
+     *
+     * @param encodedPassword The stored BCrypt hash.
+     * @return The cost factor, or -1 if the value is not a BCrypt hash.
+     */
+    public static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return -1;
+        }
+
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+
+        return matcher.matches() ? Integer.parseInt(matcher.group(2)) : -1;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int storedStrength = strengthOf(encodedPassword);
+
+        return storedStrength != -1 && storedStrength != strength;
+    }
+}
@@ -0,0 +1,82 @@
+package com.deliciouspizza.security.password;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+
+/**
+ * Picks the highest BCrypt cost whose verification time on the current hardware stays within a target.
+ * Every cost step doubles the work, so the search stops as soon as the next step would exceed the target.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger logger = Logger.getLogger(BCryptStrengthCalibrator.class.getName());
+
+    private static final int MIN_BCRYPT_STRENGTH = 4;
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+    private static final int SAMPLES_PER_STRENGTH = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Measures verification time for increasing costs and returns the highest cost within the target.
+     *
+     * @param targetVerificationTime The maximum acceptable time for a single password verification.
+     * @param minStrength            The lowest cost that may be returned, even on slow hardware.
+     * @param maxStrength            The highest cost that may be returned, even on fast hardware.
+     * @return The calibrated BCrypt cost.
+     * @throws IllegalArgumentException If the bounds are outside the range supported by BCrypt.
+     */
+    public static int calibrate(Duration targetVerificationTime, int minStrength, int maxStrength) {
+        if (minStrength < MIN_BCRYPT_STRENGTH || maxStrength > MAX_BCRYPT_STRENGTH || minStrength > maxStrength) {
+            throw new IllegalArgumentException(
+                    "Invalid BCrypt strength bounds: [" + minStrength + ", " + maxStrength + "]");
+        }
+
+        long targetNanos = targetVerificationTime.toNanos();
+
+        // Warm up the JIT so the first measured cost is not penalised
+        measureVerificationNanos(MIN_BCRYPT_STRENGTH);
+
+        int chosen = minStrength;
+
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long nanos = measureVerificationNanos(strength);
+
+            logger.info(String.format("BCrypt cost %d verifies in %.1f ms", strength, nanos / 1_000_000.0));
+
+            if (strength > minStrength && nanos > targetNanos) {
+                break;
+            }
+
+            chosen = strength;
+
+            if (nanos * 2 > targetNanos) {
+                break;
+            }
+        }
+
+        logger.info(String.format("Using BCrypt cost %d for a target verification time of %d ms",
+                chosen, targetVerificationTime.toMillis()));
+
+        return chosen;
+    }
+
+    private static long measureVerificationNanos(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < SAMPLES_PER_STRENGTH; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,38 @@
+package com.deliciouspizza.security.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Groups of endpoints that share a rate limit.
+ */
+public enum EndpointGroup {
+
+    /**
+     * Login, sign-up and token refresh. Expensive (BCrypt) and the usual brute-force target.
+     */
+    AUTH,
+
+    /**
+     * Any order mutation: creating orders, changing items, processing.
+     */
+    ORDER_WRITE,
+
+    DEFAULT;
+
+    public static EndpointGroup resolve(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+
+        if ("POST".equals(method) && (uri.equals("/api/v1/users/login")
+                || uri.equals("/api/v1/users/sign-up")
+                || uri.equals("/api/v1/users/refresh"))) {
+            return AUTH;
+        }
+
+        if (!"GET".equals(method) && uri.startsWith("/api/v1/orders")) {
+            return ORDER_WRITE;
+        }
+
+        return DEFAULT;
+    }
+}
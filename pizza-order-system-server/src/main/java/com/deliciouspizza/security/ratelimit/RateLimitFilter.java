@@ -0,0 +1,146 @@
+package com.deliciouspizza.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Applies token-bucket limits per endpoint group and client. Every request is limited per remote address;
+ * runs after JwtAuthenticationFilter, so authenticated requests are limited per user as well and neither
+ * many accounts behind one address nor one account spread over many addresses escape the limit.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = Logger.getLogger(RateLimitFilter.class.getName());
+
+    private final boolean enabled;
+    private final RateLimiter rateLimiter;
+    private final Map<EndpointGroup, RateLimiter.Limit> limits = new EnumMap<>(EndpointGroup.class);
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.max-tracked-clients:100000}") int maxTrackedClients,
+            @Value("${rate-limit.auth.capacity:10}") int authCapacity,
+            @Value("${rate-limit.auth.refill-per-second:0.2}") double authRefillPerSecond,
+            @Value("${rate-limit.order-write.capacity:20}") int orderWriteCapacity,
+            @Value("${rate-limit.order-write.refill-per-second:2}") double orderWriteRefillPerSecond,
+            @Value("${rate-limit.default.capacity:100}") int defaultCapacity,
+            @Value("${rate-limit.default.refill-per-second:20}") double defaultRefillPerSecond
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.rateLimiter = new RateLimiter(maxTrackedClients);
+
+        limits.put(EndpointGroup.AUTH, new RateLimiter.Limit(authCapacity, authRefillPerSecond));
+        limits.put(EndpointGroup.ORDER_WRITE, new RateLimiter.Limit(orderWriteCapacity, orderWriteRefillPerSecond));
+        limits.put(EndpointGroup.DEFAULT, new RateLimiter.Limit(defaultCapacity, defaultRefillPerSecond));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // CORS preflights carry no credentials and must never be rejected
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        EndpointGroup group = EndpointGroup.resolve(request);
+        RateLimiter.Limit limit = limits.get(group);
+        long now = System.nanoTime();
+
+        // Behind a proxy, enable server.forward-headers-strategy so this is the client and not the proxy
+        String address = request.getRemoteAddr();
+        String network = networkOf(address);
+
+        long waitNanos = rateLimiter.tryAcquire(group.name() + "|ip:" + address, group.name() + "|net:" + network, limit, now);
+
+        String username = authenticatedUsername();
+        if (waitNanos == 0 && username != null) {
+            waitNanos = rateLimiter.tryAcquire(group.name() + "|user:" + username, group.name() + "|user-net:" + network, limit, now);
+        }
+
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        writeTooManyRequests(request, response, waitNanos);
+    }
+
+    /**
+     * Drops buckets of clients that have been idle long enough to refill completely.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleClients() {
+        int evicted = rateLimiter.evictFull(System.nanoTime(), false);
+
+        if (evicted > 0) {
+            logger.fine("Evicted idle rate limit buckets: " + evicted);
+        }
+    }
+
+    private static String authenticatedUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    /**
+     * @return The /24 network of an IPv4 address or the /48 network of an IPv6 address, the blocks a single
+     * client usually controls. Parsed as text, since resolving a malformed address could mean a DNS lookup.
+     */
+    static String networkOf(String address) {
+        if (address.indexOf(':') >= 0) {
+            String[] groups = address.split(":", 4);
+            return groups.length < 4 ? address : groups[0] + ":" + groups[1] + ":" + groups[2];
+        }
+
+        int lastDot = address.lastIndexOf('.');
+        return lastDot < 0 ? address : address.substring(0, lastDot);
+    }
+
+    private void writeTooManyRequests(HttpServletRequest request, HttpServletResponse response, long waitNanos)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        body.put("message", "Too many requests, retry after " + retryAfterSeconds + " seconds");
+        body.put("path", request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
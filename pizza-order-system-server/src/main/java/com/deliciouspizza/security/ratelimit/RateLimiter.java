@@ -0,0 +1,139 @@
+package com.deliciouspizza.security.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one token bucket per client key in a bounded map.
+ * <p>
+ * Lookups of existing buckets are lock-free and taking a token is a single CAS. Buckets that have refilled
+ * completely are evicted, either by the periodic sweep or when the map reaches its bound. If the map is
+ * still full after evicting, a new client is limited by the bucket of its overflow key instead, e.g. its
+ * network, kept in a second map a sixteenth of the size. Clients flooding the map with new keys then only
+ * share buckets with their own network rather than with every new client. Should that map be full as well,
+ * new clients are let through until buckets refill.
+ * </p>
+ */
+public class RateLimiter {
+
+    private static final long MIN_SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final int maxBuckets;
+    private final int maxOverflowBuckets;
+    private final AtomicLong lastSweepNanos;
+
+    public RateLimiter(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+        this.maxOverflowBuckets = Math.max(1, maxBuckets / 16);
+        this.lastSweepNanos = new AtomicLong(System.nanoTime() - MIN_SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * Takes a token from the bucket of the given key, creating the bucket if needed.
+     *
+     * @param key         The client key, e.g. the endpoint group and user name.
+     * @param overflowKey The key limiting the client while no bucket can be created for it, e.g. the
+     *                    endpoint group and the network of its address.
+     * @param limit       The limit that applies to the key.
+     * @param nowNanos    The current time from {@link System#nanoTime()}.
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be.
+     */
+    public long tryAcquire(String key, String overflowKey, Limit limit, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+
+        if (bucket == null) {
+            bucket = findOrCreate(buckets, maxBuckets, key, nowNanos);
+        }
+
+        if (bucket == null) {
+            bucket = findOrCreate(overflowBuckets, maxOverflowBuckets, overflowKey, nowNanos);
+        }
+
+        return bucket == null ? 0 : bucket.tryConsume(nowNanos, limit);
+    }
+
+    /**
+     * Removes buckets that have refilled completely. Under pressure the sweep runs at most every 100 ms
+     * so a flood of new keys cannot turn every request into a full scan.
+     *
+     * @param nowNanos  The current time from {@link System#nanoTime()}.
+     * @param throttled Whether to skip the sweep if another one ran recently.
+     * @return The number of evicted buckets.
+     */
+    public int evictFull(long nowNanos, boolean throttled) {
+        long last = lastSweepNanos.get();
+
+        if (throttled && (nowNanos - last < MIN_SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, nowNanos))) {
+            return 0;
+        }
+
+        int before = buckets.size() + overflowBuckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+        overflowBuckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+
+        return before - buckets.size() - overflowBuckets.size();
+    }
+
+    /**
+     * @return The number of clients with a bucket of their own.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    public int overflowSize() {
+        return overflowBuckets.size();
+    }
+
+    /**
+     * @return The bucket of the key, or null if the map is full even after evicting.
+     */
+    private TokenBucket findOrCreate(Map<String, TokenBucket> map, int max, String key, long nowNanos) {
+        TokenBucket bucket = map.get(key);
+
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (map.size() >= max) {
+            evictFull(nowNanos, true);
+        }
+
+        return map.size() >= max ? map.get(key) : map.computeIfAbsent(key, ignored -> new TokenBucket(nowNanos));
+    }
+
+    /**
+     * Capacity and refill rate of a bucket, precomputed as GCRA intervals.
+     */
+    public static final class Limit {
+
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+
+        /**
+         * @param capacity        The maximum number of requests allowed in a burst.
+         * @param refillPerSecond The number of tokens added back per second.
+         */
+        public Limit(int capacity, double refillPerSecond) {
+            if (capacity <= 0 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException(
+                        "Rate limit capacity and refill rate must be positive: " + capacity + ", " + refillPerSecond);
+            }
+
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burstNanos = emissionIntervalNanos * capacity;
+        }
+
+        long emissionIntervalNanos() {
+            return emissionIntervalNanos;
+        }
+
+        long burstNanos() {
+            return burstNanos;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.deliciouspizza.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as GCRA (generic cell rate algorithm).
+ * <p>
+ * Instead of a token count and a refill timestamp, the bucket keeps a single "theoretical arrival time":
+ * the moment at which it would be full again. Taking a token pushes that time forward by one emission
+ * interval, which is a single CAS. A bucket whose theoretical arrival time lies in the past is full and
+ * therefore indistinguishable from a new one, so it can be dropped without losing state.
+ * </p>
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Tries to take one token.
+     *
+     * @param nowNanos The current time from {@link System#nanoTime()}.
+     * @param limit    The capacity and refill rate of the bucket.
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token becomes available.
+     */
+    long tryConsume(long nowNanos, RateLimiter.Limit limit) {
+        while (true) {
+            long current = theoreticalArrivalNanos.get();
+            long next = Math.max(current, nowNanos) + limit.emissionIntervalNanos();
+            long wait = next - nowNanos - limit.burstNanos();
+
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    boolean isFull(long nowNanos) {
+        return theoreticalArrivalNanos.get() - nowNanos <= 0;
+    }
+}
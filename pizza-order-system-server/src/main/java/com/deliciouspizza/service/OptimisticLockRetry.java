@@ -0,0 +1,77 @@
+package com.deliciouspizza.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Runs an operation in its own transaction and repeats it when it loses an optimistic lock race.
+ * <p>
+ * Only for operations that can simply be run again: every attempt reads fresh state, and a failed attempt
+ * is rolled back completely. Inside an existing transaction the operation runs once, because the failure
+ * marks the outer transaction for rollback and a retry cannot succeed there.
+ * </p>
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = Logger.getLogger(OptimisticLockRetry.class.getName());
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticLockRetry(
+            PlatformTransactionManager transactionManager,
+            @Value("${optimistic-lock.retry.max-attempts:3}") int maxAttempts,
+            @Value("${optimistic-lock.retry.backoff-ms:20}") long backoffMillis
+    ) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * @param operation The name of the operation, used for logging.
+     * @param work      The transactional work.
+     * @return The result of the first attempt that commits.
+     * @throws OptimisticLockingFailureException If the last attempt still conflicted.
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    logger.warning(operation + " still conflicted after " + attempt + " attempts");
+                    throw e;
+                }
+
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        // Jitter keeps the losers of one race from colliding again on the next attempt
+        long delay = backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis + 1);
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying after an optimistic lock conflict", e);
+        }
+    }
+}
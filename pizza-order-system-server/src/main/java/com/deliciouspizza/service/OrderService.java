@@ -1,7 +1,9 @@
 package com.deliciouspizza.service;
 
+import com.deliciouspizza.archive.OrderArchive;
 import com.deliciouspizza.dto.geocode.CalculatedDistance;
 import com.deliciouspizza.dto.order.OrderFilterDto;
+import com.deliciouspizza.dto.order.OrderHistoryPageDto;
 import com.deliciouspizza.dto.order.OrderRequestDto;
 import com.deliciouspizza.dto.order.OrderResponseDto;
 import com.deliciouspizza.dto.order.OrderUpdateDto;
@@ -9,30 +11,42 @@ import com.deliciouspizza.dto.order.ProcessOrderRequestDto;
 import com.deliciouspizza.dto.order.ProcessOrderResponseDto;
 import com.deliciouspizza.dto.order_product.OrderProductRequestDto;
 import com.deliciouspizza.dto.order_product.OrderProductResponseDto;
+import com.deliciouspizza.event.OrderEventType;
 import com.deliciouspizza.exception.FailedCalculationException;
 import com.deliciouspizza.exception.InvalidCountException;
+import com.deliciouspizza.exception.InvalidPageCursorException;
 import com.deliciouspizza.exception.OrderNotFoundException;
 import com.deliciouspizza.exception.OrderNotProcessedException;
 import com.deliciouspizza.exception.OrderProductAlreadyExistsException;
 import com.deliciouspizza.exception.OrderProductNotFoundException;
+import com.deliciouspizza.exception.OrderStatusConflictException;
 import com.deliciouspizza.exception.ProductNotFoundException;
 import com.deliciouspizza.exception.UserNotFoundException;
 import com.deliciouspizza.model.order.Order;
 import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.order.OrderTotals;
 import com.deliciouspizza.model.orders_products.OrderProduct;
 import com.deliciouspizza.model.product.Product;
 import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.outbox.OrderEventPublisher;
+import com.deliciouspizza.partition.DetachedOrderPartitions;
+import com.deliciouspizza.repository.CustomerOrderSummaryRepository;
 import com.deliciouspizza.repository.OrderProductRepository;
 import com.deliciouspizza.repository.OrderRepository;
 import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.SalesRollupRepository;
 import com.deliciouspizza.repository.UserRepository;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -54,19 +68,43 @@ public class OrderService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final OpenRouteService openRouteService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderEventPublisher orderEventPublisher;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final OrderArchive orderArchive;
+    private final DetachedOrderPartitions detachedOrderPartitions;
+    private final SalesRollupRepository salesRollupRepository;
+    private final CustomerOrderSummaryRepository customerOrderSummaryRepository;
+    private final int historyMaxPageSize;
 
     public OrderService(
             OrderRepository orderRepository,
             OrderProductRepository orderProductRepository,
             ProductRepository productRepository,
             UserRepository userRepository,
-            OpenRouteService openRouteService
+            OpenRouteService openRouteService,
+            PlatformTransactionManager transactionManager,
+            OrderEventPublisher orderEventPublisher,
+            OptimisticLockRetry optimisticLockRetry,
+            OrderArchive orderArchive,
+            DetachedOrderPartitions detachedOrderPartitions,
+            SalesRollupRepository salesRollupRepository,
+            CustomerOrderSummaryRepository customerOrderSummaryRepository,
+            @Value("${orders.history.max-page-size:100}") int historyMaxPageSize
     ) {
         this.orderRepository = orderRepository;
         this.orderProductRepository = orderProductRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.openRouteService = openRouteService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderEventPublisher = orderEventPublisher;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.orderArchive = orderArchive;
+        this.detachedOrderPartitions = detachedOrderPartitions;
+        this.salesRollupRepository = salesRollupRepository;
+        this.customerOrderSummaryRepository = customerOrderSummaryRepository;
+        this.historyMaxPageSize = Math.max(1, historyMaxPageSize);
     }
 
     public List<OrderResponseDto> findAllOrders(OrderFilterDto filterDto) {
@@ -77,14 +115,19 @@ public class OrderService {
                 return criteriaBuilder.conjunction();
             }
 
-            Join<Order, User> userJoin = root.join("user");
+            boolean byUsername = filterDto.getUsername() != null && !filterDto.getUsername().isBlank();
 
-            if (filterDto.getUserId() != null) {
-                predicates.add(criteriaBuilder.equal(userJoin.get("id"), filterDto.getUserId()));
-            }
+            // The users table is only joined when a user filter needs it
+            if (filterDto.getUserId() != null || byUsername) {
+                Join<Order, User> userJoin = root.join("user");
+
+                if (filterDto.getUserId() != null) {
+                    predicates.add(criteriaBuilder.equal(userJoin.get("id"), filterDto.getUserId()));
+                }
 
-            if (filterDto.getUsername() != null && !filterDto.getUsername().isBlank()) {
-                predicates.add(criteriaBuilder.equal(userJoin.get("username"), filterDto.getUsername()));
+                if (byUsername) {
+                    predicates.add(criteriaBuilder.equal(userJoin.get("username"), filterDto.getUsername()));
+                }
             }
 
             if (filterDto.getCreatedAfter() != null) {
@@ -95,8 +138,9 @@ public class OrderService {
                 predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("createdAt"), filterDto.getCreatedBefore()));
             }
 
-            if (filterDto.getStatus() != null) {
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("status"), filterDto.getStatus()));
+            // Equality on the leading column of idx_orders_status_created_at, so the date range narrows the same scan
+            if (filterDto.getStatus() != null && !filterDto.getStatus().isEmpty()) {
+                predicates.add(root.get("status").in(filterDto.getStatus()));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
@@ -104,47 +148,71 @@ public class OrderService {
 
         return orderRepository.findAll(spec)
                 .stream()
-                .map(order -> {
-                    List<OrderProduct> orderProducts = orderProductRepository.findByOrderId(order.getId());
-
-                    return new OrderResponseDto(
-                            order.getId(),
-                            order.getStatus().toString(),
-                            order.getUser().getId(),
-                            order.getAddress(),
-                            order.getCreatedAt(),
-                            order.getUpdatedAt(),
-                            findItemsByOrderId(order.getId())
-                    );
-                })
+                .map(order -> toOrderResponseDto(order, findItemsByOrderId(order.getId())))
                 .toList();
     }
 
+    /**
+     * Returns a page of the order history of a user, newest first, from the customer_order_summaries read
+     * model. Pass the cursor of the previous page to get the next one.
+     *
+     * @param pageSize The number of orders, capped at {@code orders.history.max-page-size}.
+     * @throws UserNotFoundException      If there is no user with that username.
+     * @throws InvalidPageCursorException If only one part of the cursor is given.
+     */
+    public OrderHistoryPageDto findOrderHistory(String username, LocalDateTime beforeCreatedAt, Long beforeId, int pageSize) {
+        if ((beforeCreatedAt == null) != (beforeId == null)) {
+            throw new InvalidPageCursorException("beforeCreatedAt and beforeId must be given together");
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("Username: " + username));
+
+        int limit = Math.clamp(pageSize, 1, historyMaxPageSize);
+
+        // One extra row tells whether there is a next page without a count query
+        List<OrderResponseDto> orders = customerOrderSummaryRepository.findPage(user.getId(), beforeCreatedAt, beforeId, limit + 1);
+
+        if (orders.size() <= limit) {
+            return new OrderHistoryPageDto(orders, null, null);
+        }
+
+        List<OrderResponseDto> page = orders.subList(0, limit);
+        OrderResponseDto last = page.getLast();
+
+        return new OrderHistoryPageDto(List.copyOf(page), last.getCreatedAt(), last.getId());
+    }
+
+    /**
+     * Finds an order in the database, falling back to the cold storage archive for orders that were moved
+     * there by the archiver, and to the archive schema for months whose partitions were detached.
+     *
+     * @throws OrderNotFoundException If the order is neither in the database nor archived.
+     */
     @Transactional
     public OrderResponseDto findOrderById(long id) {
-        Order order = orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException("Id: " + id));
-        List<OrderProduct> orderProducts = orderProductRepository.findByOrderId(id);
+        Optional<Order> order = orderRepository.findById(id);
 
-        return new OrderResponseDto(
-                order.getId(),
-                order.getStatus().toString(),
-                order.getUser().getId(),
-                order.getAddress(),
-                order.getCreatedAt(),
-                order.getUpdatedAt(),
-                findItemsByOrderId(id)
-        );
+        if (order.isEmpty()) {
+            return orderArchive.find(id)
+                    .or(() -> detachedOrderPartitions.find(id))
+                    .orElseThrow(() -> new OrderNotFoundException("Id: " + id));
+        }
+
+        return toOrderResponseDto(order.get(), findItemsByOrderId(id));
     }
 
     @Transactional
     public OrderResponseDto addItemToOrder(long orderId, OrderProductRequestDto productRequestDto) {
+        lockItemsForChange(orderId);
+
         Order order = orderRepository.findById(orderId).orElseThrow(() -> new OrderNotFoundException("Id: " + orderId));
 
         Product product = productRepository.findById(productRequestDto.getProductId()).orElseThrow(() -> new ProductNotFoundException("Id: " + orderId));
 
         Optional<OrderProduct> optionalOrderProduct = orderProductRepository.findByOrder_IdAndProduct_Id(orderId, productRequestDto.getProductId());
 
-        if (optionalOrderProduct.isEmpty()) {
+        if (optionalOrderProduct.isPresent()) {
             throw new OrderProductAlreadyExistsException(orderId, productRequestDto.getProductId());
         }
 
@@ -156,17 +224,14 @@ public class OrderService {
 
         order.getOrderProducts().add(orderProduct);
 
+        order.setUpdatedAt(LocalDateTime.now());
+
         orderProductRepository.saveAndFlush(orderProduct);
         orderRepository.save(order);
+        applyLineDelta(order, orderProduct.getPriceAtOrderTime(), orderProduct.getQuantity(), 1);
+        recordChange(order, OrderEventType.UPDATED, order.getStatus());
 
-        return new OrderResponseDto(
-                orderId,
-                order.getStatus().toString(),
-                order.getUser().getId(),
-                order.getAddress(),
-                order.getCreatedAt(),
-                LocalDateTime.now(),
-                findItemsByOrderId(orderId));
+        return toOrderResponseDto(order, findItemsByOrderId(orderId));
     }
 
     public List<OrderProductResponseDto> findItemsByOrderId(long orderId) {
@@ -180,6 +245,65 @@ public class OrderService {
                 .toList();
     }
 
+    private OrderResponseDto toOrderResponseDto(Order order, List<OrderProductResponseDto> items) {
+        OrderTotals totals = order.getTotals();
+
+        return new OrderResponseDto(
+                order.getId(),
+                order.getStatus().toString(),
+                order.getUser().getId(),
+                order.getAddress(),
+                order.getCreatedAt(),
+                order.getUpdatedAt(),
+                items,
+                totals.subtotal(),
+                totals.itemCount(),
+                totals.lineCount()
+        );
+    }
+
+    /**
+     * Locks the order until the end of the transaction and checks that its items may still change. A
+     * completed order is counted into the sales rollups with the items it has at that moment, so its items
+     * are frozen from then on; holding the lock keeps the status from changing until the item change commits.
+     *
+     * @throws OrderNotFoundException       If the order does not exist.
+     * @throws OrderStatusConflictException If the order is completed or cancelled.
+     */
+    private void lockItemsForChange(long orderId) {
+        OrderStatus status = orderRepository.lockStatusById(orderId)
+                .map(OrderStatus::valueOf)
+                .orElseThrow(() -> new OrderNotFoundException("Id: " + orderId));
+
+        if (status.isTerminal()) {
+            throw new OrderStatusConflictException("Order with ID " + orderId + " is " + status + ", its items can no longer change");
+        }
+    }
+
+    /**
+     * Applies a line change to the stored totals of the order with one atomic update and mirrors the result
+     * on the entity. Never recomputes from the lines.
+     */
+    private void applyLineDelta(Order order, BigDecimal price, int quantityDelta, int lineCountDelta) {
+        BigDecimal subtotalDelta = price.multiply(BigDecimal.valueOf(quantityDelta));
+
+        order.setTotals(orderRepository.applyTotalsDelta(order.getId(), subtotalDelta, quantityDelta, lineCountDelta));
+    }
+
+    /**
+     * Brings the history read model up to date with a change of the order and records the event in the
+     * outbox, both in the transaction making the change.
+     */
+    private void recordChange(Order order, OrderEventType type, OrderStatus previousStatus) {
+        if (type == OrderEventType.DELETED) {
+            customerOrderSummaryRepository.delete(order.getId());
+        } else {
+            customerOrderSummaryRepository.refresh(order.getId());
+        }
+
+        orderEventPublisher.publish(order, type, previousStatus);
+    }
+
     private OrderProductResponseDto mapOrderProductToOrderProductResponseDTO(OrderProduct orderProduct) {
         return new OrderProductResponseDto(
                 orderProduct.getId(),
@@ -190,34 +314,47 @@ public class OrderService {
         );
     }
 
+    @Transactional
     public void deleteOrder(long id) {
-        orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException("Id: " + id));
+        Order order = orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException("Id: " + id));
+
+        recordChange(order, OrderEventType.DELETED, order.getStatus());
 
         orderRepository.deleteById(id);
     }
 
+    /**
+     * Updates the address of an order and, if a different status is requested, moves it to that status.
+     *
+     * @throws OrderNotProcessedException   If the requested status is not reachable from the current one.
+     * @throws OrderStatusConflictException If the status changed concurrently.
+     */
+    @Transactional
     public OrderResponseDto updateOrder(long id, OrderUpdateDto updateDto) {
+        OrderStatus previousStatus = orderRepository.findStatusById(id)
+                .orElseThrow(() -> new OrderNotFoundException("Id: " + id));
+        OrderStatus newStatus = updateDto.getStatus() == null ? previousStatus : OrderStatus.valueOf(updateDto.getStatus());
+
+        if (newStatus != previousStatus) {
+            transitionStatus(id, previousStatus, newStatus);
+        }
+
         Order order = orderRepository.findById(id).orElseThrow(() -> new OrderNotFoundException("Id: " + id));
 
         order.setAddress(updateDto.getAddress());
-        order.setStatus(OrderStatus.valueOf(updateDto.getStatus()));
+        order.setUpdatedAt(LocalDateTime.now());
 
         orderRepository.saveAndFlush(order);
+        recordChange(order, OrderEventType.UPDATED, previousStatus);
 
-        return new OrderResponseDto(
-                id,
-                updateDto.getStatus(),
-                order.getUser().getId(),
-                updateDto.getAddress(),
-                order.getCreatedAt(),
-                LocalDateTime.now(),
-                findItemsByOrderId(id)
-        );
+        return toOrderResponseDto(order, findItemsByOrderId(id));
 
     }
 
     @Transactional
     public OrderResponseDto removeItemFromOrder(long orderId, long productId) {
+        lockItemsForChange(orderId);
+
         OrderProduct orderProduct = orderProductRepository.findByOrder_IdAndProduct_Id(orderId, productId)
                 .orElseThrow(() -> new OrderProductNotFoundException(orderId, productId));
 
@@ -227,29 +364,36 @@ public class OrderService {
 
         order.setUpdatedAt(LocalDateTime.now());
         orderRepository.save(order);
+        applyLineDelta(order, orderProduct.getPriceAtOrderTime(), -orderProduct.getQuantity(), -1);
+        recordChange(order, OrderEventType.UPDATED, order.getStatus());
 
-        return new OrderResponseDto(
-                orderId,
-                order.getStatus().toString(),
-                order.getUser().getId(),
-                order.getAddress(),
-                order.getCreatedAt(),
-                order.getUpdatedAt(),
-                findItemsByOrderId(orderId)
-        );
+        return toOrderResponseDto(order, findItemsByOrderId(orderId));
     }
 
+    /**
+     * Sets the quantity of a product in an order. Retried on optimistic lock conflicts, since setting an
+     * absolute quantity gives the same result however often it runs.
+     */
     public OrderProductResponseDto updateProductCount(long orderId, long productId, int newCount) {
+        return optimisticLockRetry.execute("updateProductCount", () -> setProductCount(orderId, productId, newCount));
+    }
+
+    private OrderProductResponseDto setProductCount(long orderId, long productId, int newCount) {
         if (newCount <= 0) {
             throw new InvalidCountException("The count of the product is invalid: " + newCount);
         }
 
+        lockItemsForChange(orderId);
+
         OrderProduct orderProduct = orderProductRepository.findByOrder_IdAndProduct_Id(orderId, productId)
                 .orElseThrow(() -> new OrderProductNotFoundException(orderId, productId));
 
+        int previousCount = orderProduct.getQuantity();
         orderProduct.setQuantity(newCount);
 
         orderProductRepository.save(orderProduct);
+        applyLineDelta(orderProduct.getOrder(), orderProduct.getPriceAtOrderTime(), newCount - previousCount, 0);
+        recordChange(orderProduct.getOrder(), OrderEventType.UPDATED, orderProduct.getOrder().getStatus());
 
         return new OrderProductResponseDto(
                 orderId,
@@ -280,6 +424,8 @@ public class OrderService {
      */
     @Transactional
     public void removeProductFromOrder(long orderId, long productId) {
+        lockItemsForChange(orderId);
+
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException("Id: " + orderId));
 
@@ -298,6 +444,8 @@ public class OrderService {
         );
 
         orderProductRepository.delete(orderProductToRemove);
+        applyLineDelta(order, orderProductToRemove.getPriceAtOrderTime(), -orderProductToRemove.getQuantity(), -1);
+        recordChange(order, OrderEventType.UPDATED, order.getStatus());
     }
 
     public void removeOrderProduct(Order order, OrderProduct orderProduct) {
@@ -307,42 +455,34 @@ public class OrderService {
         }
     }
 
+    /**
+     * Adds a product to an order, or increases its quantity if it is already there. The line is written with
+     * a single upsert, so concurrent adds of the same product are summed by the database.
+     */
+    @Transactional
     public OrderResponseDto addProductToOrder(long orderId, OrderProductRequestDto productDto) {
-        Order order = orderRepository.findById(orderId).orElseThrow(() -> new OrderNotFoundException("Id: " + orderId));
-        Product product = productRepository.findById(productDto.getProductId()).orElseThrow(() -> new ProductNotFoundException("Id: " + productDto));
+        long productId = productDto.getProductId();
 
-        Optional<OrderProduct> orderProductOptional = orderProductRepository.findByOrder_IdAndProduct_Id(orderId, product.getId());
+        int quantity = productDto.getQuantity();
 
-        OrderProduct orderProduct;
+        lockItemsForChange(orderId);
 
-        if (orderProductOptional.isEmpty()) {
-            orderProduct = new OrderProduct();
+        OrderProduct line = orderProductRepository.upsertQuantity(orderId, productId, quantity)
+                .orElseThrow(() -> orderRepository.existsById(orderId)
+                        ? new ProductNotFoundException("Id: " + productId)
+                        : new OrderNotFoundException("Id: " + orderId));
 
-            orderProduct.setOrder(order);
-            orderProduct.setProduct(product);
-            orderProduct.setPriceAtOrderTime(product.getPrice());
+        // Existing lines hold at least one item, so only a freshly inserted line has exactly the added quantity
+        boolean inserted = line.getQuantity() == quantity;
 
-            orderProduct.setQuantity(productDto.getQuantity());
-            order.getOrderProducts().add(orderProduct);
-
-        } else {
-            orderProduct = orderProductOptional.get();
-            orderProduct.setQuantity(productDto.getQuantity() + orderProduct.getQuantity());
-        }
-
-        orderProductRepository.saveAndFlush(orderProduct);
+        Order order = orderRepository.findById(orderId).orElseThrow(() -> new OrderNotFoundException("Id: " + orderId));
+        applyLineDelta(order, line.getPriceAtOrderTime(), quantity, inserted ? 1 : 0);
+        recordChange(order, OrderEventType.UPDATED, order.getStatus());
 
-        return new OrderResponseDto(
-                order.getId(),
-                order.getStatus().toString(),
-                order.getUser().getId(),
-                order.getAddress(),
-                order.getCreatedAt(),
-                order.getUpdatedAt(),
-                findItemsByOrderId(orderId)
-        );
+        return toOrderResponseDto(order, findItemsByOrderId(orderId));
     }
 
+    @Transactional
     public OrderResponseDto createNewOrder(OrderRequestDto orderRequestDto) {
         User user = userRepository.findById(orderRequestDto.getUserId())
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + orderRequestDto.getUserId()));
@@ -374,6 +514,17 @@ public class OrderService {
 
         Order savedOrder = orderRepository.save(newOrder);
 
+        BigDecimal subtotal = BigDecimal.ZERO;
+        int itemCount = 0;
+
+        for (OrderProduct line : savedOrder.getOrderProducts()) {
+            subtotal = subtotal.add(line.getPriceAtOrderTime().multiply(BigDecimal.valueOf(line.getQuantity())));
+            itemCount += line.getQuantity();
+        }
+
+        savedOrder.setTotals(orderRepository.applyTotalsDelta(savedOrder.getId(), subtotal, itemCount, savedOrder.getOrderProducts().size()));
+        recordChange(savedOrder, OrderEventType.CREATED, null);
+
         return mapOrderToOrderResponseDto(savedOrder);
     }
 
@@ -398,7 +549,9 @@ public class OrderService {
         responseDto.setCreatedAt(order.getCreatedAt());
         responseDto.setUpdatedAt(order.getUpdatedAt());
         responseDto.setItems(responseProducts);
-        // You can add total price calculation here if needed
+        responseDto.setSubtotal(order.getSubtotal());
+        responseDto.setItemCount(order.getItemCount());
+        responseDto.setLineCount(order.getLineCount());
 
         return responseDto;
     }
@@ -413,23 +566,34 @@ public class OrderService {
      * @throws UserNotFoundException  If the employee user does not exist.
      * @throws IllegalStateException  If the order cannot be processed (e.g., wrong status).
      */
-    @org.springframework.transaction.annotation.Transactional
     public ProcessOrderResponseDto processOrder(long orderId, ProcessOrderRequestDto requestDto) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
 
-        if (order.getStatus() != OrderStatus.NEW) {
+        // Fails fast before the remote calls; the transition itself is decided by the conditional update
+        if (!order.getStatus().canTransitionTo(OrderStatus.PROCESSING)) {
             throw new OrderNotProcessedException("Order with ID " + orderId + " cannot be processed. Current status: " + order.getStatus());
         }
 
         long employeeId = requestDto.getEmployeeId();
 
-        User employee = userRepository.findById(employeeId)
+        userRepository.findById(employeeId)
                 .orElseThrow(() -> new UserNotFoundException("Employee not found with ID: " + employeeId));
 
-        String employeeAddress = employee.getAddress();
-        String orderAddress = order.getAddress();
+        // The remote calls run before the write transaction starts, so no pooled connection waits on them
+        CalculatedDistance calculatedDistance = calculateDistance(orderId, order.getAddress());
 
+        OrderResponseDto responseDto = transactionTemplate.execute(status -> markProcessing(orderId));
+
+        return new ProcessOrderResponseDto(
+                responseDto,
+                String.valueOf(calculatedDistance.getDistance()),
+                String.valueOf(calculatedDistance.getDuration() / AVERAGE_CAR_SPEED)
+        );
+
+    }
+
+    private CalculatedDistance calculateDistance(long orderId, String orderAddress) {
         CalculatedDistance calculatedDistance = new CalculatedDistance();
 
         try {
@@ -450,7 +614,7 @@ public class OrderService {
 
                 logger.info(String.format("Calculated distance for order %d: %.2f meters", orderId, calculatedDistance.getDistance()));
             } else {
-//                logger.warning(String.format("Could not get coordinates for order %d or employee %d. Distance not calculated.", orderId, employeeId));
+//                logger.warning(String.format("Could not get coordinates for order %d. Distance not calculated.", orderId));
             }
 
         } catch (Exception e) {
@@ -458,28 +622,46 @@ public class OrderService {
 //            logger.severe("Failed to calculate distance for order " + orderId + ": " + e.getMessage());
         }
 
-        order.setStatus(OrderStatus.PROCESSING);
-        order.setUpdatedAt(LocalDateTime.now());
-        Order savedOrder = orderRepository.save(order);
+        return calculatedDistance;
+    }
+
+    private OrderResponseDto markProcessing(long orderId) {
+        transitionStatus(orderId, OrderStatus.NEW, OrderStatus.PROCESSING);
+
+        Order savedOrder = orderRepository.findById(orderId)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
+        recordChange(savedOrder, OrderEventType.UPDATED, OrderStatus.NEW);
 
         List<OrderProductResponseDto> orderItems = findItemsByOrderId(orderId);
 
-        OrderResponseDto responseDto = new OrderResponseDto(
-                savedOrder.getId(),
-                savedOrder.getStatus().toString(),
-                savedOrder.getUser().getId(),
-                savedOrder.getAddress(),
-                savedOrder.getCreatedAt(),
-                savedOrder.getUpdatedAt(),
-                orderItems
-        );
+        return toOrderResponseDto(savedOrder, orderItems);
+    }
 
-        return new ProcessOrderResponseDto(
-                responseDto,
-                String.valueOf(calculatedDistance.getDistance()),
-                String.valueOf(calculatedDistance.getDuration() / AVERAGE_CAR_SPEED)
-        );
+    /**
+     * Moves an order between two statuses with a single conditional update, without reading and writing
+     * back the entity. Of several concurrent callers expecting the same status, only one succeeds.
+     * Clears the persistence context, so entities of the order have to be loaded again afterwards.
+     *
+     * @throws OrderNotProcessedException   If the state machine does not allow the transition.
+     * @throws OrderNotFoundException       If the order does not exist.
+     * @throws OrderStatusConflictException If the order was no longer in the expected status.
+     */
+    private void transitionStatus(long orderId, OrderStatus from, OrderStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new OrderNotProcessedException("Order with ID " + orderId + " cannot move from " + from + " to " + to);
+        }
 
+        if (orderRepository.transitionStatus(orderId, from, to, LocalDateTime.now()) == 0) {
+            OrderStatus current = orderRepository.findStatusById(orderId)
+                    .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
+
+            throw new OrderStatusConflictException("Order with ID " + orderId + " is no longer " + from + ". Current status: " + current);
+        }
+
+        // Only the transaction that won the transition counts the order, so it is added exactly once
+        if (to == OrderStatus.COMPLETED) {
+            salesRollupRepository.addOrder(orderId);
+        }
     }
 
 }
@@ -0,0 +1,105 @@
+package com.deliciouspizza.service;
+
+import com.deliciouspizza.repository.CustomerOrderSummaryRepository;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.OrderTotalsMismatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Periodically compares the stored order totals with the totals of the order lines.
+ * <p>
+ * The totals are only ever changed by deltas, so a bug or a manual edit of the lines would leave them wrong
+ * for good. The check walks the orders in id ranges with one aggregate query per range and logs every
+ * mismatch; with repair enabled it recomputes the totals of the affected orders under the order row lock.
+ * </p>
+ */
+@Component
+public class OrderTotalsConsistencyChecker {
+
+    private static final Logger logger = Logger.getLogger(OrderTotalsConsistencyChecker.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final CustomerOrderSummaryRepository customerOrderSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final boolean repair;
+
+    public OrderTotalsConsistencyChecker(
+            OrderRepository orderRepository,
+            CustomerOrderSummaryRepository customerOrderSummaryRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${order-totals.checker.enabled:true}") boolean enabled,
+            @Value("${order-totals.checker.batch-size:1000}") int batchSize,
+            @Value("${order-totals.checker.repair:false}") boolean repair
+    ) {
+        this.orderRepository = orderRepository;
+        this.customerOrderSummaryRepository = customerOrderSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.repair = repair;
+    }
+
+    /**
+     * @return The ids of the orders whose stored totals differed from their lines; repaired ones included.
+     */
+    @Scheduled(
+            fixedDelayString = "${order-totals.checker.interval-ms:3600000}",
+            initialDelayString = "${order-totals.checker.interval-ms:3600000}"
+    )
+    public List<Long> checkAll() {
+        if (!enabled) {
+            return List.of();
+        }
+
+        long maxId = orderRepository.findMaxId();
+        List<Long> mismatches = new ArrayList<>();
+
+        // Each range is its own short read, so the check never holds a snapshot over the whole table
+        for (long afterId = 0; afterId < maxId; afterId += batchSize) {
+            List<OrderTotalsMismatch> found = orderRepository.findTotalsMismatches(afterId, afterId + batchSize);
+
+            for (OrderTotalsMismatch mismatch : found) {
+                handle(mismatch);
+                mismatches.add(mismatch.getOrderId());
+            }
+        }
+
+        logger.info("Order totals check finished, mismatches: " + mismatches.size());
+
+        return mismatches;
+    }
+
+    private void handle(OrderTotalsMismatch mismatch) {
+        logger.warning(String.format(
+                "Stored totals of order %d differ from its lines: subtotal %s/%s, items %d/%d, lines %d/%d",
+                mismatch.getOrderId(),
+                mismatch.getStoredSubtotal(), mismatch.getActualSubtotal(),
+                mismatch.getStoredItemCount(), mismatch.getActualItemCount(),
+                mismatch.getStoredLineCount(), mismatch.getActualLineCount()
+        ));
+
+        if (!repair) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // A line change that committed in between is included in the recompute, one still running waits for the lock
+            if (orderRepository.lockById(mismatch.getOrderId()).isPresent()) {
+                orderRepository.recomputeTotals(mismatch.getOrderId());
+                customerOrderSummaryRepository.refresh(mismatch.getOrderId());
+            }
+        });
+
+        logger.info("Repaired stored totals of order " + mismatch.getOrderId());
+    }
+}
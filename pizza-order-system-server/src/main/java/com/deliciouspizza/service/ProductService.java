@@ -1,5 +1,6 @@
 package com.deliciouspizza.service;
 
+import com.deliciouspizza.cache.EntityCacheEvictor;
 import com.deliciouspizza.dto.product.ProductFilterDto;
 import com.deliciouspizza.dto.product.ProductInputDto;
 import com.deliciouspizza.dto.product.ProductResponseDto;
@@ -11,25 +12,91 @@ import com.deliciouspizza.model.product.Drink;
 import com.deliciouspizza.model.product.Pizza;
 import com.deliciouspizza.model.product.Product;
 import com.deliciouspizza.model.product.Sauce;
+import com.deliciouspizza.repository.ProductFullTextSearchRepository;
 import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.search.ProductSearchIndex;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Logger;
+
+import static com.deliciouspizza.config.TransactionCallbacks.afterCommit;
 
 @Service
 public class ProductService {
 
-    private final ProductRepository productRepository;
+    private static final Logger logger = Logger.getLogger(ProductService.class.getName());
 
-    public ProductService(ProductRepository productRepository) {
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFullTextSearchRepository productFullTextSearchRepository;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final int searchMaxLimit;
+
+    public ProductService(
+            ProductRepository productRepository,
+            ProductSearchIndex productSearchIndex,
+            ProductFullTextSearchRepository productFullTextSearchRepository,
+            EntityCacheEvictor entityCacheEvictor,
+            @Value("${products.search.max-limit:100}") int searchMaxLimit
+    ) {
         this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productFullTextSearchRepository = productFullTextSearchRepository;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.searchMaxLimit = Math.max(1, searchMaxLimit);
+    }
+
+    /**
+     * Builds the search index from all products. Changes made afterwards are applied to it one by one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSearchIndex() {
+        long start = System.nanoTime();
+
+        productSearchIndex.replaceAll(getAllProducts(null));
+
+        logger.info("Product search index loaded, products: " + productSearchIndex.size()
+                + ", ms: " + Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * Searches names and descriptions by words, word prefixes and, for words with typos, similar words.
+     * Served from memory.
+     *
+     * @param limit The number of products, capped at {@code products.search.max-limit}.
+     * @return The products matching every word of the query, best match first.
+     */
+    public List<ProductResponseDto> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, Math.clamp(limit, 1, searchMaxLimit)).stream()
+                .map(ProductSearchIndex.Hit::product)
+                .toList();
+    }
+
+    /**
+     * Searches names and descriptions by words and word prefixes in Postgres, combined with the product
+     * filters. Names similar to the query match as well, for typos. Needs no memory of its own, so it also
+     * suits catalogs too large for the in-memory index.
+     *
+     * @param limit The number of products, capped at {@code products.search.max-limit}.
+     * @return The matching products, best match first.
+     */
+    public List<ProductResponseDto> searchProductsFullText(String query, ProductFilterDto filterDto, int limit) {
+        return productFullTextSearchRepository.search(query, filterDto, Math.clamp(limit, 1, searchMaxLimit)).stream()
+                .map(this::mapProductToProductResponseDto)
+                .toList();
     }
 
     public List<ProductResponseDto> getAllProducts(ProductFilterDto filterDto) {
@@ -121,13 +188,18 @@ public class ProductService {
 
         productRepository.saveAndFlush(newProduct);
 
-        return mapProductToProductResponseDto(newProduct);
+        ProductResponseDto created = mapProductToProductResponseDto(newProduct);
+        afterCommit(() -> productSearchIndex.put(created));
+
+        return created;
     }
 
     public void deleteById(long id) {
         Product product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException("Id: " + id));
 
         productRepository.delete(product);
+        entityCacheEvictor.evictProduct(id);
+        afterCommit(() -> productSearchIndex.remove(id));
     }
 
     /**
@@ -146,6 +218,10 @@ public class ProductService {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + id));
 
+        if (requestDto.getVersion() != null && !requestDto.getVersion().equals(existingProduct.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+
         if (requestDto.getCategory() != null && !existingProduct.getCategory().equals(requestDto.getCategory())) {
             throw new OrderProductAlreadyExistsException.ProductCategoryMismatchException(
                     "Cannot change product category from " + existingProduct.getCategory() +
@@ -202,13 +278,17 @@ public class ProductService {
             } catch (IOException e) {
                 throw new RuntimeException("Failed to read image data for product update", e);
             }
-        } else if (photo != null && photo.isEmpty() && existingProduct.getImageData() != null) {
+        } else if (photo != null && photo.isEmpty() && existingProduct.isImagePresent()) {
             existingProduct.setImageData(null);
         }
 
-        productRepository.save(existingProduct);
+        Product savedProduct = productRepository.saveAndFlush(existingProduct);
+
+        ProductResponseDto updated = mapProductToProductResponseDto(savedProduct);
+        entityCacheEvictor.evictProduct(id);
+        afterCommit(() -> productSearchIndex.put(updated));
 
-        return mapProductToProductResponseDto(existingProduct);
+        return updated;
     }
 
     private ProductResponseDto mapProductToProductResponseDto(Product product) {
@@ -233,7 +313,8 @@ public class ProductService {
             dto.setIsAlcoholic(drink.getAlcoholic());
         }
 
-        dto.setHasImage(product.getImageData() != null && product.getImageData().length > 0);
+        dto.setHasImage(product.isImagePresent());
+        dto.setVersion(product.getVersion());
 
         return dto;
     }
@@ -0,0 +1,50 @@
+package com.deliciouspizza.service;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.product.ProductFilterDto;
+import com.deliciouspizza.dto.product.ProductResponseDto;
+import com.deliciouspizza.exception.OrderNotFoundException;
+import com.deliciouspizza.exception.ProductNotFoundException;
+import com.deliciouspizza.repository.reactive.ReactiveOrderRepository;
+import com.deliciouspizza.repository.reactive.ReactiveProductRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read methods of OrderService and ProductService. Nothing here blocks,
+ * so no thread is held while the database works; results are produced with the same Dtos and errors as
+ * the blocking API.
+ */
+@Service
+public class ReactiveReadService {
+
+    private final ReactiveOrderRepository reactiveOrderRepository;
+    private final ReactiveProductRepository reactiveProductRepository;
+
+    public ReactiveReadService(
+            ReactiveOrderRepository reactiveOrderRepository,
+            ReactiveProductRepository reactiveProductRepository
+    ) {
+        this.reactiveOrderRepository = reactiveOrderRepository;
+        this.reactiveProductRepository = reactiveProductRepository;
+    }
+
+    public Mono<OrderResponseDto> findOrderById(long id) {
+        return reactiveOrderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException("Id: " + id)));
+    }
+
+    public Flux<OrderResponseDto> findOrdersByUserId(long userId) {
+        return reactiveOrderRepository.findByUserId(userId);
+    }
+
+    public Flux<ProductResponseDto> findProducts(ProductFilterDto filterDto) {
+        return reactiveProductRepository.findAll(filterDto);
+    }
+
+    public Mono<ProductResponseDto> findProductById(long id) {
+        return reactiveProductRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Id: " + id)));
+    }
+}
@@ -1,15 +1,23 @@
 package com.deliciouspizza.service;
 
+import com.deliciouspizza.cache.EntityCacheEvictor;
 import com.deliciouspizza.dto.user.UserInputDto;
 import com.deliciouspizza.dto.user.UserUpdateDto;
 import com.deliciouspizza.dto.user.login.LoginInputDto;
 import com.deliciouspizza.dto.user.login.LoginOutputDto;
+import com.deliciouspizza.dto.user.login.RefreshTokenRequestDto;
+import com.deliciouspizza.exception.InvalidRefreshTokenException;
 import com.deliciouspizza.exception.UserAlreadyExistsException;
 import com.deliciouspizza.exception.UserNotFoundException;
 import com.deliciouspizza.model.user.User;
 import com.deliciouspizza.model.user.UserRole;
 import com.deliciouspizza.repository.UserRepository;
+import com.deliciouspizza.security.jwt.IssuedAccessToken;
 import com.deliciouspizza.security.jwt.JwtService;
+import com.deliciouspizza.security.jwt.RefreshTokenService;
+import com.deliciouspizza.security.jwt.revocation.TokenRevocationService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -22,36 +30,48 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.logging.Logger;
 
 @Service
 public class UserService {
 
+    private static final Logger logger = Logger.getLogger(UserService.class.getName());
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final EntityCacheEvictor entityCacheEvictor;
 
     public UserService(
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager,
-            JwtService jwtService
+            JwtService jwtService,
+            TokenRevocationService tokenRevocationService,
+            RefreshTokenService refreshTokenService,
+            EntityCacheEvictor entityCacheEvictor
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.entityCacheEvictor = entityCacheEvictor;
     }
 
+    /**
+     * Registers a new user with a single insert. Uniqueness of username and email is enforced by the
+     * database constraints, which also closes the race between concurrent registrations.
+     *
+     * @param userInputDto The Dto with the details of the new user.
+     * @return The saved user.
+     * @throws UserAlreadyExistsException If the username or email is already taken.
+     */
     public User registerNewUser(UserInputDto userInputDto) {
-        if (userRepository.existsByUsername(userInputDto.getUsername())) {
-            throw new UserAlreadyExistsException("Username: " + userInputDto.getUsername());
-        }
-
-        if (userRepository.existsByEmail(userInputDto.getEmail())) {
-            throw new UserAlreadyExistsException("Email: " + userInputDto.getEmail());
-        }
-
         User newUser = new User();
         UserRole newRole = userInputDto.getUserRole() == null ? UserRole.CUSTOMER : userInputDto.getUserRole();
 
@@ -61,7 +81,11 @@ public class UserService {
         newUser.setActive(true);
         newUser.setRole(newRole);
 
-        return userRepository.saveAndFlush(newUser);
+        try {
+            return userRepository.saveAndFlush(newUser);
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e, newUser.getUsername(), newUser.getEmail());
+        }
     }
 
     public User findById(long id) {
@@ -74,18 +98,45 @@ public class UserService {
         String newUsername = userUpdateDto.getUsername();
         String newEmail = userUpdateDto.getEmail();
 
-        if (userRepository.existsByUsername(newUsername)) {
-            throw new UserAlreadyExistsException("Username: " + newUsername);
+        user.setUsername(newUsername);
+        user.setEmail(newEmail);
+
+        try {
+            User updatedUser = userRepository.saveAndFlush(user);
+            entityCacheEvictor.evictUser(id);
+
+            return updatedUser;
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e, newUsername, newEmail);
         }
+    }
+
+    /**
+     * Maps a violation of the username or email unique constraint to UserAlreadyExistsException.
+     * Any other integrity violation is returned unchanged.
+     */
+    private RuntimeException translateUniqueViolation(DataIntegrityViolationException e, String username, String email) {
+        String constraintName = findConstraintName(e);
 
-        if (userRepository.existsByEmail(newEmail)) {
-            throw new UserAlreadyExistsException("Email: " + newEmail);
+        if (User.USERNAME_UNIQUE_CONSTRAINT.equals(constraintName)) {
+            return new UserAlreadyExistsException("Username: " + username);
         }
 
-        user.setUsername(newUsername);
-        user.setEmail(newEmail);
+        if (User.EMAIL_UNIQUE_CONSTRAINT.equals(constraintName)) {
+            return new UserAlreadyExistsException("Email: " + email);
+        }
+
+        return e;
+    }
+
+    private static String findConstraintName(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName();
+            }
+        }
 
-        return userRepository.saveAndFlush(user);
+        return null;
     }
 
     public User deactivateUser(long id) {
@@ -93,7 +144,12 @@ public class UserService {
 
         user.setActive(false);
 
-        return userRepository.saveAndFlush(user);
+        User deactivatedUser = userRepository.saveAndFlush(user);
+        entityCacheEvictor.evictUser(id);
+        refreshTokenService.revokeAllForUser(id);
+        tokenRevocationService.revokeAllForUser(id);
+
+        return deactivatedUser;
     }
 
     public User uploadUserPhoto(long id, MultipartFile photo) {
@@ -110,7 +166,6 @@ public class UserService {
     }
 
     public LoginOutputDto login(LoginInputDto loginInputDto) {
-        String jwtToken = "";
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginInputDto.getUsername(), loginInputDto.getPassword())
@@ -125,13 +180,9 @@ public class UserService {
                                     String.format("String with username: %s was not found", userDetails.getUsername()
                                     )));
 
-            jwtToken = jwtService.generateToken(userDetails, user.getRole().name());
+            rehashPasswordIfNeeded(user, loginInputDto.getPassword());
 
-            return new LoginOutputDto(
-                    jwtToken,
-                    user.getRole().name(),
-                    user.getId()
-            );
+            return issueTokens(user, refreshTokenService.issue(user.getId()));
 
         } catch (BadCredentialsException e) {
             e.printStackTrace();
@@ -144,4 +195,56 @@ public class UserService {
 
         return null;
     }
+
+    /**
+     * Exchanges a refresh token for a new access token and a rotated refresh token.
+     *
+     * @param requestDto The Dto holding the refresh token.
+     * @return The new token pair together with the role and id of the user.
+     * @throws com.deliciouspizza.exception.InvalidRefreshTokenException If the token is invalid, expired or reused,
+     *                                                                   or the user was deactivated.
+     */
+    public LoginOutputDto refresh(RefreshTokenRequestDto requestDto) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(requestDto.getRefreshToken());
+
+        User user = userRepository.findById(rotation.userId())
+                .filter(User::getActive)
+                .orElseThrow(() -> new InvalidRefreshTokenException("User is no longer active"));
+
+        return issueTokens(user, rotation.newRefreshToken());
+    }
+
+    public void logout(RefreshTokenRequestDto requestDto) {
+        refreshTokenService.revokeFamily(requestDto.getRefreshToken());
+    }
+
+    private LoginOutputDto issueTokens(User user, String refreshToken) {
+        IssuedAccessToken accessToken = jwtService.generateAccessToken(user.getUsername(), user.getRole().name());
+        tokenRevocationService.recordIssued(accessToken.tokenId(), user.getId(), accessToken.expiresAt());
+
+        return new LoginOutputDto(
+                accessToken.token(),
+                refreshToken,
+                user.getRole().name(),
+                user.getId()
+        );
+    }
+
+    /**
+     * Re-encodes the password with the current BCrypt cost when the stored hash was created with a different one.
+     * Only called after a successful authentication, so the raw password is known to be correct.
+     *
+     * @param user        The authenticated user.
+     * @param rawPassword The password the user just logged in with.
+     */
+    private void rehashPasswordIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            return;
+        }
+
+        user.setPasswordHash(passwordEncoder.encode(rawPassword));
+        userRepository.save(user);
+
+        logger.info("Upgraded password hash cost for user with id: " + user.getId());
+    }
 }
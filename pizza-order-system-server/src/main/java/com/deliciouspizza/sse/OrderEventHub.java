@@ -0,0 +1,197 @@
+package com.deliciouspizza.sse;
+
+import com.deliciouspizza.config.ExecutorFactory;
+import com.deliciouspizza.dto.order.OrderStatusEventDto;
+import com.deliciouspizza.event.OrderEventType;
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Fans out order status changes to SSE subscribers of a single order or of all orders of a user, and
+ * kitchen board changes to every board subscriber.
+ * <p>
+ * Events arrive from the outbox relay of this instance after the change committed, so subscribers only see
+ * all changes when the application runs as a single instance. Dispatching only queues the event on each
+ * subscriber; the actual writes run on a small sender pool, so a slow client never delays the relay. A
+ * stalled client holds a sender thread for at most one write timeout and is disconnected once too many of
+ * its events are queued behind that write, so it cannot keep delaying other clients. Heartbeats keep idle
+ * connections open through proxies and detect dead ones.
+ * </p>
+ */
+@Component
+public class OrderEventHub {
+
+    public static final String ORDER_STATUS_EVENT = "order-status";
+
+    // Board snapshots use a key no order has, so they never coalesce with a change
+    private static final long SNAPSHOT_KEY = -1;
+
+    private final Map<Long, Set<SseSubscriber>> subscribersByOrder = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseSubscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final Set<SseSubscriber> kitchenSubscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+    private final long timeoutMs;
+    private final int maxPendingPerSubscriber;
+
+    public OrderEventHub(
+            ExecutorFactory executorFactory,
+            @Value("${sse.sender-threads:4}") int senderThreads,
+            @Value("${sse.timeout-ms:1800000}") long timeoutMs,
+            @Value("${sse.max-pending-per-subscriber:256}") int maxPendingPerSubscriber
+    ) {
+        this.sender = executorFactory.newExecutor("sse-sender", senderThreads);
+        this.timeoutMs = timeoutMs;
+        this.maxPendingPerSubscriber = maxPendingPerSubscriber;
+    }
+
+    /**
+     * @param orderId The order to follow.
+     * @param current The current state, sent first so the client does not need a separate request.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribeToOrder(long orderId, OrderStatusEventDto current) {
+        return subscribe(subscribersByOrder, orderId, current);
+    }
+
+    public SseEmitter subscribeToUser(long userId) {
+        return subscribe(subscribersByUser, userId, null);
+    }
+
+    /**
+     * Subscribes to the kitchen board. The caller must hold the board lock so no change is published
+     * between taking the snapshot and registering the subscriber.
+     *
+     * @param snapshotEvent The name of the snapshot event.
+     * @param snapshot      The current board, sent first.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribeToKitchen(String snapshotEvent, Object snapshot) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        SseSubscriber subscriber = new SseSubscriber(emitter, maxPendingPerSubscriber, kitchenSubscribers::remove);
+
+        registerCallbacks(emitter, subscriber);
+
+        kitchenSubscribers.add(subscriber);
+        offer(subscriber, SNAPSHOT_KEY, snapshotEvent, null, snapshot);
+
+        return emitter;
+    }
+
+    /**
+     * Sends a board change to every board subscriber. Changes of the same order that have not been written
+     * yet are replaced by the newer one.
+     */
+    public void publishKitchenChange(long orderId, String name, Object change) {
+        for (SseSubscriber subscriber : kitchenSubscribers) {
+            offer(subscriber, orderId, name, null, change);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribersByOrder.values().stream().mapToInt(Set::size).sum()
+                + subscribersByUser.values().stream().mapToInt(Set::size).sum()
+                + kitchenSubscribers.size();
+    }
+
+    @EventListener
+    public void onOrderEvent(OrderLifecycleEvent event) {
+        if (!event.isStatusChange() && event.type() != OrderEventType.DELETED) {
+            return;
+        }
+
+        OrderStatusEventDto dto = new OrderStatusEventDto(
+                event.orderId(),
+                event.userId(),
+                event.type().name(),
+                event.status() == null ? null : event.status().name(),
+                event.previousStatus() == null ? null : event.previousStatus().name(),
+                event.occurredAt()
+        );
+
+        dispatch(subscribersByOrder.get(event.orderId()), event.eventId(), dto);
+        dispatch(subscribersByUser.get(event.userId()), event.eventId(), dto);
+    }
+
+    @Scheduled(fixedDelayString = "${sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        heartbeat(subscribersByOrder);
+        heartbeat(subscribersByUser);
+        heartbeat(kitchenSubscribers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private SseEmitter subscribe(Map<Long, Set<SseSubscriber>> subscribers, long key, OrderStatusEventDto current) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        SseSubscriber subscriber = new SseSubscriber(emitter, maxPendingPerSubscriber,
+                closed -> subscribers.computeIfPresent(key, (ignored, set) -> {
+                    set.remove(closed);
+                    return set.isEmpty() ? null : set;
+                }));
+
+        registerCallbacks(emitter, subscriber);
+
+        subscribers.compute(key, (ignored, set) -> {
+            Set<SseSubscriber> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(subscriber);
+            return result;
+        });
+
+        if (current != null) {
+            offer(subscriber, current.getOrderId(), ORDER_STATUS_EVENT, null, current);
+        }
+
+        return emitter;
+    }
+
+    private static void registerCallbacks(SseEmitter emitter, SseSubscriber subscriber) {
+        Runnable remove = subscriber::close;
+
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+    }
+
+    private void dispatch(Set<SseSubscriber> subscribers, Long eventId, OrderStatusEventDto event) {
+        if (subscribers == null) {
+            return;
+        }
+
+        for (SseSubscriber subscriber : subscribers) {
+            offer(subscriber, event.getOrderId(), ORDER_STATUS_EVENT, eventId, event);
+        }
+    }
+
+    private void offer(SseSubscriber subscriber, long key, String name, Long eventId, Object data) {
+        if (subscriber.offer(key, name, eventId, data)) {
+            sender.execute(subscriber::drain);
+        }
+    }
+
+    private void heartbeat(Map<Long, Set<SseSubscriber>> subscribers) {
+        for (Set<SseSubscriber> set : subscribers.values()) {
+            heartbeat(set);
+        }
+    }
+
+    private void heartbeat(Set<SseSubscriber> subscribers) {
+        for (SseSubscriber subscriber : subscribers) {
+            if (subscriber.offerHeartbeat()) {
+                sender.execute(subscriber::drain);
+            }
+        }
+    }
+}
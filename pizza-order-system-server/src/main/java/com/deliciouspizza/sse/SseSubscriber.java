@@ -0,0 +1,188 @@
+package com.deliciouspizza.sse;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * One open SSE connection.
+ * <p>
+ * Idle subscribers hold only the emitter and a few flags. Events waiting to be written are kept per key
+ * (the order id) and a newer event replaces an older one with the same key, so a slow client receives the
+ * latest state of each order instead of a growing backlog. A client that has more than {@code maxPending}
+ * events queued while a write is still in progress is disconnected and picks up the current state when it
+ * reconnects; how long a single write may block is bounded by the connection timeout of the server.
+ * </p>
+ * <p>
+ * The emitter serializes sends and completion with one lock, so only the draining thread ever touches it:
+ * otherwise a thread offering an event would wait for the write of a stalled client.
+ * </p>
+ */
+final class SseSubscriber {
+
+    private final SseEmitter emitter;
+    private final int maxPending;
+    private final Consumer<SseSubscriber> onClose;
+
+    // Guarded by this
+    private Map<Long, EventEntry> pending;
+    private int queued;
+    private boolean heartbeatDue;
+    private boolean draining;
+    private boolean closed;
+    private boolean evicted;
+
+    /**
+     * @param onClose Unregisters the subscriber; called once when a write fails or the client falls behind.
+     */
+    SseSubscriber(SseEmitter emitter, int maxPending, Consumer<SseSubscriber> onClose) {
+        this.emitter = emitter;
+        this.maxPending = maxPending;
+        this.onClose = onClose;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * Queues an event, replacing a pending one with the same key.
+     *
+     * @param key     The coalescing key, usually the order id.
+     * @param name    The SSE event name.
+     * @param eventId The SSE event id, or null.
+     * @param data    The payload, written as JSON.
+     * @return Whether the caller has to schedule {@link #drain()}.
+     */
+    synchronized boolean offer(long key, String name, Long eventId, Object data) {
+        if (closed) {
+            return false;
+        }
+
+        if (pending == null) {
+            pending = new LinkedHashMap<>(4);
+        }
+
+        pending.remove(key);
+        pending.put(key, new EventEntry(name, eventId, data));
+
+        // Coalesced events count as well: a client stuck in one write never sends the replaced ones either
+        if (++queued > maxPending) {
+            closed = true;
+            evicted = true;
+            pending = null;
+            return false;
+        }
+
+        return startDraining();
+    }
+
+    /**
+     * @return Whether the caller has to schedule {@link #drain()}.
+     */
+    synchronized boolean offerHeartbeat() {
+        if (closed) {
+            return false;
+        }
+
+        heartbeatDue = true;
+
+        return startDraining();
+    }
+
+    /**
+     * Stops queueing events and unregisters the subscriber, once the emitter completed, timed out or failed.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            pending = null;
+        }
+
+        onClose.accept(this);
+    }
+
+    /**
+     * Writes everything pending. Runs on a sender thread; at most one drain per subscriber runs at a time.
+     */
+    void drain() {
+        while (true) {
+            List<EventEntry> events;
+            boolean heartbeat;
+            boolean evict;
+
+            synchronized (this) {
+                evict = evicted;
+
+                if (evict || closed || ((pending == null || pending.isEmpty()) && !heartbeatDue)) {
+                    evicted = false;
+                    draining = false;
+                    pending = null;
+                    events = null;
+                    heartbeat = false;
+                } else {
+                    events = pending == null ? List.of() : new ArrayList<>(pending.values());
+                    heartbeat = heartbeatDue && events.isEmpty();
+                    pending = null;
+                    queued = 0;
+                    heartbeatDue = false;
+                }
+            }
+
+            if (events == null) {
+                // Completed here rather than where the client fell behind, since a write may have been blocking
+                if (evict) {
+                    onClose.accept(this);
+                    emitter.complete();
+                }
+                return;
+            }
+
+            try {
+                for (EventEntry entry : events) {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                            .name(entry.name())
+                            .data(entry.data(), MediaType.APPLICATION_JSON);
+
+                    if (entry.eventId() != null) {
+                        builder.id(String.valueOf(entry.eventId()));
+                    }
+
+                    emitter.send(builder);
+                }
+
+                if (heartbeat) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, or the write timed out on a stalled client
+                synchronized (this) {
+                    draining = false;
+                }
+
+                close();
+                emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private boolean startDraining() {
+        if (draining) {
+            return false;
+        }
+
+        draining = true;
+
+        return true;
+    }
+
+    private record EventEntry(String name, Long eventId, Object data) {
+    }
+}
@@ -0,0 +1,20 @@
+-- Order totals kept on the order and maintained with atomic deltas on every line item change,
+-- so reading an order never has to sum its lines. Existing orders are backfilled from their lines.
+ALTER TABLE orders
+    ADD COLUMN IF NOT EXISTS subtotal NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS item_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS line_count INT NOT NULL DEFAULT 0;
+
+UPDATE orders o
+SET subtotal = t.subtotal,
+    item_count = t.item_count,
+    line_count = t.line_count
+FROM (
+    SELECT order_id,
+           SUM(quantity * price_at_order_time) AS subtotal,
+           SUM(quantity) AS item_count,
+           COUNT(*) AS line_count
+    FROM orders_products
+    GROUP BY order_id
+) t
+WHERE o.id = t.order_id;
@@ -0,0 +1,22 @@
+-- Secondary indexes for the queries the services actually run. orders_products(order_id) is already
+-- served by the leading column of uk_orders_products_order_product, and users(username) by uk_users_username.
+
+-- Line lookups by product and the foreign key check when a product is deleted
+CREATE INDEX IF NOT EXISTS idx_orders_products_product_id ON orders_products (product_id);
+
+-- Orders of a user (findByUser_Username, the userId/username filters), optionally within a date range
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_created_at ON orders (user_id, created_at);
+
+-- The date range filter without a user
+CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders (created_at);
+
+-- The status filter, optionally within a date range
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at ON orders (status, created_at);
+
+-- Open orders (kitchen board, status transitions) are a small, hot fraction of the table
+CREATE INDEX IF NOT EXISTS idx_orders_open_created_at ON orders (created_at) WHERE status IN ('NEW', 'PROCESSING');
+
+-- The product filter: equality on category, status and active first, then the price range
+CREATE INDEX IF NOT EXISTS idx_products_category_status_active_price ON products (category, status, is_active, price);
+
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (name);
@@ -0,0 +1,145 @@
+-- Orders and their lines are range-partitioned by the month the order was created, so date filters only
+-- scan the matching months and old months can be archived by detaching their partitions.
+-- A lines table cannot be partitioned by a column of another table, so each line carries the creation
+-- time of its order; the primary, unique and foreign keys include the partition key as Postgres requires.
+
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE orders_products RENAME TO orders_products_unpartitioned;
+
+-- The sequences are owned by the old id columns and would be dropped with them
+ALTER SEQUENCE orders_id_seq OWNED BY NONE;
+ALTER SEQUENCE orders_products_id_seq OWNED BY NONE;
+
+CREATE TABLE orders (
+    id INT NOT NULL DEFAULT nextval('orders_id_seq'),
+    status VARCHAR(20) DEFAULT 'NEW',
+    user_id INT NOT NULL,
+    address VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    subtotal NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    item_count INT NOT NULL DEFAULT 0,
+    line_count INT NOT NULL DEFAULT 0
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE orders_products (
+    id INT NOT NULL DEFAULT nextval('orders_products_id_seq'),
+    order_id INT NOT NULL,
+    order_created_at TIMESTAMP NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    price_at_order_time NUMERIC(10, 2) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
+) PARTITION BY RANGE (order_created_at);
+
+-- Catches rows outside the created months; kept empty in normal operation
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE orders_products_default PARTITION OF orders_products DEFAULT;
+
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- Creates the monthly partitions of both tables for every month in [from_month, to_month) that does not
+-- have them yet. Returns the number of months created.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_month DATE, to_month DATE) RETURNS INT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::DATE;
+    month_end DATE;
+    suffix TEXT;
+    created INT := 0;
+BEGIN
+    WHILE month_start < to_month LOOP
+        month_end := (month_start + INTERVAL '1 month')::DATE;
+        suffix := to_char(month_start, '"y"YYYY"m"MM');
+
+        IF to_regclass('orders_' || suffix) IS NULL THEN
+            -- Attaching a range the default partition already holds rows for would fail; leave it to an operator
+            IF EXISTS (SELECT 1 FROM orders_default WHERE created_at >= month_start AND created_at < month_end) THEN
+                RAISE WARNING 'orders_default holds rows for %, partition not created', suffix;
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                        'orders_' || suffix, month_start, month_end);
+                EXECUTE format('CREATE TABLE %I PARTITION OF orders_products FOR VALUES FROM (%L) TO (%L)',
+                        'orders_products_' || suffix, month_start, month_end);
+                created := created + 1;
+            END IF;
+        END IF;
+
+        month_start := month_end;
+    END LOOP;
+
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches the monthly partitions of both tables that end on or before before_month and moves them to
+-- the archive schema. Lines are detached first and lose their foreign key to orders, so the orders
+-- partition of the same month can be detached after them. Returns the names of the archived orders
+-- partitions.
+CREATE OR REPLACE FUNCTION detach_order_partitions(before_month DATE) RETURNS SETOF TEXT AS $$
+DECLARE
+    partition_name TEXT;
+    suffix TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'orders'::regclass
+          AND c.relname ~ '^orders_y[0-9]{4}m[0-9]{2}$'
+        ORDER BY c.relname
+    LOOP
+        suffix := substr(partition_name, length('orders_') + 1);
+
+        IF (to_date(suffix, '"y"YYYY"m"MM') + INTERVAL '1 month')::DATE <= before_month THEN
+            EXECUTE format('ALTER TABLE orders_products DETACH PARTITION %I', 'orders_products_' || suffix);
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT IF EXISTS fk_order', 'orders_products_' || suffix);
+            EXECUTE format('ALTER TABLE %I SET SCHEMA archive', 'orders_products_' || suffix);
+
+            EXECUTE format('ALTER TABLE orders DETACH PARTITION %I', partition_name);
+            EXECUTE format('ALTER TABLE %I SET SCHEMA archive', partition_name);
+
+            RETURN NEXT partition_name;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_order_partitions(
+        COALESCE((SELECT MIN(created_at) FROM orders_unpartitioned), CURRENT_DATE)::DATE,
+        (date_trunc('month', CURRENT_DATE) + INTERVAL '4 months')::DATE
+);
+
+INSERT INTO orders (id, status, user_id, address, created_at, updated_at, version, subtotal, item_count, line_count)
+SELECT id, status, user_id, address, COALESCE(created_at, updated_at, CURRENT_TIMESTAMP), updated_at,
+       version, subtotal, item_count, line_count
+FROM orders_unpartitioned;
+
+INSERT INTO orders_products (id, order_id, order_created_at, product_id, quantity, price_at_order_time, version)
+SELECT op.id, op.order_id, o.created_at, op.product_id, op.quantity, op.price_at_order_time, op.version
+FROM orders_products_unpartitioned op
+JOIN orders o ON o.id = op.order_id;
+
+DROP TABLE orders_products_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE orders_products_id_seq OWNED BY orders_products.id;
+
+ALTER TABLE orders
+    ADD CONSTRAINT orders_pkey PRIMARY KEY (id, created_at),
+    ADD CONSTRAINT fk_user FOREIGN KEY (user_id) REFERENCES users (id),
+    ADD CONSTRAINT chk_status CHECK (status IN ('NEW', 'PROCESSING', 'COMPLETED', 'CANCELLED'));
+
+ALTER TABLE orders_products
+    ADD CONSTRAINT orders_products_pkey PRIMARY KEY (id, order_created_at),
+    ADD CONSTRAINT uk_orders_products_order_product UNIQUE (order_id, product_id, order_created_at),
+    ADD CONSTRAINT fk_order FOREIGN KEY (order_id, order_created_at) REFERENCES orders (id, created_at),
+    ADD CONSTRAINT fk_product FOREIGN KEY (product_id) REFERENCES products (id);
+
+-- The indexes of V12, now created on every partition
+CREATE INDEX idx_orders_products_product_id ON orders_products (product_id);
+CREATE INDEX idx_orders_user_id_created_at ON orders (user_id, created_at);
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at);
+CREATE INDEX idx_orders_open_created_at ON orders (created_at) WHERE status IN ('NEW', 'PROCESSING');
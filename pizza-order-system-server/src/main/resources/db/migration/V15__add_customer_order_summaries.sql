@@ -0,0 +1,37 @@
+-- Read model for the order history of a customer: one row per order with its lines as JSON and its totals,
+-- rewritten from orders and orders_products in the transaction of every order change. A history page is a
+-- single range scan of idx_customer_order_summaries_user_created; no join and no per-order line queries.
+-- Rows of archived orders are kept, so the history still lists orders that left the orders table.
+CREATE TABLE customer_order_summaries (
+    order_id INT NOT NULL,
+    user_id INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    address VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    subtotal NUMERIC(12, 2) NOT NULL,
+    item_count INT NOT NULL,
+    line_count INT NOT NULL,
+    items JSONB NOT NULL,
+    CONSTRAINT pk_customer_order_summaries PRIMARY KEY (order_id)
+);
+
+-- Matches the keyset: user, then newest first with the id breaking ties
+CREATE INDEX idx_customer_order_summaries_user_created
+    ON customer_order_summaries (user_id, created_at DESC, order_id DESC);
+
+INSERT INTO customer_order_summaries (order_id, user_id, status, address, created_at, updated_at, subtotal, item_count, line_count, items)
+SELECT o.id, o.user_id, o.status, o.address, o.created_at, o.updated_at, o.subtotal, o.item_count, o.line_count,
+       COALESCE((
+           SELECT jsonb_agg(jsonb_build_object(
+                      'orderId', op.order_id,
+                      'productId', op.product_id,
+                      'productName', p.name,
+                      'quantity', op.quantity,
+                      'priceAtOrderTime', op.price_at_order_time
+                  ) ORDER BY op.id)
+           FROM orders_products op
+           JOIN products p ON p.id = op.product_id
+           WHERE op.order_id = o.id AND op.order_created_at = o.created_at
+       ), '[]'::JSONB)
+FROM orders o;
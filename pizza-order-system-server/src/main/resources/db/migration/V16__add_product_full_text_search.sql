@@ -0,0 +1,17 @@
+-- Full-text and fuzzy product search in Postgres, for catalogs too large for the in-memory index.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- The 'simple' configuration lowercases without stemming, which suits product names better than an English
+-- dictionary would. Name words get weight A and rank above description words with weight B.
+ALTER TABLE products
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(name, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(description, '')), 'B')
+    ) STORED;
+
+-- Word and word prefix matches
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
+
+-- Names similar to a misspelled query word
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING GIN (name gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- Whether a product has an image, so listing products never has to read the image data itself.
+ALTER TABLE products
+    ADD COLUMN has_image BOOLEAN GENERATED ALWAYS AS (COALESCE(octet_length(image_data), 0) > 0) STORED;
@@ -0,0 +1,9 @@
+CREATE TABLE access_tokens (
+    jti VARCHAR(36) PRIMARY KEY,
+    user_id INT NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_access_tokens_user_active ON access_tokens (user_id) WHERE revoked_at IS NULL;
+CREATE INDEX idx_access_tokens_expires_at ON access_tokens (expires_at);
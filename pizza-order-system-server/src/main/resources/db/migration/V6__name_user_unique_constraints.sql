@@ -0,0 +1,17 @@
+-- Registration relies on these constraints instead of existence checks, and maps a violation back to the
+-- offending field by constraint name, so both get stable names. V1 declared them inline; databases created
+-- without the email constraint get it added here.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'users_username_key') THEN
+        ALTER TABLE users RENAME CONSTRAINT users_username_key TO uk_users_username;
+    ELSIF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_users_username') THEN
+        ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username);
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'users_email_key') THEN
+        ALTER TABLE users RENAME CONSTRAINT users_email_key TO uk_users_email;
+    ELSIF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_users_email') THEN
+        ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
+    END IF;
+END $$;
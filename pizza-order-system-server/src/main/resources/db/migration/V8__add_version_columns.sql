@@ -0,0 +1,5 @@
+-- Optimistic locking: JPA increments the version on every update and fails the update when the row was
+-- changed since it was read. Existing rows start at version 0.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders_products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
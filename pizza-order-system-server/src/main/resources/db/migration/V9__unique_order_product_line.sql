@@ -0,0 +1,21 @@
+-- One line per product and order, so quantities can be incremented with INSERT ... ON CONFLICT.
+-- Duplicate lines left by earlier concurrent adds are merged into the oldest one first.
+WITH totals AS (
+    SELECT MIN(id) AS keep_id, SUM(quantity) AS quantity
+    FROM orders_products
+    GROUP BY order_id, product_id
+    HAVING COUNT(*) > 1
+)
+UPDATE orders_products op
+SET quantity = totals.quantity
+FROM totals
+WHERE op.id = totals.keep_id;
+
+DELETE FROM orders_products op
+USING orders_products keep
+WHERE op.order_id = keep.order_id
+  AND op.product_id = keep.product_id
+  AND op.id > keep.id;
+
+ALTER TABLE orders_products
+    ADD CONSTRAINT uk_orders_products_order_product UNIQUE (order_id, product_id);
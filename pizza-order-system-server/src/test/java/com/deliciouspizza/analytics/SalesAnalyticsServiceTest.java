@@ -0,0 +1,354 @@
+package com.deliciouspizza.analytics;
+
+import com.deliciouspizza.analytics.columnar.OrderLineColumnStore;
+import com.deliciouspizza.config.ExecutorFactory;
+import com.deliciouspizza.dto.analytics.AdHocSalesQueryDto;
+import com.deliciouspizza.dto.analytics.AdHocSalesRowDto;
+import com.deliciouspizza.dto.analytics.SalesBucketDto;
+import com.deliciouspizza.dto.analytics.SalesGranularity;
+import com.deliciouspizza.dto.analytics.SalesGrouping;
+import com.deliciouspizza.dto.analytics.SalesQueryDto;
+import com.deliciouspizza.dto.order.OrderUpdateDto;
+import com.deliciouspizza.exception.InvalidAnalyticsRangeException;
+import com.deliciouspizza.exception.OrderNotFoundException;
+import com.deliciouspizza.exception.OrderStatusConflictException;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.orders_products.OrderProduct;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.SalesRollupRepository;
+import com.deliciouspizza.repository.UserRepository;
+import com.deliciouspizza.service.OpenRouteService;
+import com.deliciouspizza.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Completes an order far in the past, so the buckets it lands in hold nothing else. Not transactional:
+ * the rebuild runs its chunks on other threads and has to see the committed order.
+ */
+@SpringBootTest
+class SalesAnalyticsServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2002, 3, 4, 10, 15);
+    private static final LocalDate DAY = CREATED_AT.toLocalDate();
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private OrderLineColumnStore orderLineColumnStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ExecutorFactory executorFactory;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    private TransactionTemplate transactionTemplate;
+    private User customer;
+    private Product pizza;
+    private Order order;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        User user = new User();
+        user.setUsername("sales-customer");
+        user.setEmail("sales-customer@example.com");
+        user.setPasswordHash("not-used");
+        user.setRole(UserRole.CUSTOMER);
+        user.setActive(true);
+        user.setAddress("Address");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        customer = userRepository.save(user);
+
+        pizza = productRepository.save(new Pizza(ProductStatus.ACTIVE, "Sales Pizza", "Desc", ProductSize.MEDIUM,
+                new BigDecimal("10.00"), true, BigDecimal.ZERO));
+
+        order = createOrder(3);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sales_hourly WHERE product_id = ?", pizza.getId());
+        jdbcTemplate.update("DELETE FROM sales_daily WHERE product_id = ?", pizza.getId());
+        orderRepository.deleteAllById(orderIds);
+        productRepository.deleteById(pizza.getId());
+        userRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    void findSales_shouldCountOrder_whenOrderCompletes() {
+        complete();
+
+        List<SalesBucketDto> hourly = salesAnalyticsService.findSales(query(SalesGranularity.HOUR, SalesGrouping.PRODUCT));
+        List<SalesBucketDto> daily = salesAnalyticsService.findSales(query(SalesGranularity.DAY, SalesGrouping.CATEGORY));
+
+        assertEquals(1, hourly.size());
+        assertEquals(CREATED_AT.withMinute(0), hourly.getFirst().getBucketStart());
+        assertEquals(pizza.getId(), hourly.getFirst().getProductId());
+        assertEquals(3, hourly.getFirst().getQuantity());
+        assertEquals(0, new BigDecimal("30.00").compareTo(hourly.getFirst().getRevenue()));
+
+        assertEquals(1, daily.size());
+        assertEquals(DAY.atStartOfDay(), daily.getFirst().getBucketStart());
+        assertEquals("PIZZA", daily.getFirst().getCategory());
+        assertEquals(3, daily.getFirst().getQuantity());
+    }
+
+    @Test
+    void findSales_shouldNotCountOrder_untilItCompletes() {
+        assertEquals(List.of(), salesAnalyticsService.findSales(query(SalesGranularity.DAY, SalesGrouping.TOTAL)));
+    }
+
+    @Test
+    void removeItemFromOrder_shouldBeRefused_onceTheOrderIsCounted() {
+        complete();
+
+        assertThrows(OrderStatusConflictException.class, () -> orderService.removeItemFromOrder(order.getId(), pizza.getId()));
+        assertThrows(OrderNotFoundException.class, () -> orderService.removeItemFromOrder(Integer.MAX_VALUE, pizza.getId()));
+
+        assertTotalQuantity(3);
+    }
+
+    @Test
+    void rebuild_shouldRecomputeSameValues_whenRollupsAlreadyHoldThem() {
+        complete();
+        jdbcTemplate.update("UPDATE sales_daily SET quantity = 99 WHERE product_id = ?", pizza.getId());
+
+        salesAnalyticsService.rebuild(DAY.minusDays(10), DAY.plusDays(10));
+
+        List<SalesBucketDto> daily = salesAnalyticsService.findSales(query(SalesGranularity.DAY, SalesGrouping.PRODUCT));
+        List<SalesBucketDto> hourly = salesAnalyticsService.findSales(query(SalesGranularity.HOUR, SalesGrouping.PRODUCT));
+
+        assertEquals(3, daily.getFirst().getQuantity());
+        assertEquals(3, hourly.getFirst().getQuantity());
+    }
+
+    @Test
+    void findAdHocSales_shouldFilterByDayOfWeek_afterColumnsReload() {
+        complete();
+        orderLineColumnStore.reload();
+
+        AdHocSalesQueryDto query = new AdHocSalesQueryDto();
+        query.setFrom(DAY.atStartOfDay());
+        query.setTo(DAY.plusDays(1).atStartOfDay());
+        query.setDays(Set.of(CREATED_AT.getDayOfWeek()));
+
+        List<AdHocSalesRowDto> rows = salesAnalyticsService.findAdHocSales(query);
+
+        assertEquals(1, rows.size());
+        assertEquals(String.valueOf(pizza.getId()), rows.getFirst().getKey());
+        assertEquals("Sales Pizza", rows.getFirst().getLabel());
+        assertEquals(3, rows.getFirst().getQuantity());
+        assertEquals(0, new BigDecimal("30.00").compareTo(rows.getFirst().getRevenue()));
+
+        query.setDays(Set.of(CREATED_AT.getDayOfWeek().plus(1)));
+
+        assertEquals(List.of(), salesAnalyticsService.findAdHocSales(query));
+    }
+
+    @Test
+    void rebuild_shouldRefuseDaysThatMayBeArchived() {
+        SalesAnalyticsService archiving = new SalesAnalyticsService(salesRollupRepository, orderLineColumnStore,
+                transactionManager, executorFactory, 1, 7, 92, 1000, true, 365, 0);
+        SalesAnalyticsService detaching = new SalesAnalyticsService(salesRollupRepository, orderLineColumnStore,
+                transactionManager, executorFactory, 1, 7, 92, 1000, false, 365, 2);
+        complete();
+
+        assertThrows(InvalidAnalyticsRangeException.class, () -> archiving.rebuild(DAY, DAY.plusDays(1)));
+        assertThrows(InvalidAnalyticsRangeException.class, () -> detaching.rebuild(DAY, DAY.plusDays(1)));
+        assertThrows(InvalidAnalyticsRangeException.class,
+                () -> detaching.rebuild(LocalDate.now().withDayOfMonth(1).minusMonths(3), LocalDate.now()));
+
+        assertTotalQuantity(3);
+    }
+
+    /**
+     * The rebuild holds its day locks until the test lets it commit, so the completion has to wait for it
+     * and then add on top of the rebuilt sums.
+     */
+    @Test
+    void rebuild_shouldNotLoseCompletion_whenOrderCompletesDuringRebuild() throws Exception {
+        complete();
+        Order second = createOrder(2);
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> rebuild = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                salesRollupRepository.rebuild(DAY, DAY.plusDays(1));
+                rebuilt.countDown();
+                await(commit);
+            }));
+
+            assertTrue(rebuilt.await(10, TimeUnit.SECONDS));
+            Future<?> completion = executor.submit(() -> complete(second));
+
+            assertThrows(TimeoutException.class, () -> completion.get(500, TimeUnit.MILLISECONDS));
+            commit.countDown();
+            rebuild.get(10, TimeUnit.SECONDS);
+            completion.get(10, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        assertTotalQuantity(5);
+    }
+
+    /**
+     * The completion holds its day lock until the test lets it commit, so the rebuild has to wait for it
+     * and then read its lines.
+     */
+    @Test
+    void rebuild_shouldIncludeCompletion_whenOrderCompletedBeforeRebuildStarts() throws Exception {
+        complete();
+        Order second = createOrder(2);
+        CountDownLatch completed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> completion = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                complete(second);
+                completed.countDown();
+                await(commit);
+            }));
+
+            assertTrue(completed.await(10, TimeUnit.SECONDS));
+            Future<?> rebuild = executor.submit(() -> salesAnalyticsService.rebuild(DAY, DAY.plusDays(1)));
+
+            assertThrows(TimeoutException.class, () -> rebuild.get(500, TimeUnit.MILLISECONDS));
+            commit.countDown();
+            completion.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        assertTotalQuantity(5);
+    }
+
+    private void assertTotalQuantity(long quantity) {
+        List<SalesBucketDto> daily = salesAnalyticsService.findSales(query(SalesGranularity.DAY, SalesGrouping.TOTAL));
+        List<SalesBucketDto> hourly = salesAnalyticsService.findSales(query(SalesGranularity.HOUR, SalesGrouping.TOTAL));
+
+        assertEquals(quantity, daily.getFirst().getQuantity());
+        assertEquals(quantity, hourly.getFirst().getQuantity());
+    }
+
+    private Order createOrder(int quantity) {
+        Order newOrder = new Order();
+        newOrder.setUser(customer);
+        newOrder.setAddress("Sales Address");
+        newOrder.setStatus(OrderStatus.PROCESSING);
+        newOrder.setCreatedAt(CREATED_AT);
+        newOrder.setUpdatedAt(CREATED_AT);
+
+        OrderProduct line = new OrderProduct();
+        line.setOrder(newOrder);
+        line.setProduct(pizza);
+        line.setQuantity(quantity);
+        line.setPriceAtOrderTime(pizza.getPrice());
+        newOrder.getOrderProducts().add(line);
+
+        Order saved = orderRepository.save(newOrder);
+        orderIds.add(saved.getId());
+        return saved;
+    }
+
+    private void complete() {
+        complete(order);
+    }
+
+    private void complete(Order toComplete) {
+        OrderUpdateDto updateDto = new OrderUpdateDto();
+        updateDto.setStatus(OrderStatus.COMPLETED.name());
+        updateDto.setAddress("Sales Address");
+
+        orderService.updateOrder(toComplete.getId(), updateDto);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SalesQueryDto query(SalesGranularity granularity, SalesGrouping grouping) {
+        SalesQueryDto query = new SalesQueryDto();
+        query.setFrom(DAY.atStartOfDay());
+        query.setTo(DAY.plusDays(1).atStartOfDay());
+        query.setGranularity(granularity);
+        query.setGroupBy(grouping);
+        return query;
+    }
+}
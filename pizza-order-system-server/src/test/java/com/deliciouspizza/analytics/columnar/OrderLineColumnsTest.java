@@ -0,0 +1,86 @@
+package com.deliciouspizza.analytics.columnar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderLineColumnsTest {
+
+    // 2025-07-04 was a Friday
+    private static final LocalDateTime FRIDAY = LocalDateTime.of(2025, 7, 4, 18, 30);
+    private static final LocalDateTime SATURDAY = FRIDAY.plusDays(1);
+
+    private static final int PIZZA = 0;
+    private static final int DRINK = 1;
+
+    private final OrderLineColumns columns = OrderLineColumns.builder(0)
+            .add(1, PIZZA, minute(FRIDAY), 2, 1000)
+            .add(2, PIZZA, minute(FRIDAY), 1, 1500)
+            .add(3, DRINK, minute(FRIDAY.withHour(12)), 4, 250)
+            .add(1, PIZZA, minute(SATURDAY), 5, 1000)
+            .add(1, PIZZA, minute(FRIDAY.minusYears(1)), 9, 1000)
+            .build();
+
+    @Test
+    void aggregate_shouldRankProductsByRevenue_withinRangeAndDays() {
+        List<GroupTotal> totals = columns.aggregate(query(1 << DayOfWeek.FRIDAY.ordinal(), ColumnarQuery.ALL_CATEGORIES,
+                ColumnarGroupBy.PRODUCT, ColumnarMetric.REVENUE, 10), false);
+
+        assertEquals(List.of(
+                new GroupTotal(1, 2, 2000, 1),
+                new GroupTotal(2, 1, 1500, 1),
+                new GroupTotal(3, 4, 1000, 1)
+        ), totals);
+    }
+
+    @Test
+    void aggregate_shouldApplyLimitAndCategoryFilter() {
+        List<GroupTotal> totals = columns.aggregate(query(ColumnarQuery.ALL_DAYS, 1 << PIZZA,
+                ColumnarGroupBy.PRODUCT, ColumnarMetric.QUANTITY, 1), false);
+
+        assertEquals(List.of(new GroupTotal(1, 7, 7000, 2)), totals);
+    }
+
+    @Test
+    void aggregate_shouldGroupByDayOfWeekAndHourOfDay() {
+        List<GroupTotal> byDay = columns.aggregate(query(ColumnarQuery.ALL_DAYS, ColumnarQuery.ALL_CATEGORIES,
+                ColumnarGroupBy.DAY_OF_WEEK, ColumnarMetric.LINES, 7), false);
+        List<GroupTotal> byHour = columns.aggregate(query(ColumnarQuery.ALL_DAYS, ColumnarQuery.ALL_CATEGORIES,
+                ColumnarGroupBy.HOUR_OF_DAY, ColumnarMetric.LINES, 24), false);
+
+        assertEquals(DayOfWeek.FRIDAY.ordinal(), byDay.get(0).group());
+        assertEquals(3, byDay.get(0).lines());
+        assertEquals(DayOfWeek.SATURDAY.ordinal(), byDay.get(1).group());
+
+        assertEquals(18, byHour.get(0).group());
+        assertEquals(3, byHour.get(0).lines());
+        assertEquals(12, byHour.get(1).group());
+    }
+
+    @Test
+    void aggregate_shouldMatchSequential_whenParallelOverManyChunks() {
+        OrderLineColumns.Builder builder = OrderLineColumns.builder(0);
+        for (int i = 0; i < 3 * OrderLineColumns.CHUNK_SIZE + 17; i++) {
+            builder.add(i % 50, i % 3, minute(FRIDAY) + i % 10_000, 1 + i % 4, 100 + i % 900);
+        }
+        OrderLineColumns many = builder.build();
+
+        ColumnarQuery query = new ColumnarQuery(Integer.MIN_VALUE, Integer.MAX_VALUE, ColumnarQuery.ALL_DAYS,
+                ColumnarQuery.ALL_CATEGORIES, ColumnarGroupBy.PRODUCT, ColumnarMetric.REVENUE, 50);
+
+        assertEquals(many.aggregate(query, false), many.aggregate(query, true));
+    }
+
+    private static ColumnarQuery query(int days, int categories, ColumnarGroupBy groupBy, ColumnarMetric metric, int limit) {
+        return new ColumnarQuery(minute(FRIDAY.minusDays(1)), minute(SATURDAY.plusDays(1)), days, categories,
+                groupBy, metric, limit);
+    }
+
+    private static int minute(LocalDateTime time) {
+        return OrderLineColumns.toEpochMinute(time);
+    }
+}
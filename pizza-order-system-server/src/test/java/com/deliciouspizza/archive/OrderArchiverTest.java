@@ -0,0 +1,150 @@
+package com.deliciouspizza.archive;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.exception.OrderNotFoundException;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.orders_products.OrderProduct;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.UserRepository;
+import com.deliciouspizza.service.OpenRouteService;
+import com.deliciouspizza.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class OrderArchiverTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("orders.archive.directory", archiveDirectory::toString);
+        registry.add("orders.archive.older-than-days", () -> "30");
+    }
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    private User customer;
+    private Product pizza;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("archive-customer");
+        user.setEmail("archive-customer@example.com");
+        user.setPasswordHash("not-used");
+        user.setRole(UserRole.CUSTOMER);
+        user.setActive(true);
+        user.setAddress("Address");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        customer = userRepository.save(user);
+
+        pizza = productRepository.save(new Pizza(ProductStatus.ACTIVE, "Archive Pizza", "Desc", ProductSize.MEDIUM,
+                new BigDecimal("10.00"), true, BigDecimal.ZERO));
+    }
+
+    @Test
+    void archiveBatch_shouldMoveOldFinishedOrderToArchive_andFindOrderByIdShouldFallBack() {
+        Order order = createOrder(OrderStatus.COMPLETED, LocalDateTime.now().minusDays(90));
+
+        orderArchiver.archiveBatch(LocalDateTime.now().minusDays(30));
+
+        assertFalse(orderRepository.existsById(order.getId()));
+        assertTrue(orderArchive.find(order.getId()).isPresent());
+
+        OrderResponseDto archived = orderService.findOrderById(order.getId());
+
+        assertEquals(order.getId(), archived.getId());
+        assertEquals(OrderStatus.COMPLETED.name(), archived.getStatus());
+        assertEquals(1, archived.getItems().size());
+        assertEquals(3, archived.getItems().getFirst().getQuantity());
+    }
+
+    @Test
+    void archiveBatch_shouldKeepOpenAndRecentOrders() {
+        Order open = createOrder(OrderStatus.PROCESSING, LocalDateTime.now().minusDays(90));
+        Order recent = createOrder(OrderStatus.COMPLETED, LocalDateTime.now().minusDays(1));
+
+        orderArchiver.archiveBatch(LocalDateTime.now().minusDays(30));
+
+        assertTrue(orderRepository.existsById(open.getId()));
+        assertTrue(orderRepository.existsById(recent.getId()));
+        assertTrue(orderArchive.find(open.getId()).isEmpty());
+    }
+
+    @Test
+    void findOrderById_shouldThrow_whenOrderIsNeitherLiveNorArchived() {
+        assertThrows(OrderNotFoundException.class, () -> orderService.findOrderById(Long.MAX_VALUE));
+    }
+
+    private Order createOrder(OrderStatus status, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setAddress("Archive Address");
+        order.setStatus(status);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(createdAt);
+
+        OrderProduct line = new OrderProduct();
+        line.setOrder(order);
+        line.setProduct(pizza);
+        line.setQuantity(3);
+        line.setPriceAtOrderTime(pizza.getPrice());
+        order.getOrderProducts().add(line);
+
+        return orderRepository.saveAndFlush(order);
+    }
+}
@@ -0,0 +1,78 @@
+package com.deliciouspizza.benchmark;
+
+import com.deliciouspizza.security.password.AdaptiveBCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many password verifications (the dominant cost of a login) each core sustains per BCrypt cost.
+ * <p>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.deliciouspizza.benchmark.BCryptLoginBenchmark}
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class BCryptLoginBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"8", "10", "11", "12", "13", "14"})
+    private int strength;
+
+    private AdaptiveBCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new AdaptiveBCryptPasswordEncoder(strength);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Options options = new OptionsBuilder()
+                .include(BCryptLoginBenchmark.class.getSimpleName())
+                .threads(cores)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        System.out.println();
+        System.out.printf("Login throughput on %d cores%n", cores);
+
+        for (RunResult result : results) {
+            double total = result.getPrimaryResult().getScore();
+
+            System.out.printf("cost %s: %.1f logins/s total, %.2f logins/s per core%n",
+                    result.getParams().getParam("strength"), total, total / cores);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.deliciouspizza.benchmark;
+
+import com.deliciouspizza.analytics.columnar.ColumnarGroupBy;
+import com.deliciouspizza.analytics.columnar.ColumnarMetric;
+import com.deliciouspizza.analytics.columnar.ColumnarQuery;
+import com.deliciouspizza.analytics.columnar.GroupTotal;
+import com.deliciouspizza.analytics.columnar.OrderLineColumns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ad-hoc queries over 10 million synthetic order lines spread over 2025, scanned sequentially
+ * and in parallel chunks. The data is built once per fork and needs about 250 MB of heap.
+ * <p>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.deliciouspizza.benchmark.ColumnarAnalyticsBenchmark}
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 5)
+public class ColumnarAnalyticsBenchmark {
+
+    private static final int LINES = 10_000_000;
+    private static final int PRODUCTS = 200;
+    private static final int CATEGORIES = 3;
+
+    private static final LocalDateTime YEAR_START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private OrderLineColumns columns;
+    private ColumnarQuery topProductsOnFridaysInQ3;
+    private ColumnarQuery drinksPerHour;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        int yearStart = OrderLineColumns.toEpochMinute(YEAR_START);
+        int minutesInYear = OrderLineColumns.toEpochMinute(YEAR_START.plusYears(1)) - yearStart;
+
+        long[] productPrices = new long[PRODUCTS];
+        for (int product = 0; product < PRODUCTS; product++) {
+            productPrices[product] = 150 + random.nextInt(2500);
+        }
+
+        OrderLineColumns.Builder builder = OrderLineColumns.builder(LINES);
+        for (int i = 0; i < LINES; i++) {
+            int product = random.nextInt(PRODUCTS);
+            builder.add(product, product % CATEGORIES, yearStart + random.nextInt(minutesInYear),
+                    1 + random.nextInt(4), productPrices[product]);
+        }
+        columns = builder.build();
+
+        topProductsOnFridaysInQ3 = new ColumnarQuery(
+                OrderLineColumns.toEpochMinute(YEAR_START.withMonth(7)),
+                OrderLineColumns.toEpochMinute(YEAR_START.withMonth(10)),
+                1 << DayOfWeek.FRIDAY.ordinal(),
+                ColumnarQuery.ALL_CATEGORIES,
+                ColumnarGroupBy.PRODUCT,
+                ColumnarMetric.REVENUE,
+                10
+        );
+
+        drinksPerHour = new ColumnarQuery(Integer.MIN_VALUE, Integer.MAX_VALUE, ColumnarQuery.ALL_DAYS, 1 << 1,
+                ColumnarGroupBy.HOUR_OF_DAY, ColumnarMetric.QUANTITY, 24);
+    }
+
+    @Benchmark
+    public List<GroupTotal> topProductsByRevenueOnFridaysInQ3() {
+        return columns.aggregate(topProductsOnFridaysInQ3, parallel);
+    }
+
+    @Benchmark
+    public List<GroupTotal> drinksPerHourOfDay() {
+        return columns.aggregate(drinksPerHour, parallel);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ColumnarAnalyticsBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,221 @@
+package com.deliciouspizza.benchmark;
+
+import com.deliciouspizza.PizzaOrderSystemApplication;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.UserRepository;
+import com.deliciouspizza.security.jwt.JwtService;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares throughput and tail latency of processOrder on platform and virtual threads. OpenRouteService is
+ * replaced by a local stand-in that answers every call after a fixed delay, so the request threads spend
+ * most of their time blocked, which is the case virtual threads are meant for.
+ * <p>
+ * Needs the database from application.properties. Run with: {@code mvn test -Dbenchmarks=true
+ * -Dtest=ProcessOrderThreadModeLoadTest}
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ProcessOrderThreadModeLoadTest {
+
+    private static final int ORDERS = 2_000;
+    private static final int CONCURRENCY = 200;
+    private static final long REMOTE_DELAY_MS = 150;
+    private static final int TOMCAT_THREADS = 50;
+    private static final int POOL_SIZE = 20;
+
+    private static final String GEOCODE_BODY = "{\"features\":[{\"geometry\":{\"coordinates\":[23.34,42.65]}}]}";
+    private static final String DIRECTIONS_BODY =
+            "{\"features\":[{\"properties\":{\"summary\":{\"distance\":4200.0,\"duration\":600.0}}}]}";
+
+    private static MockWebServer openRouteServiceStandIn;
+
+    @BeforeAll
+    static void startOpenRouteServiceStandIn() throws IOException {
+        openRouteServiceStandIn = new MockWebServer();
+        openRouteServiceStandIn.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body = request.getPath() != null && request.getPath().startsWith("/geocode")
+                        ? GEOCODE_BODY
+                        : DIRECTIONS_BODY;
+
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(body)
+                        .setHeadersDelay(REMOTE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+        openRouteServiceStandIn.start();
+    }
+
+    @AfterAll
+    static void stopOpenRouteServiceStandIn() throws IOException {
+        openRouteServiceStandIn.shutdown();
+    }
+
+    @Test
+    void processOrder_throughputAndP99_platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println();
+        System.out.printf("processOrder, %d orders, %d concurrent clients, %d ms per remote call%n",
+                ORDERS, CONCURRENCY, REMOTE_DELAY_MS);
+        System.out.println(platform);
+        System.out.println(virtual);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PizzaOrderSystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        // Otherwise every request keeps its connection while it waits on the remote calls
+                        "spring.jpa.open-in-view=false",
+                        "rate-limit.enabled=false",
+                        "security.bcrypt.strength=4",
+                        "openrouteservice.base-url=http://" + openRouteServiceStandIn.getHostName() + ":" + openRouteServiceStandIn.getPort(),
+                        "openrouteservice.api-key=load-test"
+                )
+                .run()) {
+
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            OrderRepository orderRepository = context.getBean(OrderRepository.class);
+
+            User customer = userRepository.save(createUser("load-customer-" + mode, UserRole.CUSTOMER));
+            User employee = userRepository.save(createUser("load-employee-" + mode, UserRole.EMPLOYEE));
+            List<Order> orders = orderRepository.saveAll(createOrders(customer));
+
+            try {
+                String token = context.getBean(JwtService.class)
+                        .generateAccessToken(employee.getUsername(), UserRole.EMPLOYEE.name())
+                        .token();
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+                return fire(mode, port, token, employee.getId(), orders);
+            } finally {
+                orderRepository.deleteAllInBatch(orders);
+                userRepository.deleteAll(List.of(customer, employee));
+            }
+        }
+    }
+
+    private Result fire(String mode, int port, String token, long employeeId, List<Order> orders) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Future<Long>> latencies = new ArrayList<>(orders.size());
+        String body = "{\"employeeId\":" + employeeId + "}";
+
+        long start = System.nanoTime();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Order order : orders) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/orders/" + order.getId()))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+
+                inFlight.acquire();
+                latencies.add(clients.submit(() -> {
+                    try {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        assertEquals(200, response.statusCode(), "processOrder failed for order " + order.getId());
+                        return System.nanoTime() - sent;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long[] sorted = new long[latencies.size()];
+
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = latencies.get(i).get();
+        }
+
+        Arrays.sort(sorted);
+
+        return new Result(
+                mode,
+                orders.size() / (elapsed / 1e9),
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6
+        );
+    }
+
+    private static User createUser(String username, UserRole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("not-used");
+        user.setRole(role);
+        user.setActive(true);
+        user.setAddress("Load Test Address");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private static List<Order> createOrders(User customer) {
+        List<Order> orders = new ArrayList<>(ORDERS);
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(customer);
+            order.setAddress("Load Test Street " + i);
+            order.setStatus(OrderStatus.NEW);
+            order.setCreatedAt(LocalDateTime.now());
+            order.setUpdatedAt(LocalDateTime.now());
+            orders.add(order);
+        }
+
+        return orders;
+    }
+
+    private record Result(String mode, double requestsPerSecond, double p50Millis, double p99Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %8.1f req/s   p50 %7.1f ms   p99 %7.1f ms", mode, requestsPerSecond, p50Millis, p99Millis);
+        }
+    }
+}
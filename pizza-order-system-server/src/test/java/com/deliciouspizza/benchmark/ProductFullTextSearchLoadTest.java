@@ -0,0 +1,134 @@
+package com.deliciouspizza.benchmark;
+
+import com.deliciouspizza.dto.product.ProductFilterDto;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductCategory;
+import com.deliciouspizza.repository.ProductFullTextSearchRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the full-text search of products with a LIKE scan over 1 million products, named with two of
+ * 15 menu words and described with three of 10 ingredients. Prints p50 and p99 per query; the LIKE scan
+ * finds nothing for the misspelled query, which the trigram index answers.
+ * <p>
+ * The products are seeded inside the test transaction and rolled back. Needs the database from
+ * application.properties. Run with: {@code mvn test -Dbenchmarks=true -Dtest=ProductFullTextSearchLoadTest}
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = "openrouteservice.api-key=load-test")
+@Transactional
+class ProductFullTextSearchLoadTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 50;
+    private static final int LIMIT = 20;
+
+    private static final String LIKE_SCAN = """
+            SELECT p.* FROM products p
+            WHERE p.name ILIKE :pattern OR p.description ILIKE :pattern
+            ORDER BY p.id
+            LIMIT :limit
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductFullTextSearchRepository productFullTextSearchRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        long start = System.nanoTime();
+
+        jdbcTemplate.update("""
+                INSERT INTO products (name, description, category, status, price, is_active)
+                SELECT names[1 + g % 15] || ' ' || names[1 + (g / 15) % 15] || ' ' || g,
+                       ingredients[1 + g % 10] || ', ' || ingredients[1 + (g / 7) % 10] || ' and ' || ingredients[1 + (g / 70) % 10],
+                       (ARRAY['PIZZA', 'DRINK', 'SAUCE'])[1 + g % 3],
+                       'ACTIVE',
+                       0.50 + g % 50,
+                       TRUE
+                FROM generate_series(1, ?) g,
+                     (SELECT ARRAY['Margherita', 'Pepperoni', 'Quattro', 'Formaggi', 'Diavola', 'Funghi', 'Hawaiian',
+                                   'Supreme', 'Garlic', 'Ranch', 'BBQ', 'Chili', 'Cola', 'Lemonade', 'Mayo'] AS names,
+                             ARRAY['tomato', 'mozzarella', 'basil', 'cheese', 'pepper', 'spicy', 'salami', 'mushrooms',
+                                   'ham', 'pineapple'] AS ingredients) words
+                """, PRODUCTS);
+
+        jdbcTemplate.execute("ANALYZE products");
+
+        System.out.printf("Seeded %d products in %.1f s%n", PRODUCTS, (System.nanoTime() - start) / 1e9);
+    }
+
+    @Test
+    void fullTextSearch_versusLikeScan() {
+        ProductFilterDto pizzas = new ProductFilterDto();
+        pizzas.setCategory(ProductCategory.PIZZA);
+
+        List<String> report = new ArrayList<>();
+
+        for (String text : List.of("margherita", "marg", "quattro formaggi", "pepperonni", "123457")) {
+            report.add(run("full-text " + text, () -> productFullTextSearchRepository.search(text, null, LIMIT)));
+            report.add(run("LIKE      " + text, () -> likeScan(text)));
+        }
+
+        report.add(run("full-text spicy, pizzas", () -> productFullTextSearchRepository.search("spicy", pizzas, LIMIT)));
+
+        System.out.println();
+        System.out.printf("%d products, %d iterations per query, limit %d%n", PRODUCTS, ITERATIONS, LIMIT);
+        report.forEach(System.out::println);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Product> likeScan(String text) {
+        return entityManager.createNativeQuery(LIKE_SCAN, Product.class)
+                .setParameter("pattern", "%" + text + "%")
+                .setParameter("limit", LIMIT)
+                .getResultList();
+    }
+
+    private String run(String name, Supplier<List<Product>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+            entityManager.clear();
+        }
+
+        long[] latencies = new long[ITERATIONS];
+        int hits = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            hits = query.get().size();
+            latencies[i] = System.nanoTime() - start;
+
+            // Keeps the persistence context from serving or accumulating the loaded products
+            entityManager.clear();
+        }
+
+        Arrays.sort(latencies);
+
+        return String.format("%-32s hits %3d   p50 %8.2f ms   p99 %8.2f ms",
+                name,
+                hits,
+                latencies[ITERATIONS / 2] / 1e6,
+                latencies[(int) Math.ceil(ITERATIONS * 0.99) - 1] / 1e6);
+    }
+}
@@ -0,0 +1,90 @@
+package com.deliciouspizza.benchmark;
+
+import com.deliciouspizza.dto.product.ProductResponseDto;
+import com.deliciouspizza.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures searches over 100,000 synthetic products, named with two of 15 menu words and described with
+ * three of 10 ingredients, so common words match tens of thousands of products. The queries cover an
+ * exact word, a prefix, a typo, two words and a word that matches only one product.
+ * <p>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.deliciouspizza.benchmark.ProductSearchBenchmark}
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 5)
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    private static final String[] NAME_WORDS = {
+            "margherita", "pepperoni", "quattro", "formaggi", "diavola", "funghi", "hawaiian", "supreme",
+            "garlic", "ranch", "bbq", "chili", "cola", "lemonade", "mayo"
+    };
+
+    private static final String[] INGREDIENTS = {
+            "tomato", "mozzarella", "basil", "cheese", "pepper", "spicy", "salami", "mushrooms", "ham", "pineapple"
+    };
+
+    @Param({"margherita", "marg", "pepperonni", "diavola spicy", "12345"})
+    private String query;
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ProductResponseDto> products = new ArrayList<>(PRODUCTS);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductResponseDto product = new ProductResponseDto();
+            product.setId((long) i);
+            product.setName(NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " "
+                    + NAME_WORDS[random.nextInt(NAME_WORDS.length)] + " " + i);
+            product.setDescription(INGREDIENTS[random.nextInt(INGREDIENTS.length)] + ", "
+                    + INGREDIENTS[random.nextInt(INGREDIENTS.length)] + " and "
+                    + INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+            products.add(product);
+        }
+
+        index.replaceAll(products);
+    }
+
+    @Benchmark
+    public List<ProductSearchIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
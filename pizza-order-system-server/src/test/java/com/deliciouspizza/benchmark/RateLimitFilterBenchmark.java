@@ -0,0 +1,90 @@
+package com.deliciouspizza.benchmark;
+
+import com.deliciouspizza.security.ratelimit.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time the rate limit filter adds to a request, with many distinct clients spread over
+ * all endpoint groups. The limits are set high enough that every request passes, which is the common path.
+ * <p>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.deliciouspizza.benchmark.RateLimitFilterBenchmark}
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 5)
+public class RateLimitFilterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest[] requests;
+
+    @Setup
+    public void setUp() {
+        filter = new RateLimitFilter(new ObjectMapper(), true, 100_000,
+                Integer.MAX_VALUE, 1e9, Integer.MAX_VALUE, 1e9, Integer.MAX_VALUE, 1e9);
+
+        String[][] endpoints = {
+                {"POST", "/api/v1/users/login"},
+                {"POST", "/api/v1/orders"},
+                {"GET", "/api/v1/products"}
+        };
+
+        requests = new MockHttpServletRequest[CLIENTS];
+
+        for (int i = 0; i < CLIENTS; i++) {
+            String[] endpoint = endpoints[i % endpoints.length];
+            MockHttpServletRequest request = new MockHttpServletRequest(endpoint[0], endpoint[1]);
+            request.setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public int filterRequest() throws Exception {
+        MockHttpServletRequest request = requests[ThreadLocalRandom.current().nextInt(CLIENTS)];
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, NO_OP_CHAIN);
+
+        return response.getStatus();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RateLimitFilterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,208 @@
+package com.deliciouspizza.benchmark;
+
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.orders_products.OrderProduct;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.UserRepository;
+import com.deliciouspizza.security.jwt.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the reactive read API with the MVC controllers on the same data: a single order, all orders of a
+ * user and the product catalog. Prints throughput, p50, p99 and the peak number of live JVM threads, which is
+ * where the reactive endpoints should differ.
+ * <p>
+ * Needs the database from application.properties. Run with: {@code mvn test -Dbenchmarks=true
+ * -Dtest=ReactiveReadLoadTest}
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "rate-limit.enabled=false",
+                "security.bcrypt.strength=4",
+                "openrouteservice.api-key=load-test",
+                "server.tomcat.threads.max=50"
+        }
+)
+class ReactiveReadLoadTest {
+
+    private static final int USERS = 50;
+    private static final int ORDERS_PER_USER = 20;
+    private static final int PRODUCTS = 100;
+    private static final int REQUESTS = 5_000;
+    private static final int CONCURRENCY = 400;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<User> users = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(productRepository.save(new Pizza(ProductStatus.ACTIVE, "Load Pizza " + i, "Load test",
+                    ProductSize.MEDIUM, new BigDecimal("10.00"), true, BigDecimal.ZERO)));
+        }
+
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setUsername("load-reader-" + u);
+            user.setEmail("load-reader-" + u + "@example.com");
+            user.setPasswordHash("not-used");
+            user.setRole(UserRole.CUSTOMER);
+            user.setActive(true);
+            user.setAddress("Load Test Address");
+            user.setCreatedAt(LocalDateTime.now());
+            user.setUpdatedAt(LocalDateTime.now());
+            users.add(userRepository.save(user));
+
+            for (int o = 0; o < ORDERS_PER_USER; o++) {
+                Order order = new Order();
+                order.setUser(user);
+                order.setAddress("Load Test Street " + o);
+                order.setStatus(OrderStatus.NEW);
+                order.setCreatedAt(LocalDateTime.now());
+                order.setUpdatedAt(LocalDateTime.now());
+
+                for (int p = 0; p < 3; p++) {
+                    Product product = products.get((o * 3 + p) % PRODUCTS);
+                    OrderProduct item = new OrderProduct();
+                    item.setOrder(order);
+                    item.setProduct(product);
+                    item.setQuantity(1 + p);
+                    item.setPriceAtOrderTime(product.getPrice());
+                    order.getOrderProducts().add(item);
+                }
+
+                orders.add(orderRepository.save(order));
+            }
+        }
+
+        // Customers may only read their own orders; the requests below read those of every user
+        token = jwtService.generateAccessToken(users.getFirst().getUsername(), UserRole.EMPLOYEE.name()).token();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll(orders);
+        userRepository.deleteAll(users);
+        productRepository.deleteAll(products);
+    }
+
+    @Test
+    void readApis_mvcVersusReactive() throws Exception {
+        IntFunction<String> orderById = i -> "/orders/" + orders.get(i % orders.size()).getId();
+        IntFunction<String> ordersByUser = i -> "/users/" + users.get(i % users.size()).getId() + "/orders";
+
+        List<String> report = new ArrayList<>();
+
+        report.add(run("mvc      order by id", i -> "/api/v1" + orderById.apply(i), "application/json"));
+        report.add(run("reactive order by id", i -> "/api/v1/reactive" + orderById.apply(i), "application/json"));
+        report.add(run("mvc      orders by user", i -> "/api/v1/orders?userId=" + users.get(i % users.size()).getId(), "application/json"));
+        report.add(run("reactive orders by user", i -> "/api/v1/reactive" + ordersByUser.apply(i), "application/x-ndjson"));
+        report.add(run("mvc      catalog", i -> "/api/v1/products", "application/json"));
+        report.add(run("reactive catalog", i -> "/api/v1/reactive/products", "application/x-ndjson"));
+
+        System.out.println();
+        System.out.printf("%d requests, %d concurrent clients, %d Tomcat threads%n", REQUESTS, CONCURRENCY, 50);
+        report.forEach(System.out::println);
+    }
+
+    private String run(String name, IntFunction<String> path, String accept) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Future<Long>> latencies = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path.apply(i)))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Accept", accept)
+                        .GET()
+                        .build();
+
+                inFlight.acquire();
+                latencies.add(clients.submit(() -> {
+                    try {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        assertEquals(200, response.statusCode(), name + " failed for " + request.uri());
+                        return System.nanoTime() - sent;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long[] sorted = new long[latencies.size()];
+
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = latencies.get(i).get();
+        }
+
+        Arrays.sort(sorted);
+
+        return String.format("%-24s %8.1f req/s   p50 %7.1f ms   p99 %7.1f ms   peak threads %d",
+                name,
+                REQUESTS / (elapsed / 1e9),
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6,
+                threads.getPeakThreadCount());
+    }
+}
@@ -0,0 +1,227 @@
+package com.deliciouspizza.cache;
+
+import com.deliciouspizza.dto.product.ProductFilterDto;
+import com.deliciouspizza.dto.product.ProductUpdateDto;
+import com.deliciouspizza.dto.user.UserUpdateDto;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductCategory;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.UserRepository;
+import com.deliciouspizza.service.OpenRouteService;
+import com.deliciouspizza.service.ProductService;
+import com.deliciouspizza.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional on purpose: entities reach the second-level cache when their transaction commits.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    private Statistics statistics;
+    private final List<Long> productIds = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User newUser = new User();
+        newUser.setUsername("cached-user");
+        newUser.setEmail("cached-user@example.com");
+        newUser.setPasswordHash("not-used");
+        newUser.setRole(UserRole.CUSTOMER);
+        newUser.setActive(true);
+        newUser.setCreatedAt(LocalDateTime.now());
+        newUser.setUpdatedAt(LocalDateTime.now());
+        user = userRepository.save(newUser);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAllById(productIds);
+        userRepository.deleteById(user.getId());
+    }
+
+    // Background jobs run statements too, so only the regions of this test are counted
+    @Test
+    void findById_shouldBeServedFromCache_onceTheProductIsLoaded() {
+        long productId = createPizza("Cached Pizza");
+        productRepository.findById(productId);
+
+        CacheRegionStatistics products = statistics.getDomainDataRegionStatistics("products");
+        long hits = products.getHitCount();
+        long misses = products.getMissCount();
+
+        productRepository.findById(productId);
+
+        assertEquals(hits + 1, products.getHitCount());
+        assertEquals(misses, products.getMissCount());
+    }
+
+    @Test
+    void findById_shouldLeaveTheImageUnloaded_whenServedFromCache() {
+        Product pictured = new Pizza(ProductStatus.ACTIVE, "Pictured Pizza", "Cache test",
+                ProductSize.MEDIUM, new BigDecimal("12.00"), true, BigDecimal.ZERO);
+        pictured.setImageData(new byte[64 * 1024]);
+        long productId = productRepository.save(pictured).getId();
+        productIds.add(productId);
+        productRepository.findById(productId);
+
+        CacheRegionStatistics products = statistics.getDomainDataRegionStatistics("products");
+        long hits = products.getHitCount();
+
+        Product cached = productRepository.findById(productId).orElseThrow();
+
+        assertEquals(hits + 1, products.getHitCount());
+        assertTrue(cached.isImagePresent());
+        assertFalse(entityManagerFactory.getPersistenceUnitUtil().isLoaded(cached, "imageData"));
+    }
+
+    @Test
+    void getAllProducts_shouldBeServedFromQueryCache_untilProductsChange() {
+        ProductFilterDto pizzas = new ProductFilterDto();
+        pizzas.setCategory(ProductCategory.PIZZA);
+        createPizza("Cached Pizza");
+
+        productService.getAllProducts(pizzas);
+
+        CacheRegionStatistics queries = statistics.getQueryRegionStatistics(ProductRepository.QUERY_CACHE_REGION);
+        long hits = queries.getHitCount();
+
+        productService.getAllProducts(pizzas);
+        assertEquals(hits + 1, queries.getHitCount());
+
+        long newPizzaId = createPizza("Newer Pizza");
+
+        assertTrue(productService.getAllProducts(pizzas).stream().anyMatch(dto -> dto.getId() == newPizzaId));
+        assertEquals(hits + 1, queries.getHitCount());
+    }
+
+    @Test
+    void deleteById_shouldEvictTheProduct() {
+        long productId = createPizza("Cached Pizza");
+        productRepository.findById(productId);
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, productId));
+
+        productService.deleteById(productId);
+
+        assertFalse(entityManagerFactory.getCache().contains(Product.class, productId));
+        assertTrue(productRepository.findById(productId).isEmpty());
+    }
+
+    @Test
+    void deactivateUser_shouldNotLeaveTheActiveUserInTheCache() {
+        userRepository.findById(user.getId());
+        assertTrue(entityManagerFactory.getCache().contains(User.class, user.getId()));
+
+        userService.deactivateUser(user.getId());
+
+        assertFalse(entityManagerFactory.getCache().contains(User.class, user.getId()));
+        assertFalse(userRepository.findById(user.getId()).orElseThrow().getActive());
+    }
+
+    /**
+     * Hibernate caches the product as it flushed it, so a column changed with plain SQL later in the same
+     * transaction is only seen if the product is evicted after the commit.
+     */
+    @Test
+    void updateProduct_shouldReadRowsChangedOutsideHibernate() {
+        long productId = createPizza("Cached Pizza");
+        productRepository.findById(productId);
+
+        ProductUpdateDto update = new ProductUpdateDto();
+        update.setPrice(new BigDecimal("13.50"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.updateProduct(productId, update, null);
+            jdbcTemplate.update("UPDATE products SET description = ? WHERE id = ?", "Changed outside", productId);
+        });
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertEquals(0, new BigDecimal("13.50").compareTo(product.getPrice()));
+        assertEquals("Changed outside", product.getDescription());
+    }
+
+    @Test
+    void updateUser_shouldReadRowsChangedOutsideHibernate() {
+        userRepository.findById(user.getId());
+
+        UserUpdateDto update = new UserUpdateDto();
+        update.setUsername("renamed-cached-user");
+        update.setEmail("renamed-cached-user@example.com");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.updateUser(user.getId(), update);
+            jdbcTemplate.update("UPDATE users SET address = ? WHERE id = ?", "Changed outside", user.getId());
+        });
+
+        User updated = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("renamed-cached-user", updated.getUsername());
+        assertEquals("Changed outside", updated.getAddress());
+    }
+
+    private long createPizza(String name) {
+        Product product = productRepository.save(new Pizza(ProductStatus.ACTIVE, name, "Cache test",
+                ProductSize.MEDIUM, new BigDecimal("12.00"), true, BigDecimal.ZERO));
+        productIds.add(product.getId());
+        return product.getId();
+    }
+}
@@ -52,6 +52,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -206,6 +207,20 @@ public class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void getAllOrders_shouldReturnOrdersInAnyOfTheStatuses_whenStatusFilterProvided() throws Exception {
+        User user = createUserInDb("user1", "user1@example.com", "pass12345", UserRole.CUSTOMER, "Address 1");
+        createOrderInDb(user, "Order Address 1", OrderStatus.NEW);
+        createOrderInDb(user, "Order Address 2", OrderStatus.PROCESSING);
+        createOrderInDb(user, "Order Address 3", OrderStatus.CANCELLED);
+
+        mockMvc.perform(get("/api/v1/orders")
+                        .queryParam("status", "NEW", "CANCELLED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[?(@.status == 'PROCESSING')]").isEmpty());
+    }
+
 
     // --- Tests for GET /api/v1/orders/{id} (getOrder) ---
 
@@ -446,6 +461,23 @@ public class OrderControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void addProductToOrder_shouldReturnConflict_whenOrderIsCompleted() throws Exception {
+        User user = createUserInDb("user", "user@example.com", "pass", UserRole.CUSTOMER, "Address");
+        Order order = createOrderInDb(user, "Order Address", OrderStatus.COMPLETED);
+        Product pizza = createPizzaInDb("Pizza", "Desc", new BigDecimal("10.00"), ProductSize.MEDIUM);
+        createOrderProductInDb(order, pizza, 1, pizza.getPrice());
+
+        OrderProductRequestDto requestDto = createOrderProductRequestDto(pizza.getId(), 2);
+
+        mockMvc.perform(post("/api/v1/orders/{id}/products", order.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isConflict());
+
+        assertEquals(1, orderProductRepository.findByOrder_IdAndProduct_Id(order.getId(), pizza.getId()).get().getQuantity());
+    }
+
     // --- Tests for DELETE /api/v1/orders/{orderId}/products/{productId} (removeProductFromOrder) ---
 
     /**
@@ -499,6 +531,19 @@ public class OrderControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void removeProductFromOrder_shouldReturnConflict_whenOrderIsCancelled() throws Exception {
+        User user = createUserInDb("user", "user@example.com", "pass", UserRole.CUSTOMER, "Address");
+        Order order = createOrderInDb(user, "Order Address", OrderStatus.CANCELLED);
+        Product pizza = createPizzaInDb("Pizza", "Desc", new BigDecimal("10.00"), ProductSize.MEDIUM);
+        createOrderProductInDb(order, pizza, 1, pizza.getPrice());
+
+        mockMvc.perform(delete("/api/v1/orders/{orderId}/products/{productId}", order.getId(), pizza.getId()))
+                .andExpect(status().isConflict());
+
+        assertTrue(orderProductRepository.findByOrder_IdAndProduct_Id(order.getId(), pizza.getId()).isPresent());
+    }
+
     // --- Tests for PATCH /api/v1/orders/{orderId}/products/{productId} (updateCount) ---
 
     @Test
@@ -542,6 +587,20 @@ public class OrderControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateCount_shouldReturnConflict_whenOrderIsCompleted() throws Exception {
+        User user = createUserInDb("user", "user@example.com", "pass", UserRole.CUSTOMER, "Address");
+        Order order = createOrderInDb(user, "Order Address", OrderStatus.COMPLETED);
+        Product pizza = createPizzaInDb("Pizza", "Desc", new BigDecimal("10.00"), ProductSize.MEDIUM);
+        createOrderProductInDb(order, pizza, 1, pizza.getPrice());
+
+        mockMvc.perform(patch("/api/v1/orders/{orderId}/products/{productId}", order.getId(), pizza.getId())
+                        .queryParam("newCount", "4"))
+                .andExpect(status().isConflict());
+
+        assertEquals(1, orderProductRepository.findByOrder_IdAndProduct_Id(order.getId(), pizza.getId()).get().getQuantity());
+    }
+
     @Test
     void processOrder_shouldProcessOrder_whenOrderIsValid() throws Exception {
         // ARRANGE: Create entities and the request object
@@ -592,4 +651,48 @@ public class OrderControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isBadRequest());
     }
-} 
\ No newline at end of file
+
+    // --- Tests for reading the orders of other customers through the event streams and the reactive API ---
+
+    @Test
+    void streamUserOrderEvents_shouldBeForbidden_forOtherCustomers() throws Exception {
+        User owner = createUserInDb("owner", "owner@example.com", "pass12345", UserRole.CUSTOMER, "Owner Address");
+        createUserInDb("other", "other@example.com", "pass12345", UserRole.CUSTOMER, "Other Address");
+
+        mockMvc.perform(get("/api/v1/users/{userId}/order-events", owner.getId()).with(user("other").roles("CUSTOMER")))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/v1/users/{userId}/order-events", owner.getId()).with(user("owner").roles("CUSTOMER")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/users/{userId}/order-events", owner.getId()).with(user("employee").roles("EMPLOYEE")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void streamOrderEvents_shouldAnswerNotFound_forOrdersOfOtherCustomers() throws Exception {
+        User owner = createUserInDb("owner", "owner@example.com", "pass12345", UserRole.CUSTOMER, "Owner Address");
+        createUserInDb("other", "other@example.com", "pass12345", UserRole.CUSTOMER, "Other Address");
+        Order order = createOrderInDb(owner, "Order Address", OrderStatus.NEW);
+
+        mockMvc.perform(get("/api/v1/orders/{orderId}/events", order.getId()).with(user("other").roles("CUSTOMER")))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/v1/orders/{orderId}/events", order.getId()).with(user("owner").roles("CUSTOMER")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/orders/{orderId}/events", order.getId()).with(user("employee").roles("EMPLOYEE")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void reactiveOrdersByUser_shouldBeForbidden_forOtherCustomers() throws Exception {
+        User owner = createUserInDb("owner", "owner@example.com", "pass12345", UserRole.CUSTOMER, "Owner Address");
+        createUserInDb("other", "other@example.com", "pass12345", UserRole.CUSTOMER, "Other Address");
+
+        mockMvc.perform(get("/api/v1/reactive/users/{userId}/orders", owner.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .with(user("other").roles("CUSTOMER")))
+                .andExpect(status().isForbidden());
+    }
+}
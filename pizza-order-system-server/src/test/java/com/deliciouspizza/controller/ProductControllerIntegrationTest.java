@@ -194,6 +194,32 @@ public class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].active").value(true));
     }
 
+    @Test
+    void searchProductsFullText_shouldMatchWordPrefixes_withinFilters() throws Exception {
+        createPizzaInDb("Pepperoni Pizza", "Spicy pepperoni", new BigDecimal("18.00"), ProductSize.LARGE);
+        createPizzaInDb("Margherita Pizza", "Classic Italian", new BigDecimal("15.00"), ProductSize.MEDIUM);
+        createDrinkInDb("Dr Pepper", "Peppery soda", new BigDecimal("3.00"), ProductSize._330ML, false);
+
+        mockMvc.perform(get("/api/v1/products/search/full-text")
+                        .queryParam("q", "pepp")
+                        .queryParam("category", ProductCategory.PIZZA.name()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Pepperoni Pizza"));
+    }
+
+    @Test
+    void searchProductsFullText_shouldMatchMisspelledNames() throws Exception {
+        createPizzaInDb("Margherita Pizza", "Classic Italian", new BigDecimal("15.00"), ProductSize.MEDIUM);
+        createPizzaInDb("Pepperoni Pizza", "Spicy pepperoni", new BigDecimal("18.00"), ProductSize.LARGE);
+
+        mockMvc.perform(get("/api/v1/products/search/full-text")
+                        .queryParam("q", "margarita"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Margherita Pizza"));
+    }
+
     @Test
     void getProduct_shouldReturnProduct_whenIdExists() throws Exception {
         Product pizza = createPizzaInDb("Test Pizza", "Just for testing", new BigDecimal("12.00"), ProductSize.SMALL);
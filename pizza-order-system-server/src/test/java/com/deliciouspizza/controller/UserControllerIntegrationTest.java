@@ -2,10 +2,13 @@ package com.deliciouspizza.controller;
 
 import com.deliciouspizza.dto.user.UserInputDto;
 import com.deliciouspizza.dto.user.UserUpdateDto;
+import com.deliciouspizza.dto.user.login.LoginInputDto;
+import com.deliciouspizza.dto.user.login.RefreshTokenRequestDto;
 import com.deliciouspizza.model.user.User;
 import com.deliciouspizza.model.user.UserRole;
 import com.deliciouspizza.repository.UserRepository;
 import com.deliciouspizza.service.OpenRouteService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -14,11 +17,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -26,6 +32,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -54,6 +61,9 @@ public class UserControllerIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @TestConfiguration
     static class TestOpenRouteServiceConfig {
         @Bean
@@ -289,4 +299,105 @@ public class UserControllerIntegrationTest {
                 )
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    // --- Tests for access token revocation ---
+    @Test
+    void deactivateUser_shouldRejectOutstandingAccessTokensOfTheUser() throws Exception {
+        User user = createUserInDb("revokeduser", "revoked@example.com", "pass12345");
+        String accessToken = login("revokeduser", "pass12345").get("token").asText();
+
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/v1/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // --- Tests for refresh token rotation and logout ---
+    @Test
+    void refresh_shouldRotateTheRefreshToken_whenTokenIsValid() throws Exception {
+        User user = createUserInDb("rotatinguser", "rotating@example.com", "pass12345");
+        JsonNode login = login("rotatinguser", "pass12345");
+
+        JsonNode rotated = refresh(login.get("refreshToken").asText(), status().isOk());
+
+        assertNotEquals(login.get("refreshToken").asText(), rotated.get("refreshToken").asText());
+        assertEquals(user.getId(), rotated.get("userId").asLong());
+
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + rotated.get("token").asText()))
+                .andExpect(status().isOk());
+
+        refresh(rotated.get("refreshToken").asText(), status().isOk());
+    }
+
+    @Test
+    void refresh_shouldRevokeTheSession_whenRotatedTokenIsReused() throws Exception {
+        User user = createUserInDb("reuseduser", "reused@example.com", "pass12345");
+        String stolenToken = login("reuseduser", "pass12345").get("refreshToken").asText();
+
+        JsonNode rotated = refresh(stolenToken, status().isOk());
+
+        refresh(stolenToken, status().isUnauthorized());
+
+        // The whole family is revoked, including the successor the legitimate client holds
+        refresh(rotated.get("refreshToken").asText(), status().isUnauthorized());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE user_id = ? AND revoked_at IS NULL", Integer.class, user.getId()));
+
+        // So are the access tokens issued to the user
+        mockMvc.perform(get("/api/v1/users/{id}", user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + rotated.get("token").asText()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_shouldRevokeTheRefreshToken() throws Exception {
+        createUserInDb("logoutuser", "logout@example.com", "pass12345");
+        String refreshToken = login("logoutuser", "pass12345").get("refreshToken").asText();
+
+        RefreshTokenRequestDto requestDto = new RefreshTokenRequestDto();
+        requestDto.setRefreshToken(refreshToken);
+
+        mockMvc.perform(post("/api/v1/users/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isNoContent());
+
+        refresh(refreshToken, status().isUnauthorized());
+    }
+
+    private JsonNode login(String username, String password) throws Exception {
+        LoginInputDto loginDto = new LoginInputDto();
+        loginDto.setUsername(username);
+        loginDto.setPassword(password);
+
+        String response = mockMvc.perform(post("/api/v1/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode refresh(String refreshToken, ResultMatcher expectedStatus) throws Exception {
+        RefreshTokenRequestDto requestDto = new RefreshTokenRequestDto();
+        requestDto.setRefreshToken(refreshToken);
+
+        String response = mockMvc.perform(post("/api/v1/users/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(expectedStatus)
+                .andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readTree(response);
+    }
+}
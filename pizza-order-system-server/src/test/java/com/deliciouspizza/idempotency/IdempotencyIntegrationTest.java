@@ -0,0 +1,198 @@
+package com.deliciouspizza.idempotency;
+
+import com.deliciouspizza.dto.order.OrderRequestDto;
+import com.deliciouspizza.dto.order_product.OrderProductRequestDto;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.IdempotencyRecordRepository;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.UserRepository;
+import com.deliciouspizza.service.OpenRouteService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sends the same order creation with one Idempotency-Key from many threads. Not transactional: the
+ * duplicates have to see the committed key row and order.
+ */
+@SpringBootTest(properties = "rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class IdempotencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final String USERNAME = "idempotent-customer";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    private User customer;
+    private Product pizza;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setEmail(USERNAME + "@example.com");
+        user.setPasswordHash("not-used");
+        user.setRole(UserRole.CUSTOMER);
+        user.setActive(true);
+        user.setAddress("Address");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        customer = userRepository.save(user);
+
+        pizza = productRepository.save(new Pizza(ProductStatus.ACTIVE, "Idempotent Pizza", "Desc", ProductSize.MEDIUM,
+                new BigDecimal("10.00"), true, BigDecimal.ZERO));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll(orderRepository.findByUser_Username(USERNAME));
+        idempotencyRecordRepository.deleteAll(idempotencyRecordRepository.findAll().stream()
+                .filter(record -> record.getPrincipal().equals(USERNAME))
+                .toList());
+        productRepository.deleteById(pizza.getId());
+        userRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    void createNewOrder_shouldCreateOneOrder_whenSameKeySentConcurrently() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = objectMapper.writeValueAsString(orderRequest("Idempotent Address"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return createOrder(key, body).andReturn().getResponse();
+                }));
+            }
+
+            start.countDown();
+
+            Set<Long> orderIds = new HashSet<>();
+            for (Future<MockHttpServletResponse> result : results) {
+                MockHttpServletResponse response = result.get();
+                JsonNode order = objectMapper.readTree(response.getContentAsString());
+
+                assertEquals(201, response.getStatus());
+                orderIds.add(order.get("id").asLong());
+            }
+
+            assertEquals(1, orderIds.size());
+            assertEquals(1, orderRepository.findByUser_Username(USERNAME).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createNewOrder_shouldReplayFirstResponse_whenKeyIsReused() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = objectMapper.writeValueAsString(orderRequest("Idempotent Address"));
+
+        createOrder(key, body).andExpect(status().isCreated());
+
+        createOrder(key, body)
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"));
+
+        assertEquals(1, orderRepository.findByUser_Username(USERNAME).size());
+    }
+
+    @Test
+    void createNewOrder_shouldReturnUnprocessableEntity_whenKeyIsReusedForDifferentRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        createOrder(key, objectMapper.writeValueAsString(orderRequest("First Address")))
+                .andExpect(status().isCreated());
+
+        createOrder(key, objectMapper.writeValueAsString(orderRequest("Second Address")))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(1, orderRepository.findByUser_Username(USERNAME).size());
+    }
+
+    private ResultActions createOrder(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/v1/orders")
+                .with(user(USERNAME).roles("CUSTOMER"))
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private OrderRequestDto orderRequest(String address) {
+        OrderProductRequestDto item = new OrderProductRequestDto();
+        item.setProductId(pizza.getId());
+        item.setQuantity(1);
+
+        OrderRequestDto dto = new OrderRequestDto();
+        dto.setUserId(customer.getId());
+        dto.setAddress(address);
+        dto.setItems(List.of(item));
+        return dto;
+    }
+}
@@ -0,0 +1,170 @@
+package com.deliciouspizza.kitchen;
+
+import com.deliciouspizza.dto.kitchen.KitchenBoardChangeDto;
+import com.deliciouspizza.dto.kitchen.KitchenBoardDto;
+import com.deliciouspizza.event.OrderEventType;
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.sse.OrderEventHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KitchenBoardTest {
+
+    private static final long ORDER_ID = 42L;
+
+    private OrderRepository orderRepository;
+    private OrderEventHub orderEventHub;
+    private KitchenBoard board;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        orderEventHub = mock(OrderEventHub.class);
+        board = new KitchenBoard(orderRepository, orderEventHub, mock(PlatformTransactionManager.class));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void onOrderEvent_shouldAddCreatedOrder() {
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.of(order(OrderStatus.NEW)));
+
+        board.onOrderEvent(event(1L, OrderEventType.CREATED, OrderStatus.NEW, null));
+
+        KitchenBoardDto snapshot = board.snapshot();
+        assertEquals(1, snapshot.getOrders().size());
+        assertEquals(ORDER_ID, snapshot.getOrders().getFirst().getId());
+        assertEquals(Map.of("NEW", 1L, "PROCESSING", 0L), board.countsByStatus());
+        assertEquals(ORDER_ID, publishedChanges(1).getFirst().getOrder().getId());
+    }
+
+    @Test
+    void onOrderEvent_shouldMoveOrderToItsNewStatus_withoutLoadingIt() {
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.of(order(OrderStatus.NEW)));
+        board.onOrderEvent(event(1L, OrderEventType.CREATED, OrderStatus.NEW, null));
+
+        board.onOrderEvent(event(2L, OrderEventType.UPDATED, OrderStatus.PROCESSING, OrderStatus.NEW));
+
+        verify(orderRepository, times(1)).findWithItemsById(ORDER_ID);
+        assertEquals("PROCESSING", board.snapshot().getOrders().getFirst().getStatus());
+        assertEquals(Map.of("NEW", 0L, "PROCESSING", 1L), board.countsByStatus());
+        assertEquals("PROCESSING", publishedChanges(2).getLast().getOrder().getStatus());
+    }
+
+    @Test
+    void onOrderEvent_shouldRemoveOrderThatIsNoLongerOpen() {
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.of(order(OrderStatus.NEW)));
+        board.onOrderEvent(event(1L, OrderEventType.CREATED, OrderStatus.NEW, null));
+
+        board.onOrderEvent(event(2L, OrderEventType.UPDATED, OrderStatus.CANCELLED, OrderStatus.NEW));
+
+        assertTrue(board.snapshot().getOrders().isEmpty());
+        assertEquals(Map.of("NEW", 0L, "PROCESSING", 0L), board.countsByStatus());
+        assertNull(publishedChanges(2).getLast().getOrder());
+    }
+
+    @Test
+    void onOrderEvent_shouldSkipRedeliveredEvent() {
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenReturn(Optional.of(order(OrderStatus.NEW)));
+        OrderLifecycleEvent created = event(1L, OrderEventType.CREATED, OrderStatus.NEW, null);
+
+        board.onOrderEvent(created);
+        board.onOrderEvent(created);
+
+        verify(orderRepository, times(1)).findWithItemsById(ORDER_ID);
+        assertEquals(Map.of("NEW", 1L, "PROCESSING", 0L), board.countsByStatus());
+        publishedChanges(1);
+    }
+
+    /**
+     * The order is cancelled while the event that created it still loads it. Readers and the cancellation
+     * must not wait for the query, and the row the load read before the cancellation must not put the
+     * order back on the board.
+     */
+    @Test
+    void onOrderEvent_shouldNotHoldTheBoardWhileLoading_norApplyAStaleLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.findWithItemsById(ORDER_ID)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return Optional.of(order(OrderStatus.NEW));
+        });
+
+        Future<?> created = executor.submit(() ->
+                board.onOrderEvent(event(1L, OrderEventType.CREATED, OrderStatus.NEW, null)));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+        // Both need the lock, so they would block if the load held it
+        assertTrue(board.snapshot().getOrders().isEmpty());
+        board.onOrderEvent(event(2L, OrderEventType.UPDATED, OrderStatus.CANCELLED, OrderStatus.NEW));
+
+        release.countDown();
+        created.get(10, TimeUnit.SECONDS);
+
+        assertTrue(board.snapshot().getOrders().isEmpty());
+        assertEquals(Map.of("NEW", 0L, "PROCESSING", 0L), board.countsByStatus());
+        verify(orderEventHub, times(0)).publishKitchenChange(anyLong(), any(), any());
+    }
+
+    private List<KitchenBoardChangeDto> publishedChanges(int count) {
+        ArgumentCaptor<Object> changes = ArgumentCaptor.forClass(Object.class);
+        verify(orderEventHub, times(count)).publishKitchenChange(eq(ORDER_ID), eq(KitchenBoard.CHANGE_EVENT), changes.capture());
+
+        return changes.getAllValues().stream().map(KitchenBoardChangeDto.class::cast).toList();
+    }
+
+    private static OrderLifecycleEvent event(Long eventId, OrderEventType type, OrderStatus status, OrderStatus previousStatus) {
+        return new OrderLifecycleEvent(eventId, ORDER_ID, 7L, type, status, previousStatus, Instant.now());
+    }
+
+    private static Order order(OrderStatus status) {
+        User user = new User();
+        user.setId(7L);
+
+        Order order = new Order();
+        order.setId(ORDER_ID);
+        order.setStatus(status);
+        order.setUser(user);
+        order.setAddress("Kitchen Street 1");
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+        order.setSubtotal(BigDecimal.ZERO);
+        return order;
+    }
+}
@@ -0,0 +1,152 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.event.OrderEventType;
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.outbox.OutboxEvent;
+import com.deliciouspizza.repository.OutboxEventRepository;
+import com.deliciouspizza.service.OpenRouteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs several relays against the same outbox at once and checks that every event is delivered and that
+ * events of one order arrive in the order they were written. Not transactional: the relay has to see
+ * committed rows. The background relay is off for all test contexts, so only the relays started here run.
+ */
+@SpringBootTest(properties = "outbox.sinks=in-process")
+class OutboxRelayIntegrationTest {
+
+    private static final int ORDERS = 20;
+    private static final int EVENTS_PER_ORDER = 10;
+    private static final int RELAYS = 4;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    // Far away from real order ids so the test never touches their events
+    private static final long FIRST_ORDER_ID = -1_000_000L;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RecordingListener recordingListener;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+
+        @Bean
+        public RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener {
+
+        private final Queue<OrderLifecycleEvent> received = new ConcurrentLinkedQueue<>();
+
+        @EventListener
+        public void onOrderEvent(OrderLifecycleEvent event) {
+            if (event.orderId() < FIRST_ORDER_ID + ORDERS && event.orderId() >= FIRST_ORDER_ID) {
+                received.add(event);
+            }
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll(outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId() < FIRST_ORDER_ID + ORDERS && event.getAggregateId() >= FIRST_ORDER_ID)
+                .toList());
+        recordingListener.received.clear();
+    }
+
+    @Test
+    void relayBatch_shouldDeliverEveryEventInOrderPerOrder_whenRelaysRunConcurrently() throws Exception {
+        // Interleave the orders so every batch contains several of them
+        for (int i = 0; i < EVENTS_PER_ORDER; i++) {
+            for (int order = 0; order < ORDERS; order++) {
+                outboxEventRepository.save(createOutboxEvent(FIRST_ORDER_ID + order));
+            }
+        }
+
+        int expected = ORDERS * EVENTS_PER_ORDER;
+        Instant deadline = Instant.now().plus(TIMEOUT);
+
+        ExecutorService executor = Executors.newFixedThreadPool(RELAYS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> relays = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < RELAYS; i++) {
+                relays.add(executor.submit(() -> {
+                    start.await();
+                    while (recordingListener.received.size() < expected && Instant.now().isBefore(deadline)) {
+                        outboxRelay.relayBatch();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> relay : relays) {
+                relay.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(expected, recordingListener.received.size(), "Events delivered within " + TIMEOUT);
+
+        Map<Long, List<Long>> eventIdsByOrder = recordingListener.received.stream()
+                .collect(Collectors.groupingBy(OrderLifecycleEvent::orderId,
+                        Collectors.mapping(OrderLifecycleEvent::eventId, Collectors.toList())));
+
+        assertEquals(ORDERS, eventIdsByOrder.size());
+
+        for (List<Long> eventIds : eventIdsByOrder.values()) {
+            assertEquals(EVENTS_PER_ORDER, eventIds.size());
+            assertEquals(eventIds.stream().sorted().toList(), eventIds);
+        }
+    }
+
+    private OutboxEvent createOutboxEvent(long orderId) throws Exception {
+        OrderLifecycleEvent event = new OrderLifecycleEvent(
+                null, orderId, 1L, OrderEventType.UPDATED, OrderStatus.PROCESSING, OrderStatus.NEW, Instant.now());
+
+        return new OutboxEvent(orderId, event.type().name(), objectMapper.writeValueAsString(event));
+    }
+}
@@ -0,0 +1,63 @@
+package com.deliciouspizza.outbox;
+
+import com.deliciouspizza.config.ExecutorFactory;
+import com.deliciouspizza.event.OrderEventType;
+import com.deliciouspizza.event.OrderLifecycleEvent;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.outbox.OutboxEvent;
+import com.deliciouspizza.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    // Configured like the mapper Spring Boot provides
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    /**
+     * The kitchen board and the SSE streams listen in-process, so turning the in-process sink off in the
+     * configuration must not cut them off.
+     */
+    @Test
+    void relayBatch_shouldPublishInProcess_whenOnlyOtherSinksAreConfigured() throws Exception {
+        OutboxEventRepository repository = mock(OutboxEventRepository.class);
+        ApplicationEventPublisher applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        OutboxSink otherSink = mock(OutboxSink.class);
+        when(otherSink.name()).thenReturn("log-file");
+
+        OrderLifecycleEvent event = new OrderLifecycleEvent(
+                null, 42L, 7L, OrderEventType.UPDATED, OrderStatus.PROCESSING, OrderStatus.NEW, Instant.now());
+        OutboxEvent outboxEvent = new OutboxEvent(42L, event.type().name(), objectMapper.writeValueAsString(event));
+        outboxEvent.setId(1L);
+        when(repository.lockNextBatch(anyInt())).thenReturn(List.of(outboxEvent));
+
+        OutboxRelay relay = new OutboxRelay(
+                repository,
+                List.of(new InProcessOutboxSink(applicationEventPublisher), otherSink),
+                objectMapper,
+                mock(PlatformTransactionManager.class),
+                mock(ExecutorFactory.class),
+                Set.of("log-file"),
+                false, 100, 1000, 60000, 24);
+
+        relay.relayBatch();
+
+        verify(applicationEventPublisher).publishEvent(any(OrderLifecycleEvent.class));
+        verify(otherSink).publish(any(OrderLifecycleEvent.class));
+        assertNotNull(outboxEvent.getPublishedAt());
+    }
+}
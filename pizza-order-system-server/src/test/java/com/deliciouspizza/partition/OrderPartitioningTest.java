@@ -0,0 +1,149 @@
+package com.deliciouspizza.partition;
+
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.exception.OrderNotFoundException;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.service.OpenRouteService;
+import com.deliciouspizza.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Partition pruning for the createdAfter/createdBefore filters, archival by detaching partitions and lookups
+ * of orders in detached months.
+ * Partitions are created inside the test transaction for months far enough in the past to be empty.
+ */
+@SpringBootTest
+@Transactional
+class OrderPartitioningTest {
+
+    private static final LocalDate FIRST_MONTH = LocalDate.of(2001, 1, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.createPartitions(FIRST_MONTH, FIRST_MONTH.plusMonths(3));
+
+        Long userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (username, email, password_hash)
+                VALUES ('partition-customer', 'partition-customer@example.com', 'not-used')
+                RETURNING id
+                """, Long.class);
+
+        for (int month = 0; month < 3; month++) {
+            jdbcTemplate.update("""
+                    INSERT INTO orders (status, user_id, address, created_at, updated_at)
+                    VALUES ('COMPLETED', ?, 'Partition Address', ?, ?)
+                    """, userId, timestamp(FIRST_MONTH.plusMonths(month)), timestamp(FIRST_MONTH.plusMonths(month)));
+        }
+    }
+
+    @Test
+    void createdRangeFilter_shouldScanOnlyMatchingMonth() {
+        String plan = explain("SELECT * FROM orders o WHERE o.created_at >= ? AND o.created_at <= ?",
+                timestamp(LocalDate.of(2001, 2, 1)), timestamp(LocalDate.of(2001, 2, 20)));
+
+        assertTrue(plan.contains("orders_y2001m02"), plan);
+        assertFalse(plan.contains("orders_y2001m01"), plan);
+        assertFalse(plan.contains("orders_y2001m03"), plan);
+        assertFalse(plan.contains("orders_default"), plan);
+    }
+
+    @Test
+    void createdAfterFilter_shouldSkipEarlierMonths() {
+        String plan = explain("SELECT * FROM orders o WHERE o.created_at >= ?", timestamp(LocalDate.of(2001, 3, 1)));
+
+        assertTrue(plan.contains("orders_y2001m03"), plan);
+        assertFalse(plan.contains("orders_y2001m01"), plan);
+        assertFalse(plan.contains("orders_y2001m02"), plan);
+    }
+
+    @Test
+    void detachPartitionsBefore_shouldMoveOldMonthsToArchive() {
+        List<String> detached = orderRepository.detachPartitionsBefore(LocalDate.of(2001, 3, 1));
+
+        assertTrue(detached.containsAll(List.of("orders_y2001m01", "orders_y2001m02")));
+        assertFalse(detached.contains("orders_y2001m03"));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM orders WHERE address = 'Partition Address'"));
+        assertEquals(2, count("SELECT COUNT(*) FROM archive.orders_y2001m01") + count("SELECT COUNT(*) FROM archive.orders_y2001m02"));
+    }
+
+    @Test
+    void findOrderById_shouldFindOrderOfDetachedMonth_withItsItems() {
+        long orderId = jdbcTemplate.queryForObject(
+                "SELECT id FROM orders WHERE address = 'Partition Address' AND created_at < '2001-02-01'", Long.class);
+        long productId = jdbcTemplate.queryForObject("""
+                INSERT INTO products (name, category, status, price, is_active)
+                VALUES ('Partition Pizza', 'PIZZA', 'ACTIVE', 10.00, true)
+                RETURNING id
+                """, Long.class);
+
+        jdbcTemplate.update("""
+                INSERT INTO orders_products (order_id, order_created_at, product_id, quantity, price_at_order_time)
+                VALUES (?, ?, ?, 2, 10.00)
+                """, orderId, timestamp(FIRST_MONTH), productId);
+
+        orderRepository.detachPartitionsBefore(LocalDate.of(2001, 3, 1));
+
+        OrderResponseDto order = orderService.findOrderById(orderId);
+
+        assertEquals(orderId, order.getId());
+        assertEquals("COMPLETED", order.getStatus());
+        assertEquals(1, order.getItems().size());
+        assertEquals(productId, order.getItems().getFirst().getProductId());
+        assertEquals("Partition Pizza", order.getItems().getFirst().getProductName());
+        assertEquals(2, order.getItems().getFirst().getQuantity());
+    }
+
+    @Test
+    void findOrderById_shouldStillReportMissingOrder_whenMonthsAreDetached() {
+        orderRepository.detachPartitionsBefore(LocalDate.of(2001, 3, 1));
+
+        assertThrows(OrderNotFoundException.class, () -> orderService.findOrderById(Integer.MAX_VALUE));
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static Timestamp timestamp(LocalDate date) {
+        return Timestamp.valueOf(date.atStartOfDay().plusHours(12));
+    }
+}
@@ -0,0 +1,386 @@
+package com.deliciouspizza.repository;
+
+import com.deliciouspizza.dto.order.OrderFilterDto;
+import com.deliciouspizza.dto.product.ProductFilterDto;
+import com.deliciouspizza.kitchen.KitchenBoard;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.product.ProductCategory;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.service.OpenRouteService;
+import com.deliciouspizza.service.OrderService;
+import com.deliciouspizza.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the queries behind the repositories and the filter Specifications can use an
+ * index. Each test calls the repository or service method and explains the SELECT Hibernate generated for
+ * it, so a change to a query or a mapping is checked as well as a change to the indexes.
+ * <p>
+ * The dataset is seeded and analyzed inside the test transaction, and sequential scans are discouraged for
+ * it, so a plan without an index means there is no usable index rather than that the table is small.
+ * </p>
+ */
+@SpringBootTest
+@Transactional
+class QueryIndexUsageTest {
+
+    private static final int USERS = 200;
+    private static final int PRODUCTS = 500;
+    private static final int ORDERS = 20_000;
+
+    private static final CapturingStatementInspector STATEMENTS = new CapturingStatementInspector();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderProductRepository orderProductRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFullTextSearchRepository productFullTextSearchRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer statementCapture() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, STATEMENTS);
+        }
+    }
+
+    private long orderId;
+    private long productId;
+    private long userId;
+    private String username;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, password_hash)
+                SELECT 'explain-user-' || g, 'explain-user-' || g || '@example.com', 'not-used'
+                FROM generate_series(1, ?) g
+                """, USERS);
+
+        jdbcTemplate.update("""
+                INSERT INTO products (name, category, status, price, is_active)
+                SELECT 'Explain Product ' || g,
+                       (ARRAY['PIZZA', 'DRINK', 'SAUCE'])[1 + g % 3],
+                       CASE WHEN g % 10 = 0 THEN 'INACTIVE' ELSE 'ACTIVE' END,
+                       0.50 + g % 50,
+                       g % 10 <> 0
+                FROM generate_series(1, ?) g
+                """, PRODUCTS);
+
+        // Open orders are a small fraction, as in production
+        jdbcTemplate.update("""
+                INSERT INTO orders (status, user_id, address, created_at, updated_at)
+                SELECT CASE WHEN g % 50 = 0 THEN 'NEW'
+                            WHEN g % 50 = 1 THEN 'PROCESSING'
+                            WHEN g % 7 = 0 THEN 'CANCELLED'
+                            ELSE 'COMPLETED' END,
+                       u.id,
+                       'Explain Address ' || g,
+                       TIMESTAMP '2024-01-01' + g * INTERVAL '10 minutes',
+                       TIMESTAMP '2024-01-01' + g * INTERVAL '10 minutes'
+                FROM generate_series(1, ?) g
+                JOIN (SELECT id, ROW_NUMBER() OVER (ORDER BY id) - 1 AS n
+                      FROM users WHERE username LIKE 'explain-user-%') u ON u.n = g % ?
+                """, ORDERS, USERS);
+
+        jdbcTemplate.update("""
+                INSERT INTO orders_products (order_id, order_created_at, product_id, quantity, price_at_order_time)
+                SELECT o.id, o.created_at, p.id, 1 + o.n % 3, p.price
+                FROM (SELECT id, created_at, ROW_NUMBER() OVER (ORDER BY id) AS n
+                      FROM orders WHERE address LIKE 'Explain Address %') o
+                JOIN (SELECT id, price, ROW_NUMBER() OVER (ORDER BY id) - 1 AS n
+                      FROM products WHERE name LIKE 'Explain Product %') p
+                  ON p.n IN (o.n % ?, (o.n + 1) % ?)
+                """, PRODUCTS, PRODUCTS);
+
+        for (String table : List.of("users", "products", "orders", "orders_products")) {
+            jdbcTemplate.execute("ANALYZE " + table);
+        }
+
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        orderId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM orders WHERE address LIKE 'Explain Address %'", Long.class);
+        productId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM products WHERE name LIKE 'Explain Product %'", Long.class);
+        userId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM users WHERE username LIKE 'explain-user-%'", Long.class);
+        username = jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, userId);
+
+        // The seeded rows bypassed Hibernate, so cached catalog queries would hide them and skip the SQL
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @Test
+    void findByOrderId_shouldUseOrderProductUniqueIndex() {
+        String sql = generatedSelect("orders_products", () -> orderProductRepository.findByOrderId(orderId));
+
+        assertUsesIndex("uk_orders_products_order_product", sql, orderId);
+    }
+
+    @Test
+    void findByOrderIdAndProductId_shouldUseOrderProductUniqueIndex() {
+        String sql = generatedSelect("orders_products",
+                () -> orderProductRepository.findByOrder_IdAndProduct_Id(orderId, productId));
+
+        assertUsesIndex("uk_orders_products_order_product", sql, orderId, productId);
+    }
+
+    @Test
+    void orderLinesOfProduct_shouldUseProductIdIndex() {
+        String sql = generatedSelect("orders_products",
+                () -> productRepository.findById(productId).orElseThrow().getOrderProductsInOrders().size());
+
+        assertUsesIndex("idx_orders_products_product_id", sql, productId);
+    }
+
+    @Test
+    void findByUserUsername_shouldUseUserIdIndex() {
+        String sql = generatedSelect("orders", () -> orderRepository.findByUser_Username(username));
+
+        assertUsesIndex("idx_orders_user_id_created_at", sql, username);
+    }
+
+    @Test
+    void findAllOrders_shouldUseUserIdIndex_whenFilteredByUserAndDate() {
+        OrderFilterDto filter = new OrderFilterDto();
+        filter.setUserId(userId);
+        filter.setCreatedAfter(LocalDateTime.of(2024, 2, 1, 0, 0));
+        filter.setCreatedBefore(LocalDateTime.of(2024, 3, 1, 0, 0));
+
+        String sql = generatedSelect("orders", () -> orderService.findAllOrders(filter));
+
+        assertUsesIndex("idx_orders_user_id_created_at", sql,
+                userId, timestamp(2024, 2, 1), timestamp(2024, 3, 1));
+    }
+
+    @Test
+    void findAllOrders_shouldUseCreatedAtIndex_whenFilteredByDate() {
+        OrderFilterDto filter = new OrderFilterDto();
+        filter.setCreatedAfter(LocalDateTime.of(2024, 2, 1, 0, 0));
+        filter.setCreatedBefore(LocalDateTime.of(2024, 2, 2, 0, 0));
+
+        String sql = generatedSelect("orders", () -> orderService.findAllOrders(filter));
+
+        assertUsesIndex("idx_orders_created_at", sql, timestamp(2024, 2, 1), timestamp(2024, 2, 2));
+    }
+
+    // The service loads the lines of every order found, so the ranges are kept near the end of the dataset
+    @Test
+    void findAllOrders_shouldUseStatusIndex_whenFilteredByClosedStatus() {
+        OrderFilterDto filter = new OrderFilterDto();
+        filter.setStatus(Set.of(OrderStatus.CANCELLED));
+        filter.setCreatedAfter(LocalDateTime.of(2024, 5, 1, 0, 0));
+
+        String sql = generatedSelect("orders", () -> orderService.findAllOrders(filter));
+
+        assertUsesIndex("idx_orders_status_created_at", sql, timestamp(2024, 5, 1), "CANCELLED");
+    }
+
+    @Test
+    void findAllOrders_shouldUseStatusIndex_whenFilteredByAnyOfSeveralStatuses() {
+        OrderFilterDto filter = new OrderFilterDto();
+        filter.setStatus(Set.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED));
+        filter.setCreatedAfter(LocalDateTime.of(2024, 5, 10, 0, 0));
+
+        String sql = generatedSelect("orders", () -> orderService.findAllOrders(filter));
+
+        assertUsesIndex("idx_orders_status_created_at", sql, timestamp(2024, 5, 10), "COMPLETED", "CANCELLED");
+    }
+
+    @Test
+    void findWithItemsByStatusIn_shouldUseOpenOrdersIndex() {
+        String sql = generatedSelect("orders",
+                () -> orderRepository.findWithItemsByStatusIn(KitchenBoard.OPEN_STATUSES));
+
+        assertUsesIndex("idx_orders_open_created_at", sql, "NEW", "PROCESSING");
+    }
+
+    @Test
+    void getAllProducts_shouldUseFilterIndex_whenFilteredByAllColumns() {
+        ProductFilterDto filter = new ProductFilterDto();
+        filter.setCategory(ProductCategory.PIZZA);
+        filter.setStatus(ProductStatus.ACTIVE);
+        filter.setActive(true);
+        filter.setMinPrice(new BigDecimal("5.00"));
+        filter.setMaxPrice(new BigDecimal("20.00"));
+
+        String sql = generatedSelect("products", () -> productService.getAllProducts(filter));
+
+        assertUsesIndex("idx_products_category_status_active_price", sql,
+                "PIZZA", "ACTIVE", true, new BigDecimal("5.00"), new BigDecimal("20.00"));
+    }
+
+    @Test
+    void getAllProducts_shouldUseFilterIndex_whenFilteredByCategory() {
+        ProductFilterDto filter = new ProductFilterDto();
+        filter.setCategory(ProductCategory.DRINK);
+
+        String sql = generatedSelect("products", () -> productService.getAllProducts(filter));
+
+        assertUsesIndex("idx_products_category_status_active_price", sql, "DRINK");
+    }
+
+    @Test
+    void findByName_shouldUseNameIndex() {
+        String sql = generatedSelect("products", () -> productRepository.findByName("Explain Product 42"));
+
+        assertUsesIndex("idx_products_name", sql, "Explain Product 42");
+    }
+
+    /**
+     * A word match or a similar name qualifies, so both indexes are scanned and their matches combined
+     * before ranking.
+     */
+    @Test
+    void searchFullText_shouldCombineSearchVectorAndNameTrigramIndexes() {
+        String text = "Explian Prodcut 42";
+        String tsQuery = ProductFullTextSearchRepository.toPrefixQuery(text);
+
+        String sql = generatedSelect("products", () -> productFullTextSearchRepository.search(text, null, 20));
+        String plan = explain(sql, tsQuery, text, tsQuery, text, 20);
+
+        assertTrue(plan.contains("BitmapOr"), "Expected a BitmapOr in:\n" + plan);
+        assertTrue(plan.contains("idx_products_search_vector"), "Expected the search vector index in:\n" + plan);
+        assertTrue(plan.contains("idx_products_name_trgm"), "Expected the name trigram index in:\n" + plan);
+    }
+
+    @Test
+    void searchFullText_shouldUseSearchVectorIndex_whenFiltered() {
+        String text = "explain 42";
+        String tsQuery = ProductFullTextSearchRepository.toPrefixQuery(text);
+
+        ProductFilterDto filter = new ProductFilterDto();
+        filter.setActive(true);
+        filter.setMinPrice(new BigDecimal("5.00"));
+
+        String sql = generatedSelect("products", () -> productFullTextSearchRepository.search(text, filter, 20));
+
+        assertUsesIndex("idx_products_search_vector", sql,
+                tsQuery, text, true, new BigDecimal("5.00"), tsQuery, text, 20);
+    }
+
+    /**
+     * Runs the call and returns the first SELECT from the given table that Hibernate prepared for it.
+     */
+    private static String generatedSelect(String table, Runnable call) {
+        List<String> statements = STATEMENTS.capture(call);
+        String from = " from " + table + " ";
+
+        return statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("select")
+                        && sql.toLowerCase(Locale.ROOT).contains(from))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No SELECT from " + table + " among:\n" + statements));
+    }
+
+    /**
+     * Indexes of partitioned tables are scanned through their per-partition copies, which get generated names.
+     */
+    private void assertUsesIndex(String indexName, String sql, Object... args) {
+        String plan = explain(sql, args);
+
+        List<String> partitionIndexes = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                """, String.class, indexName);
+
+        boolean used = plan.contains(indexName) || partitionIndexes.stream().anyMatch(plan::contains);
+
+        assertTrue(used, "Expected a scan of " + indexName + " in:\n" + plan);
+    }
+
+    /**
+     * @param args The values of the parameters in the order they appear in the statement.
+     */
+    private String explain(String sql, Object... args) {
+        assertEquals(args.length, sql.chars().filter(c -> c == '?').count(), "Parameters of:\n" + sql);
+
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    private static Timestamp timestamp(int year, int month, int day) {
+        return Timestamp.valueOf(LocalDateTime.of(year, month, day, 0, 0));
+    }
+
+    /**
+     * Records the statements Hibernate prepares on the thread that is capturing; background jobs run their
+     * own statements meanwhile.
+     */
+    static final class CapturingStatementInspector implements StatementInspector {
+
+        private final transient ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+        List<String> capture(Runnable call) {
+            List<String> statements = new ArrayList<>();
+            captured.set(statements);
+
+            try {
+                call.run();
+            } finally {
+                captured.remove();
+            }
+
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = captured.get();
+
+            if (statements != null) {
+                statements.add(sql);
+            }
+
+            return sql;
+        }
+    }
+}
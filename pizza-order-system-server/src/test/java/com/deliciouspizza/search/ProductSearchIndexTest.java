@@ -0,0 +1,120 @@
+package com.deliciouspizza.search;
+
+import com.deliciouspizza.dto.product.ProductResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.replaceAll(List.of(
+                product(1L, "Margherita", "Tomato sauce, mozzarella and basil"),
+                product(2L, "Pepperoni", "Tomato sauce, mozzarella and spicy pepperoni"),
+                product(3L, "Quattro Formaggi", "Four cheeses"),
+                product(4L, "Garlic Sauce", "Goes well with pepperoni pizza")
+        ));
+    }
+
+    @Test
+    void search_shouldMatchWholeWords_caseInsensitively() {
+        assertEquals(List.of(1L), ids(index.search("MARGHERITA", 10)));
+    }
+
+    @Test
+    void search_shouldMatchWordPrefixes() {
+        assertEquals(List.of(1L), ids(index.search("marg", 10)));
+        assertEquals(List.of(3L), ids(index.search("quat form", 10)));
+    }
+
+    @Test
+    void search_shouldTolerateTypos() {
+        assertEquals(List.of(3L), ids(index.search("quatro formagi", 10)));
+    }
+
+    @Test
+    void search_shouldRequireEveryWord() {
+        assertEquals(List.of(2L), ids(index.search("spicy mozzarella", 10)));
+        assertTrue(index.search("margherita pepperoni", 10).isEmpty());
+    }
+
+    /**
+     * More words start with the prefix than it expands to, and all the rare ones sort before the common one.
+     */
+    @Test
+    void search_shouldExpandPrefixToTheMostFrequentWords() {
+        List<ProductResponseDto> products = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            products.add(product(100L + i, String.format("Piadina%02d", i), "Flatbread"));
+        }
+
+        products.add(product(1L, "Pizza Margherita", "Tomato sauce, mozzarella and basil"));
+        products.add(product(2L, "Pizza Pepperoni", "Tomato sauce, mozzarella and spicy pepperoni"));
+        index.replaceAll(products);
+
+        List<Long> hits = ids(index.search("pi", 200));
+
+        assertTrue(hits.containsAll(List.of(1L, 2L)), "Hits: " + hits);
+        assertEquals(List.of(2L), ids(index.search("pi spicy", 10)));
+    }
+
+    @Test
+    void search_shouldRankNameMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(2L, 4L), ids(index.search("pepperoni", 10)));
+    }
+
+    @Test
+    void search_shouldReturnAtMostLimitHits() {
+        assertEquals(List.of(1L), ids(index.search("mozzarella", 1)));
+    }
+
+    @Test
+    void search_shouldReturnNothing_forBlankQuery() {
+        assertTrue(index.search("  ,. ", 10).isEmpty());
+    }
+
+    @Test
+    void put_shouldReplaceTheIndexedVersion() {
+        index.put(product(1L, "Marinara", "Tomato sauce and garlic"));
+
+        assertTrue(index.search("margherita", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("marinara", 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_shouldDropTheProductAndItsWords() {
+        index.remove(3L);
+
+        assertTrue(index.search("formaggi", 10).isEmpty());
+        assertTrue(index.search("formagi", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void trigrams_shouldPadTheTerm() {
+        assertEquals(Set.of("  a", " ab", "ab "), ProductSearchIndex.trigrams("ab"));
+    }
+
+    private static List<Long> ids(List<ProductSearchIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.product().getId()).toList();
+    }
+
+    private static ProductResponseDto product(long id, String name, String description) {
+        ProductResponseDto product = new ProductResponseDto();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        return product;
+    }
+}
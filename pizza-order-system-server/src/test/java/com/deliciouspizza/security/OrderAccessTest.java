@@ -0,0 +1,77 @@
+package com.deliciouspizza.security;
+
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderAccessTest {
+
+    private static final long CUSTOMER_ID = 7L;
+    private static final long OTHER_CUSTOMER_ID = 8L;
+
+    private UserRepository userRepository;
+    private OrderAccess orderAccess;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        orderAccess = new OrderAccess(userRepository);
+
+        User customer = new User();
+        customer.setId(CUSTOMER_ID);
+        customer.setUsername("customer");
+        when(userRepository.findByUsername("customer")).thenReturn(Optional.of(customer));
+    }
+
+    @Test
+    void canReadOrdersOf_shouldAllowCustomers_onlyTheirOwnOrders() {
+        Authentication customer = authentication("customer", "ROLE_CUSTOMER");
+
+        assertTrue(orderAccess.canReadOrdersOf(customer, CUSTOMER_ID));
+        assertFalse(orderAccess.canReadOrdersOf(customer, OTHER_CUSTOMER_ID));
+    }
+
+    @Test
+    void canReadOrdersOf_shouldAllowEmployees_everyOrder_withoutLookingThemUp() {
+        Authentication employee = authentication("employee", "ROLE_EMPLOYEE");
+
+        assertTrue(orderAccess.canReadOrdersOf(employee, CUSTOMER_ID));
+        assertTrue(orderAccess.canReadOrdersOf(employee, OTHER_CUSTOMER_ID));
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void canReadOrdersOf_shouldDenyUnknownAndMissingCallers() {
+        assertFalse(orderAccess.canReadOrdersOf(authentication("deleted", "ROLE_CUSTOMER"), CUSTOMER_ID));
+        assertFalse(orderAccess.canReadOrdersOf(null, CUSTOMER_ID));
+    }
+
+    @Test
+    void readableCustomers_shouldLookUpTheCallerOnce() {
+        LongPredicate readable = orderAccess.readableCustomers(authentication("customer", "ROLE_CUSTOMER"));
+
+        assertTrue(readable.test(CUSTOMER_ID));
+        assertFalse(readable.test(OTHER_CUSTOMER_ID));
+        verify(userRepository).findByUsername("customer");
+    }
+
+    private static Authentication authentication(String username, String authority) {
+        return new UsernamePasswordAuthenticationToken(username, null, List.of(new SimpleGrantedAuthority(authority)));
+    }
+}
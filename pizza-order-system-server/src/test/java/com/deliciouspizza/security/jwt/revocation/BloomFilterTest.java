@@ -0,0 +1,100 @@
+package com.deliciouspizza.security.jwt.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    void mightContain_shouldFindEveryAddedValue() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        List<String> added = tokenIds(0, INSERTIONS);
+
+        added.forEach(filter::put);
+
+        assertTrue(added.stream().allMatch(filter::mightContain));
+    }
+
+    /**
+     * Token ids are derived from their index, so the measured rate is the same on every run.
+     */
+    @Test
+    void mightContain_shouldStayWithinTheFalsePositiveRate_whenFilledToCapacity() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        tokenIds(0, INSERTIONS).forEach(filter::put);
+
+        int lookups = 100_000;
+        long falsePositives = tokenIds(INSERTIONS, INSERTIONS + lookups).stream()
+                .filter(filter::mightContain)
+                .count();
+
+        double rate = (double) falsePositives / lookups;
+        assertTrue(rate <= FALSE_POSITIVE_RATE * 1.5, "False positive rate: " + rate);
+    }
+
+    @Test
+    void constructor_shouldSizeForTheRequestedRate() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+
+        // m = -n ln p / (ln 2)^2 bits, rounded up to whole words, and k = m / n ln 2 probes
+        assertTrue(filter.getBitCount() >= 95_851);
+        assertEquals(0, filter.getBitCount() % 64);
+        assertEquals(7, filter.getHashFunctions());
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, FALSE_POSITIVE_RATE));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(INSERTIONS, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(INSERTIONS, 1));
+    }
+
+    @Test
+    void put_shouldNotLoseValues_whenCalledConcurrently() throws Exception {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        List<String> added = tokenIds(0, INSERTIONS);
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < added.size(); i += threads) {
+                        filter.put(added.get(i));
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(added.stream().allMatch(filter::mightContain));
+    }
+
+    private static List<String> tokenIds(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> UUID.nameUUIDFromBytes(("token-" + i).getBytes()).toString())
+                .toList();
+    }
+}
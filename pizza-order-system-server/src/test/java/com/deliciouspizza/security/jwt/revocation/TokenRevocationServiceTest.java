@@ -0,0 +1,87 @@
+package com.deliciouspizza.security.jwt.revocation;
+
+import com.deliciouspizza.model.token.AccessToken;
+import com.deliciouspizza.repository.AccessTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final long USER_ID = 7L;
+
+    private AccessTokenRepository accessTokenRepository;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        accessTokenRepository = mock(AccessTokenRepository.class);
+        service = new TokenRevocationService(accessTokenRepository, 1000, 0.001);
+    }
+
+    @Test
+    void isRevoked_shouldBeFalse_forTokensThatWereNeverRevoked() {
+        assertFalse(service.isRevoked("never-revoked"));
+        assertFalse(service.isRevoked(null));
+    }
+
+    @Test
+    void revokeAllForUser_shouldRejectEveryOutstandingTokenOfTheUser() {
+        AccessToken first = token("first", Duration.ofMinutes(10));
+        AccessToken second = token("second", Duration.ofMinutes(5));
+        when(accessTokenRepository.findByUserIdAndRevokedAtIsNullAndExpiresAtAfter(eq(USER_ID), any()))
+                .thenReturn(List.of(first, second));
+
+        assertEquals(2, service.revokeAllForUser(USER_ID));
+
+        assertTrue(service.isRevoked("first"));
+        assertTrue(service.isRevoked("second"));
+        assertFalse(service.isRevoked("other-user"));
+        assertNotNull(first.getRevokedAt());
+        assertNotNull(second.getRevokedAt());
+        verify(accessTokenRepository).saveAll(List.of(first, second));
+    }
+
+    @Test
+    void loadRevokedTokens_shouldRejectTokensRevokedBeforeStartup() {
+        AccessToken revoked = token("revoked-earlier", Duration.ofMinutes(10));
+        revoked.setRevokedAt(Instant.now());
+        when(accessTokenRepository.findByRevokedAtIsNotNullAndExpiresAtAfter(any())).thenReturn(List.of(revoked));
+
+        service.loadRevokedTokens();
+
+        assertTrue(service.isRevoked("revoked-earlier"));
+    }
+
+    @Test
+    void compact_shouldKeepLiveRevocations_andForgetExpiredOnes() {
+        AccessToken live = token("live", Duration.ofMinutes(10));
+        AccessToken expired = token("expired", Duration.ofMillis(-1));
+        when(accessTokenRepository.findByUserIdAndRevokedAtIsNullAndExpiresAtAfter(anyLong(), any()))
+                .thenReturn(List.of(live, expired));
+        service.revokeAllForUser(USER_ID);
+
+        service.compact();
+
+        assertTrue(service.isRevoked("live"));
+        assertFalse(service.isRevoked("expired"));
+    }
+
+    private static AccessToken token(String jti, Duration lifetime) {
+        return new AccessToken(jti, USER_ID, Instant.now().plus(lifetime));
+    }
+}
@@ -0,0 +1,76 @@
+package com.deliciouspizza.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // One request per client and group, refilled far slower than the test runs
+        filter = new RateLimitFilter(new ObjectMapper().findAndRegisterModules(), true, 100, 1, 0.001, 1, 0.001, 1, 0.001);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_shouldLimitUsersBehindOneAddressTogether() throws Exception {
+        assertEquals(HttpStatus.OK.value(), send("alice", "203.0.113.7"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), send("bob", "203.0.113.7"));
+    }
+
+    @Test
+    void doFilter_shouldLimitOneUserAcrossAddresses() throws Exception {
+        assertEquals(HttpStatus.OK.value(), send("alice", "203.0.113.7"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), send("alice", "198.51.100.20"));
+    }
+
+    @Test
+    void doFilter_shouldLimitAnonymousClientsPerAddress() throws Exception {
+        assertEquals(HttpStatus.OK.value(), send(null, "203.0.113.7"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), send(null, "203.0.113.7"));
+        assertEquals(HttpStatus.OK.value(), send(null, "203.0.113.8"));
+    }
+
+    @Test
+    void networkOf_shouldKeepTheLeadingBlockOfTheAddress() {
+        assertEquals("203.0.113", RateLimitFilter.networkOf("203.0.113.7"));
+        assertEquals("2001:db8:85a3", RateLimitFilter.networkOf("2001:db8:85a3:0:0:8a2e:370:7334"));
+        assertEquals("::1", RateLimitFilter.networkOf("::1"));
+        assertEquals("unknown", RateLimitFilter.networkOf("unknown"));
+    }
+
+    private int send(String username, String address) throws Exception {
+        SecurityContextHolder.clearContext();
+
+        if (username != null) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products");
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        return response.getStatus();
+    }
+}
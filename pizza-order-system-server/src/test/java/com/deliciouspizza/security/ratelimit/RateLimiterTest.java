@@ -0,0 +1,111 @@
+package com.deliciouspizza.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_shouldAllowBurstUpToCapacity_thenReject() {
+        RateLimiter rateLimiter = new RateLimiter(100);
+        RateLimiter.Limit limit = new RateLimiter.Limit(3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client", "network", limit, 0));
+        }
+
+        long wait = rateLimiter.tryAcquire("client", "network", limit, 0);
+
+        assertEquals(SECOND, wait);
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOverTime() {
+        RateLimiter rateLimiter = new RateLimiter(100);
+        RateLimiter.Limit limit = new RateLimiter.Limit(1, 2);
+
+        assertEquals(0, rateLimiter.tryAcquire("client", "network", limit, 0));
+        assertTrue(rateLimiter.tryAcquire("client", "network", limit, SECOND / 4) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("client", "network", limit, SECOND / 2));
+    }
+
+    @Test
+    void tryAcquire_shouldKeepClientsIndependent() {
+        RateLimiter rateLimiter = new RateLimiter(100);
+        RateLimiter.Limit limit = new RateLimiter.Limit(1, 1);
+
+        assertEquals(0, rateLimiter.tryAcquire("first", "network", limit, 0));
+        assertTrue(rateLimiter.tryAcquire("first", "network", limit, 0) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("second", "network", limit, 0));
+    }
+
+    @Test
+    void evictFull_shouldDropOnlyRefilledBuckets() {
+        RateLimiter rateLimiter = new RateLimiter(100);
+        RateLimiter.Limit limit = new RateLimiter.Limit(10, 1);
+
+        rateLimiter.tryAcquire("idle", "network", limit, 0);
+        rateLimiter.tryAcquire("busy", "network", limit, 5 * SECOND);
+
+        assertEquals(1, rateLimiter.evictFull(2 * SECOND, false));
+        assertEquals(1, rateLimiter.size());
+    }
+
+    @Test
+    void tryAcquire_shouldNotGrowBeyondBound() {
+        RateLimiter rateLimiter = new RateLimiter(2);
+        RateLimiter.Limit limit = new RateLimiter.Limit(1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquire("client" + i, "network", limit, 0);
+        }
+
+        assertEquals(2, rateLimiter.size());
+    }
+
+    @Test
+    void tryAcquire_shouldLimitNewClientsByTheirOverflowKey_whenFull() {
+        RateLimiter rateLimiter = new RateLimiter(2);
+        RateLimiter.Limit limit = new RateLimiter.Limit(1, 1);
+
+        rateLimiter.tryAcquire("first", "network-a", limit, 0);
+        rateLimiter.tryAcquire("second", "network-a", limit, 0);
+
+        assertEquals(0, rateLimiter.tryAcquire("third", "network-b", limit, 0));
+        assertTrue(rateLimiter.tryAcquire("fourth", "network-b", limit, 0) > 0);
+        assertEquals(2, rateLimiter.size());
+        assertEquals(1, rateLimiter.overflowSize());
+    }
+
+    @Test
+    void tryAcquire_shouldLetNewClientsThrough_whenOverflowIsFullAsWell() {
+        RateLimiter rateLimiter = new RateLimiter(2);
+        RateLimiter.Limit limit = new RateLimiter.Limit(1, 1);
+
+        rateLimiter.tryAcquire("first", "network-a", limit, 0);
+        rateLimiter.tryAcquire("second", "network-a", limit, 0);
+        rateLimiter.tryAcquire("third", "network-b", limit, 0);
+
+        assertEquals(0, rateLimiter.tryAcquire("fourth", "network-c", limit, 0));
+        assertEquals(0, rateLimiter.tryAcquire("fifth", "network-c", limit, 0));
+        assertEquals(1, rateLimiter.overflowSize());
+    }
+
+    @Test
+    void evictFull_shouldDropRefilledOverflowBuckets() {
+        RateLimiter rateLimiter = new RateLimiter(1);
+        RateLimiter.Limit limit = new RateLimiter.Limit(1, 1);
+
+        rateLimiter.tryAcquire("first", "network-a", limit, 0);
+        rateLimiter.tryAcquire("second", "network-b", limit, 0);
+
+        assertEquals(2, rateLimiter.evictFull(2 * SECOND, false));
+        assertEquals(0, rateLimiter.overflowSize());
+    }
+}
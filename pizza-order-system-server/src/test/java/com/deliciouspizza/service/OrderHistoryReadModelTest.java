@@ -0,0 +1,140 @@
+package com.deliciouspizza.service;
+
+import com.deliciouspizza.dto.order.OrderHistoryPageDto;
+import com.deliciouspizza.dto.order.OrderRequestDto;
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order_product.OrderProductRequestDto;
+import com.deliciouspizza.exception.InvalidPageCursorException;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+class OrderHistoryReadModelTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    private User customer;
+    private Product pizza;
+    private Product otherPizza;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("history-customer");
+        user.setEmail("history-customer@example.com");
+        user.setPasswordHash("not-used");
+        user.setRole(UserRole.CUSTOMER);
+        user.setActive(true);
+        user.setAddress("Address");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        customer = userRepository.save(user);
+
+        pizza = productRepository.save(new Pizza(ProductStatus.ACTIVE, "History Pizza", "Desc", ProductSize.MEDIUM,
+                new BigDecimal("10.00"), true, BigDecimal.ZERO));
+        otherPizza = productRepository.save(new Pizza(ProductStatus.ACTIVE, "Other History Pizza", "Desc", ProductSize.LARGE,
+                new BigDecimal("12.50"), true, BigDecimal.ZERO));
+    }
+
+    @Test
+    void findOrderHistory_shouldReflectLineChanges() {
+        OrderResponseDto created = orderService.createNewOrder(orderOf(pizza, 2));
+
+        OrderProductRequestDto added = new OrderProductRequestDto();
+        added.setProductId(otherPizza.getId());
+        added.setQuantity(1);
+        orderService.addProductToOrder(created.getId(), added);
+        orderService.updateProductCount(created.getId(), pizza.getId(), 3);
+
+        OrderResponseDto summary = orderService.findOrderHistory(customer.getUsername(), null, null, 10).getOrders().getFirst();
+
+        assertEquals(created.getId(), summary.getId());
+        assertEquals(0, new BigDecimal("42.50").compareTo(summary.getSubtotal()));
+        assertEquals(4, summary.getItemCount());
+        assertEquals(2, summary.getLineCount());
+        assertEquals(List.of("History Pizza", "Other History Pizza"),
+                summary.getItems().stream().map(item -> item.getProductName()).toList());
+    }
+
+    @Test
+    void findOrderHistory_shouldPageNewestFirst_withoutGapsOrRepeats() {
+        List<Long> ids = List.of(
+                orderService.createNewOrder(orderOf(pizza, 1)).getId(),
+                orderService.createNewOrder(orderOf(pizza, 1)).getId(),
+                orderService.createNewOrder(orderOf(pizza, 1)).getId()
+        );
+
+        OrderHistoryPageDto first = orderService.findOrderHistory(customer.getUsername(), null, null, 2);
+        OrderHistoryPageDto second = orderService.findOrderHistory(customer.getUsername(),
+                first.getNextBeforeCreatedAt(), first.getNextBeforeId(), 2);
+
+        assertEquals(List.of(ids.get(2), ids.get(1)), first.getOrders().stream().map(OrderResponseDto::getId).toList());
+        assertEquals(List.of(ids.get(0)), second.getOrders().stream().map(OrderResponseDto::getId).toList());
+        assertNull(second.getNextBeforeId());
+    }
+
+    @Test
+    void findOrderHistory_shouldDropDeletedOrders() {
+        long orderId = orderService.createNewOrder(orderOf(pizza, 1)).getId();
+
+        orderService.deleteOrder(orderId);
+
+        assertEquals(List.of(), orderService.findOrderHistory(customer.getUsername(), null, null, 10).getOrders());
+    }
+
+    @Test
+    void findOrderHistory_shouldReject_halfACursor() {
+        assertThrows(InvalidPageCursorException.class,
+                () -> orderService.findOrderHistory(customer.getUsername(), LocalDateTime.now(), null, 10));
+    }
+
+    private OrderRequestDto orderOf(Product product, int quantity) {
+        OrderProductRequestDto item = new OrderProductRequestDto();
+        item.setProductId(product.getId());
+        item.setQuantity(quantity);
+
+        OrderRequestDto request = new OrderRequestDto();
+        request.setUserId(customer.getId());
+        request.setAddress("History Address");
+        request.setItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,253 @@
+package com.deliciouspizza.service;
+
+import com.deliciouspizza.dto.geocode.CalculatedDistance;
+import com.deliciouspizza.dto.order.ProcessOrderRequestDto;
+import com.deliciouspizza.dto.order_product.OrderProductRequestDto;
+import com.deliciouspizza.exception.OrderStatusConflictException;
+import com.deliciouspizza.model.order.Order;
+import com.deliciouspizza.model.order.OrderStatus;
+import com.deliciouspizza.model.order.OrderTotals;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.OrderProductRepository;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the same order operation from many threads at once. Not transactional on purpose: each call has to
+ * commit on its own so the database decides the races.
+ */
+@SpringBootTest(properties = "optimistic-lock.retry.max-attempts=10")
+class OrderServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderProductRepository orderProductRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OpenRouteService openRouteService;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    private User customer;
+    private User employee;
+    private Product pizza;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.save(createUser("race-customer", UserRole.CUSTOMER));
+        employee = userRepository.save(createUser("race-employee", UserRole.EMPLOYEE));
+        pizza = productRepository.save(new Pizza(ProductStatus.ACTIVE, "Race Pizza", "Desc", ProductSize.MEDIUM,
+                new BigDecimal("10.00"), true, BigDecimal.ZERO));
+
+        order = new Order();
+        order.setUser(customer);
+        order.setAddress("Race Address");
+        order.setStatus(OrderStatus.NEW);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+        order = orderRepository.save(order);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteById(order.getId());
+        productRepository.deleteById(pizza.getId());
+        userRepository.deleteAll(List.of(customer, employee));
+    }
+
+    /**
+     * The distance calculation waits until every thread has passed the status check, so all of them race
+     * on the conditional update.
+     */
+    @Test
+    void processOrder_shouldProcessExactlyOnce_whenSameOrderProcessedConcurrently() throws Exception {
+        CountDownLatch allChecked = new CountDownLatch(THREADS);
+
+        when(openRouteService.getCoordinates(anyString())).thenReturn(Mono.just(List.of(23.3, 42.6)));
+        when(openRouteService.getDistance(anyList(), anyList())).thenAnswer(invocation -> {
+            allChecked.countDown();
+            allChecked.await(10, TimeUnit.SECONDS);
+            return Mono.just(new CalculatedDistance(1000.0, 120.0));
+        });
+
+        ProcessOrderRequestDto requestDto = new ProcessOrderRequestDto();
+        requestDto.setEmployeeId(employee.getId());
+
+        int processed = runConcurrently(() -> orderService.processOrder(order.getId(), requestDto),
+                OrderStatusConflictException.class);
+
+        assertEquals(1, processed);
+        assertEquals(OrderStatus.PROCESSING, orderRepository.findStatusById(order.getId()).orElseThrow());
+    }
+
+    /**
+     * The first add inserts the line, the concurrent ones all increment it in the database: none may fail
+     * and none may be lost.
+     */
+    @Test
+    void addProductToOrder_shouldNotLoseIncrements_whenSameItemIncrementedConcurrently() throws Exception {
+        orderService.addProductToOrder(order.getId(), itemRequest(1));
+
+        int incremented = runConcurrently(() -> orderService.addProductToOrder(order.getId(), itemRequest(1)), null);
+
+        int quantity = orderProductRepository.findByOrder_IdAndProduct_Id(order.getId(), pizza.getId())
+                .orElseThrow()
+                .getQuantity();
+
+        assertEquals(THREADS, incremented);
+        assertEquals(1 + THREADS, quantity);
+        assertStoredTotals(quantity);
+    }
+
+    /**
+     * Setting the same line from many threads conflicts on the version column; conflicts are retried, and
+     * whatever did not get through within the bounded attempts fails with a conflict instead of being lost.
+     */
+    @Test
+    void updateProductCount_shouldEndWithOneOfTheWrittenCounts_whenSameItemUpdatedConcurrently() throws Exception {
+        orderService.addProductToOrder(order.getId(), itemRequest(1));
+        AtomicInteger nextCount = new AtomicInteger(1);
+
+        int updated = runConcurrently(
+                () -> orderService.updateProductCount(order.getId(), pizza.getId(), nextCount.incrementAndGet()),
+                OptimisticLockingFailureException.class);
+
+        int quantity = orderProductRepository.findByOrder_IdAndProduct_Id(order.getId(), pizza.getId())
+                .orElseThrow()
+                .getQuantity();
+
+        assertTrue(updated > 0);
+        assertTrue(quantity > 1 && quantity <= THREADS + 1);
+        assertStoredTotals(quantity);
+    }
+
+    /**
+     * The stored totals are only ever changed by deltas, so every lost or doubled delta shows up here.
+     */
+    private void assertStoredTotals(int quantity) {
+        OrderTotals totals = orderRepository.findById(order.getId()).orElseThrow().getTotals();
+
+        assertEquals(0, pizza.getPrice().multiply(BigDecimal.valueOf(quantity)).compareTo(totals.subtotal()));
+        assertEquals(quantity, totals.itemCount());
+        assertEquals(1, totals.lineCount());
+    }
+
+    /**
+     * Releases all calls at the same moment and counts how many succeeded.
+     * Every other call must fail with the expected exception, if any; anything else fails the test.
+     */
+    private int runConcurrently(Callable<?> call, Class<? extends Exception> expectedFailure) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        call.call();
+                        return true;
+                    } catch (Exception e) {
+                        if (expectedFailure != null && expectedFailure.isInstance(e)) {
+                            return false;
+                        }
+                        throw e;
+                    }
+                }));
+            }
+
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (result.get()) {
+                        succeeded++;
+                    }
+                } catch (ExecutionException e) {
+                    throw new AssertionError("Unexpected failure", e.getCause());
+                }
+            }
+
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private OrderProductRequestDto itemRequest(int quantity) {
+        OrderProductRequestDto dto = new OrderProductRequestDto();
+        dto.setProductId(pizza.getId());
+        dto.setQuantity(quantity);
+        return dto;
+    }
+
+    private User createUser(String username, UserRole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("not-used");
+        user.setRole(role);
+        user.setActive(true);
+        user.setAddress("Address");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+}
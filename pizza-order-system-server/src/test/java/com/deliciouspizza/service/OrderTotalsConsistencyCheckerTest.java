@@ -0,0 +1,233 @@
+package com.deliciouspizza.service;
+
+import com.deliciouspizza.dto.order.OrderRequestDto;
+import com.deliciouspizza.dto.order.OrderResponseDto;
+import com.deliciouspizza.dto.order.OrderUpdateDto;
+import com.deliciouspizza.dto.order_product.OrderProductRequestDto;
+import com.deliciouspizza.model.product.Drink;
+import com.deliciouspizza.model.product.Pizza;
+import com.deliciouspizza.model.product.Product;
+import com.deliciouspizza.model.product.ProductSize;
+import com.deliciouspizza.model.product.ProductStatus;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.CustomerOrderSummaryRepository;
+import com.deliciouspizza.repository.OrderRepository;
+import com.deliciouspizza.repository.ProductRepository;
+import com.deliciouspizza.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the stored totals after each order change and that the checker finds and repairs totals that no
+ * longer match the lines. The totals are corrupted with plain SQL, the way a manual edit would.
+ */
+@SpringBootTest
+@Transactional
+class OrderTotalsConsistencyCheckerTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderTotalsConsistencyChecker checker;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerOrderSummaryRepository customerOrderSummaryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    private User customer;
+    private Product pizza;
+    private Product drink;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("totals-customer");
+        user.setEmail("totals-customer@example.com");
+        user.setPasswordHash("not-used");
+        user.setRole(UserRole.CUSTOMER);
+        user.setActive(true);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        customer = userRepository.save(user);
+
+        pizza = productRepository.save(new Pizza(ProductStatus.ACTIVE, "Totals Pizza", "Desc", ProductSize.LARGE,
+                new BigDecimal("15.00"), true, BigDecimal.ZERO));
+        drink = productRepository.save(new Drink(ProductStatus.ACTIVE, "Totals Cola", "Desc", ProductSize._330ML,
+                new BigDecimal("3.00"), true, BigDecimal.ZERO, false));
+    }
+
+    @Test
+    void createNewOrder_shouldStoreTotalsOfItsLines() {
+        OrderResponseDto created = createOrder();
+
+        assertEquals(0, new BigDecimal("21.00").compareTo(created.getSubtotal()));
+        assertEquals(3, created.getItemCount());
+        assertEquals(2, created.getLineCount());
+        assertTotals(created.getId(), "21.00", 3, 2);
+    }
+
+    @Test
+    void removeItemFromOrder_shouldSubtractTheLine() {
+        long orderId = createOrder().getId();
+
+        OrderResponseDto updated = orderService.removeItemFromOrder(orderId, drink.getId());
+
+        assertEquals(0, new BigDecimal("15.00").compareTo(updated.getSubtotal()));
+        assertEquals(1, updated.getItemCount());
+        assertEquals(1, updated.getLineCount());
+        assertTotals(orderId, "15.00", 1, 1);
+    }
+
+    @Test
+    void removeProductFromOrder_shouldSubtractTheLine() {
+        long orderId = createOrder().getId();
+
+        orderService.removeProductFromOrder(orderId, pizza.getId());
+
+        assertTotals(orderId, "6.00", 2, 1);
+    }
+
+    @Test
+    void updateOrder_shouldKeepTheTotals() {
+        long orderId = createOrder().getId();
+
+        OrderUpdateDto updateDto = new OrderUpdateDto();
+        updateDto.setAddress("New Totals Address");
+        updateDto.setStatus("PROCESSING");
+
+        OrderResponseDto updated = orderService.updateOrder(orderId, updateDto);
+
+        assertEquals(0, new BigDecimal("21.00").compareTo(updated.getSubtotal()));
+        assertEquals(3, updated.getItemCount());
+        assertEquals(2, updated.getLineCount());
+        assertTotals(orderId, "21.00", 3, 2);
+    }
+
+    @Test
+    void checkAll_shouldDetectAndRepairWrongSubtotal() {
+        assertDetectedAndRepaired("UPDATE orders SET subtotal = subtotal + 1 WHERE id = ?");
+    }
+
+    @Test
+    void checkAll_shouldDetectAndRepairWrongItemCount() {
+        assertDetectedAndRepaired("UPDATE orders SET item_count = item_count + 1 WHERE id = ?");
+    }
+
+    @Test
+    void checkAll_shouldDetectAndRepairWrongLineCount() {
+        assertDetectedAndRepaired("UPDATE orders SET line_count = line_count - 1 WHERE id = ?");
+    }
+
+    @Test
+    void checkAll_shouldDetectRemovedLine() {
+        long orderId = createOrder().getId();
+        entityManager.flush();
+
+        jdbcTemplate.update("DELETE FROM orders_products WHERE order_id = ? AND product_id = ?", orderId, drink.getId());
+
+        assertTrue(checker.checkAll().contains(orderId));
+        assertTrue(repairingChecker().checkAll().contains(orderId));
+        assertTotals(orderId, "15.00", 1, 1);
+    }
+
+    /**
+     * The checker bean leaves the totals alone; one built with repair enabled fixes them.
+     */
+    private void assertDetectedAndRepaired(String corruption) {
+        long orderId = createOrder().getId();
+        entityManager.flush();
+
+        jdbcTemplate.update(corruption, orderId);
+
+        assertTrue(checker.checkAll().contains(orderId));
+        assertTrue(checker.checkAll().contains(orderId), "Detection alone must not change the totals");
+
+        assertTrue(repairingChecker().checkAll().contains(orderId));
+
+        assertFalse(checker.checkAll().contains(orderId));
+        assertTotals(orderId, "21.00", 3, 2);
+    }
+
+    private OrderTotalsConsistencyChecker repairingChecker() {
+        return new OrderTotalsConsistencyChecker(orderRepository, customerOrderSummaryRepository, transactionManager,
+                true, 1000, true);
+    }
+
+    private OrderResponseDto createOrder() {
+        OrderProductRequestDto pizzaLine = new OrderProductRequestDto();
+        pizzaLine.setProductId(pizza.getId());
+        pizzaLine.setQuantity(1);
+
+        OrderProductRequestDto drinkLine = new OrderProductRequestDto();
+        drinkLine.setProductId(drink.getId());
+        drinkLine.setQuantity(2);
+
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setUserId(customer.getId());
+        requestDto.setAddress("Totals Address");
+        requestDto.setItems(List.of(pizzaLine, drinkLine));
+
+        return orderService.createNewOrder(requestDto);
+    }
+
+    /**
+     * Asserts the stored totals and that they match the lines.
+     */
+    private void assertTotals(long orderId, String subtotal, int itemCount, int lineCount) {
+        entityManager.flush();
+
+        Map<String, Object> totals = jdbcTemplate.queryForMap(
+                "SELECT subtotal, item_count, line_count FROM orders WHERE id = ?", orderId);
+
+        assertEquals(0, new BigDecimal(subtotal).compareTo((BigDecimal) totals.get("subtotal")));
+        assertEquals(itemCount, ((Number) totals.get("item_count")).intValue());
+        assertEquals(lineCount, ((Number) totals.get("line_count")).intValue());
+        assertFalse(checker.checkAll().contains(orderId));
+    }
+}
@@ -0,0 +1,124 @@
+package com.deliciouspizza.service;
+
+import com.deliciouspizza.dto.user.UserInputDto;
+import com.deliciouspizza.exception.UserAlreadyExistsException;
+import com.deliciouspizza.model.user.User;
+import com.deliciouspizza.model.user.UserRole;
+import com.deliciouspizza.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers registration from many threads at once. Not transactional on purpose: every registration
+ * has to commit on its own so the unique constraints are what decides the winner.
+ */
+@SpringBootTest(properties = "security.bcrypt.strength=4")
+class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TestConfiguration
+    static class TestOpenRouteServiceConfig {
+        @Bean
+        public OpenRouteService openRouteService() {
+            return Mockito.mock(OpenRouteService.class);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List<User> racers = userRepository.findAll().stream()
+                .filter(user -> user.getUsername().startsWith("racer"))
+                .toList();
+
+        userRepository.deleteAll(racers);
+    }
+
+    @Test
+    void registerNewUser_shouldCreateExactlyOneUser_whenSameUsernameRegisteredConcurrently() throws Exception {
+        int created = registerConcurrently(i -> createUserInputDto("racer", "racer" + i + "@example.com"));
+
+        assertEquals(1, created);
+        assertEquals(1, userRepository.findAll().stream().filter(user -> user.getUsername().equals("racer")).count());
+    }
+
+    @Test
+    void registerNewUser_shouldCreateExactlyOneUser_whenSameEmailRegisteredConcurrently() throws Exception {
+        int created = registerConcurrently(i -> createUserInputDto("racer" + i, "racer@example.com"));
+
+        assertEquals(1, created);
+        assertEquals(1, userRepository.findAll().stream().filter(user -> user.getEmail().equals("racer@example.com")).count());
+    }
+
+    /**
+     * Releases all registrations at the same moment and counts how many succeeded.
+     * Every other attempt must fail with UserAlreadyExistsException, anything else fails the test.
+     */
+    private int registerConcurrently(IntFunction<UserInputDto> inputForThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                UserInputDto input = inputForThread.apply(i);
+
+                Callable<Boolean> registration = () -> {
+                    start.await();
+                    try {
+                        userService.registerNewUser(input);
+                        return true;
+                    } catch (UserAlreadyExistsException e) {
+                        return false;
+                    }
+                };
+
+                results.add(executor.submit(registration));
+            }
+
+            start.countDown();
+
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    created++;
+                }
+            }
+
+            return created;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UserInputDto createUserInputDto(String username, String email) {
+        UserInputDto dto = new UserInputDto();
+        dto.setUsername(username);
+        dto.setEmail(email);
+        dto.setPassword("password123");
+        dto.setUserRole(UserRole.CUSTOMER);
+        return dto;
+    }
+}
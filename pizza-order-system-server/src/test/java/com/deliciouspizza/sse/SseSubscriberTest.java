@@ -0,0 +1,157 @@
+package com.deliciouspizza.sse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SseSubscriberTest {
+
+    private static final int MAX_PENDING = 3;
+
+    private SseEmitter emitter;
+    private AtomicInteger closed;
+    private SseSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        emitter = mock(SseEmitter.class);
+        closed = new AtomicInteger();
+        subscriber = new SseSubscriber(emitter, MAX_PENDING, ignored -> closed.incrementAndGet());
+    }
+
+    @Test
+    void drain_shouldSendOnlyTheLatestEventOfEachKey() throws Exception {
+        assertTrue(subscriber.offer(1, "order-status", 1L, "old"));
+        assertFalse(subscriber.offer(1, "order-status", 2L, "new"));
+        assertFalse(subscriber.offer(2, "order-status", 3L, "other"));
+
+        subscriber.drain();
+
+        assertEquals(List.of("new", "other"), sentPayloads(2));
+    }
+
+    @Test
+    void offerHeartbeat_shouldSendComment_whenNoEventIsPending() throws Exception {
+        assertTrue(subscriber.offerHeartbeat());
+
+        subscriber.drain();
+
+        List<Object> sent = sentPayloads(1);
+        assertTrue(sent.getFirst().toString().contains(":heartbeat"));
+    }
+
+    @Test
+    void offerHeartbeat_shouldBeSkipped_whenAnEventIsSentAnyway() throws Exception {
+        assertTrue(subscriber.offerHeartbeat());
+        assertFalse(subscriber.offer(1, "order-status", null, "change"));
+
+        subscriber.drain();
+
+        assertEquals(List.of("change"), sentPayloads(1));
+    }
+
+    /**
+     * The first write blocks like one to a client that stopped reading. The subscriber is dropped once too
+     * many events queue behind it, but the emitter is only completed after the write returned, since the
+     * emitter would make the offering thread wait for it.
+     */
+    @Test
+    void offer_shouldDisconnectSlowClient_whenTooManyEventsQueueBehindAWrite() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        assertTrue(subscriber.offer(1, "order-status", null, "first"));
+        Thread sender = Thread.ofPlatform().start(subscriber::drain);
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < MAX_PENDING; i++) {
+            assertFalse(subscriber.offer(1, "order-status", null, "update " + i));
+        }
+        assertFalse(subscriber.offer(2, "order-status", null, "one too many"));
+
+        verify(emitter, never()).complete();
+        assertEquals(0, closed.get());
+
+        release.countDown();
+        sender.join(10_000);
+
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+        assertEquals(1, closed.get());
+        assertFalse(subscriber.offer(1, "order-status", null, "after disconnect"));
+        assertFalse(subscriber.offerHeartbeat());
+    }
+
+    @Test
+    void drain_shouldUnsubscribe_whenWriteFails() throws Exception {
+        IOException broken = new IOException("Broken pipe");
+        doThrow(broken).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        assertTrue(subscriber.offer(1, "order-status", null, "change"));
+        subscriber.drain();
+
+        verify(emitter).completeWithError(broken);
+        assertEquals(1, closed.get());
+        assertFalse(subscriber.offer(1, "order-status", null, "next"));
+        assertFalse(subscriber.offerHeartbeat());
+    }
+
+    @Test
+    void drain_shouldSendEventsOfferedWhileDraining() throws Exception {
+        doAnswer(invocation -> {
+            subscriber.offer(2, "order-status", null, "during");
+            return null;
+        }).doNothing().when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        assertTrue(subscriber.offer(1, "order-status", null, "before"));
+        subscriber.drain();
+
+        assertEquals(List.of("before", "during"), sentPayloads(2));
+        assertTrue(subscriber.offer(3, "order-status", null, "after"));
+    }
+
+    /**
+     * @return The payload of each sent event, or the text of events without one, such as comments.
+     */
+    private List<Object> sentPayloads(int sends) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, times(sends)).send(events.capture());
+
+        return events.getAllValues().stream()
+                .map(SseEmitter.SseEventBuilder::build)
+                .map(parts -> parts.stream()
+                        .filter(part -> MediaType.APPLICATION_JSON.equals(part.getMediaType()))
+                        .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                        .findFirst()
+                        .orElseGet(() -> parts.stream()
+                                .map(part -> part.getData().toString())
+                                .collect(Collectors.joining())))
+                .toList();
+    }
+}